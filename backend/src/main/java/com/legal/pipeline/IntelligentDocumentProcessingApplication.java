@@ -2,12 +2,14 @@ package com.legal.pipeline;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Intelligent Document Processing Pipeline.
  * This is the entry point for the Spring Boot application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class IntelligentDocumentProcessingApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,39 @@
+package com.legal.pipeline.controller;
+
+import com.legal.pipeline.domain.dto.IngestManifest;
+import com.legal.pipeline.service.BulkIngestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for bulk ingestion.
+ * Accepts a ZIP production as the raw request body, so the archive streams through to
+ * the spool instead of being buffered as a multipart upload.
+ */
+@RestController
+@RequestMapping("/api/ingest")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class BulkIngestController {
+
+    @Autowired
+    private BulkIngestService bulkIngestService;
+
+    @PostMapping(value = "/zip", consumes = {"application/zip", "application/octet-stream"})
+    public ResponseEntity<?> ingestZip(HttpServletRequest request,
+            @RequestParam(required = false) String matterId) throws IOException, InterruptedException {
+        IngestManifest manifest;
+        try (InputStream archive = request.getInputStream()) {
+            manifest = bulkIngestService.ingest(archive, matterId);
+        }
+
+        if (manifest.getArchiveError() != null && manifest.getEntries().isEmpty()) {
+            return ResponseEntity.badRequest().body(manifest.getArchiveError());
+        }
+        return ResponseEntity.ok(manifest);
+    }
+}
@@ -0,0 +1,52 @@
+package com.legal.pipeline.controller;
+
+import com.legal.pipeline.domain.DeadLetter;
+import com.legal.pipeline.domain.dto.DeadLetterReplayRequest;
+import com.legal.pipeline.service.DeadLetterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+
+/**
+ * REST controller for the dead-letter store.
+ * Lists documents the pipeline gave up on and replays them in bulk.
+ */
+@RestController
+@RequestMapping("/api/dead-letters")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<?> listDeadLetters(
+            @RequestParam(required = false) String failedTopic,
+            @RequestParam(required = false) DeadLetter.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        LocalDateTime windowEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowStart = from != null ? from : windowEnd.minusDays(1);
+
+        return ResponseEntity.ok(deadLetterService.search(failedTopic, status, windowStart, windowEnd,
+                page, Math.min(size, 500)).getContent());
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<?> replayDeadLetters(@Valid @RequestBody DeadLetterReplayRequest replayRequest) {
+        if (!replayRequest.getFrom().isBefore(replayRequest.getTo())) {
+            return ResponseEntity.badRequest().body("'from' must be before 'to'");
+        }
+
+        deadLetterService.replay(replayRequest.getFailedTopic(), replayRequest.getFrom(), replayRequest.getTo(),
+                replayRequest.getLimit());
+
+        return ResponseEntity.accepted().body("Replay of up to " + replayRequest.getLimit() + " dead letters scheduled");
+    }
+}
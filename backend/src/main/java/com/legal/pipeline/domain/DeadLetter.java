@@ -0,0 +1,142 @@
+package com.legal.pipeline.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pipeline message that failed for good, kept so it can be inspected and replayed.
+ * A document has at most one dead letter per stage: a later failure in the same stage,
+ * from a redelivery or a replay, updates it.
+ */
+@Entity
+@Table(name = "dead_letters", indexes = {
+        @Index(name = "idx_dead_letters_status_failed_at", columnList = "status, failedAt"),
+        @Index(name = "idx_dead_letters_document_id", columnList = "documentId")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_dead_letters_document_stage", columnNames = {"documentId", "failedTopic"})
+})
+public class DeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String documentId;
+
+    private String documentType;
+
+    /** Topic of the stage that gave up, or null if the failure did not come from a stage. */
+    private String failedTopic;
+
+    @Column(length = 4000)
+    private String errorMessage;
+
+    private int retryAttempts;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    private LocalDateTime replayedAt;
+
+    /** The message in the pipeline wire format, exactly as the stage gave up on it. */
+    @JsonIgnore
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+
+    public DeadLetter() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public String getFailedTopic() {
+        return failedTopic;
+    }
+
+    public void setFailedTopic(String failedTopic) {
+        this.failedTopic = failedTopic;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public int getRetryAttempts() {
+        return retryAttempts;
+    }
+
+    public void setRetryAttempts(int retryAttempts) {
+        this.retryAttempts = retryAttempts;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getReplayedAt() {
+        return replayedAt;
+    }
+
+    public void setReplayedAt(LocalDateTime replayedAt) {
+        this.replayedAt = replayedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Replay state of a dead letter.
+     */
+    public enum Status {
+        PENDING,
+        REPLAYED
+    }
+}
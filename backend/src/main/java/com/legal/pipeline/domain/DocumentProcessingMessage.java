@@ -13,11 +13,15 @@ public class DocumentProcessingMessage {
     private String filePath;
     private String documentType;
     private String content;
+    private String contentRef;
+    private String contentHash;
     private Map<String, Object> metadata;
     private ProcessingStatus status;
     private String errorMessage;
     private LocalDateTime timestamp;
     private String currentStage;
+    private int retryAttempt;
+    private String failedTopic;
 
     public DocumentProcessingMessage() {
         this.timestamp = LocalDateTime.now();
@@ -64,6 +68,26 @@ public class DocumentProcessingMessage {
         this.content = content;
     }
 
+    /**
+     * Blob store reference for content that was claim-checked off the message, or null
+     * if the content travels inline.
+     */
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    public void setContentRef(String contentRef) {
+        this.contentRef = contentRef;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Map<String, Object> getMetadata() {
         return metadata;
     }
@@ -104,6 +128,29 @@ public class DocumentProcessingMessage {
         this.currentStage = currentStage;
     }
 
+    /**
+     * Number of times the stage named by {@link #getFailedTopic()} has been retried.
+     */
+    public int getRetryAttempt() {
+        return retryAttempt;
+    }
+
+    public void setRetryAttempt(int retryAttempt) {
+        this.retryAttempt = retryAttempt;
+    }
+
+    /**
+     * Topic of the stage the message last failed in, which is where a retry or a
+     * dead-letter replay sends it back to.
+     */
+    public String getFailedTopic() {
+        return failedTopic;
+    }
+
+    public void setFailedTopic(String failedTopic) {
+        this.failedTopic = failedTopic;
+    }
+
     /**
      * Enum for processing status.
      */
@@ -0,0 +1,167 @@
+package com.legal.pipeline.domain.categorization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A trained document classifier: one logistic regression per category over TF-IDF
+ * weighted {@link HashedFeatureVector hashed features}. Each category is scored on its
+ * own, so the scores are independent probabilities and a document may carry several
+ * labels, or none. Scoring is one pass over the text to hash it and one pass over its
+ * distinct features, all on primitive arrays; weights are laid out feature by feature so
+ * each feature reads the weights of every category from one contiguous run.
+ * <p>
+ * Models are built by {@link CategoryModelTrainer} and stored gzipped, with only the
+ * features seen in training.
+ */
+public final class CategoryModel {
+
+    private static final int MAGIC = 0x49445043;
+    private static final int VERSION = 1;
+
+    private final List<String> categories;
+    private final int hashBits;
+    private final float[] idf;
+    // weights[feature * categories + category]
+    private final float[] weights;
+    private final float[] bias;
+
+    CategoryModel(List<String> categories, int hashBits, float[] idf, float[] weights, float[] bias) {
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        this.hashBits = hashBits;
+        this.idf = idf;
+        this.weights = weights;
+        this.bias = bias;
+    }
+
+    /**
+     * @param content        the document text, may be null
+     * @param labelThreshold the probability a category needs to be one of the document's labels
+     * @return the probability of each category
+     */
+    public CategoryScores score(String content, double labelThreshold) {
+        CategoryScores scores = new CategoryScores(categories, labelThreshold);
+        double[] margins = margins(HashedFeatureVector.of(content == null ? "" : content, hashBits));
+        for (int category = 0; category < margins.length; category++) {
+            scores.set(category, sigmoid(margins[category]));
+        }
+        return scores;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Writes the model, gzipped. The stream is finished but left open.
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(stream);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip));
+        int categoryCount = categories.size();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(hashBits);
+        out.writeInt(categoryCount);
+        for (int category = 0; category < categoryCount; category++) {
+            out.writeUTF(categories.get(category));
+            out.writeFloat(bias[category]);
+        }
+
+        int features = 0;
+        for (float weight : idf) {
+            if (weight != 0) {
+                features++;
+            }
+        }
+        out.writeInt(features);
+        // A feature never seen in training has no idf and no weights, so it is left out
+        for (int feature = 0; feature < idf.length; feature++) {
+            if (idf[feature] != 0) {
+                out.writeInt(feature);
+                out.writeFloat(idf[feature]);
+                for (int category = 0; category < categoryCount; category++) {
+                    out.writeFloat(weights[feature * categoryCount + category]);
+                }
+            }
+        }
+        out.flush();
+        gzip.finish();
+    }
+
+    /**
+     * Reads a model written by {@link #writeTo(OutputStream)}.
+     *
+     * @throws IOException if the stream cannot be read or does not hold a model
+     */
+    public static CategoryModel read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a category model");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported category model version " + version);
+        }
+        int hashBits = in.readInt();
+        int categoryCount = in.readInt();
+        if (hashBits < 1 || hashBits > HashedFeatureVector.MAX_HASH_BITS || categoryCount < 1
+                || (long) categoryCount << hashBits > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt category model header");
+        }
+
+        List<String> categories = new ArrayList<>(categoryCount);
+        float[] bias = new float[categoryCount];
+        for (int category = 0; category < categoryCount; category++) {
+            categories.add(in.readUTF());
+            bias[category] = in.readFloat();
+        }
+
+        int dimensions = 1 << hashBits;
+        float[] idf = new float[dimensions];
+        float[] weights = new float[dimensions * categoryCount];
+        int features = in.readInt();
+        for (int i = 0; i < features; i++) {
+            int feature = in.readInt();
+            if (feature < 0 || feature >= dimensions) {
+                throw new IOException("Corrupt category model feature " + feature);
+            }
+            idf[feature] = in.readFloat();
+            for (int category = 0; category < categoryCount; category++) {
+                weights[feature * categoryCount + category] = in.readFloat();
+            }
+        }
+        return new CategoryModel(categories, hashBits, idf, weights, bias);
+    }
+
+    private double[] margins(HashedFeatureVector features) {
+        features.weightAndNormalize(idf);
+        int categoryCount = bias.length;
+        double[] margins = new double[categoryCount];
+        for (int category = 0; category < categoryCount; category++) {
+            margins[category] = bias[category];
+        }
+        for (int k = 0; k < features.size; k++) {
+            int offset = features.indices[k] * categoryCount;
+            float value = features.values[k];
+            for (int category = 0; category < categoryCount; category++) {
+                margins[category] += weights[offset + category] * value;
+            }
+        }
+        return margins;
+    }
+
+    static double sigmoid(double margin) {
+        return 1 / (1 + Math.exp(-margin));
+    }
+}
@@ -0,0 +1,237 @@
+package com.legal.pipeline.domain.categorization;
+
+import com.legal.pipeline.domain.strategy.DocxExtractionStrategy;
+import com.legal.pipeline.domain.strategy.ExtractionStrategyFactory;
+import com.legal.pipeline.domain.strategy.PDFExtractionStrategy;
+import com.legal.pipeline.domain.strategy.TextExtractionStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Trains a {@link CategoryModel} from labelled documents.
+ * Each category is learned as its own logistic regression by stochastic gradient descent
+ * on the log loss, with L2 regularisation, so the scores come out as probabilities rather
+ * than raw margins.
+ * <p>
+ * Run as {@code CategoryModelTrainer <labelled directory> <model file> [hash bits]}. Each
+ * subdirectory of the labelled directory is a category, named after it, holding that
+ * category's documents in any format the extraction strategies read. A document filed
+ * under the same relative path in several category directories carries all of them.
+ */
+public final class CategoryModelTrainer {
+
+    /**
+     * One labelled document.
+     */
+    public static final class Example {
+        private final String text;
+        private final Set<String> labels;
+
+        public Example(String text, Collection<String> labels) {
+            this.text = text;
+            this.labels = new LinkedHashSet<>(labels);
+        }
+    }
+
+    private final int hashBits;
+    private final int epochs;
+    private final double learningRate;
+    private final double l2;
+    private final long seed;
+
+    public CategoryModelTrainer() {
+        this(18, 20, 0.5, 1e-6, 42);
+    }
+
+    /**
+     * @param hashBits     the number of feature hash bits; more means fewer collisions and a larger model
+     * @param epochs       the number of passes over the examples
+     * @param learningRate the initial step size, decayed each epoch
+     * @param l2           the L2 regularisation strength
+     * @param seed         the seed for shuffling the examples, so training is repeatable
+     */
+    public CategoryModelTrainer(int hashBits, int epochs, double learningRate, double l2, long seed) {
+        if (hashBits < 1 || hashBits > HashedFeatureVector.MAX_HASH_BITS) {
+            throw new IllegalArgumentException("Hash bits must be between 1 and " +
+                    HashedFeatureVector.MAX_HASH_BITS + ": " + hashBits);
+        }
+        this.hashBits = hashBits;
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+        this.l2 = l2;
+        this.seed = seed;
+    }
+
+    /**
+     * @param examples the labelled documents; categories rank in the order they first appear
+     * @return the trained model
+     */
+    public CategoryModel train(List<Example> examples) {
+        Set<String> categorySet = new LinkedHashSet<>();
+        for (Example example : examples) {
+            categorySet.addAll(example.labels);
+        }
+        List<String> categories = new ArrayList<>(categorySet);
+        if (categories.isEmpty()) {
+            throw new IllegalArgumentException("No labelled examples to train on");
+        }
+        int categoryCount = categories.size();
+        int dimensions = 1 << hashBits;
+        if ((long) categoryCount * dimensions > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many categories for " + hashBits + " hash bits");
+        }
+
+        int documents = examples.size();
+        HashedFeatureVector[] vectors = new HashedFeatureVector[documents];
+        boolean[][] targets = new boolean[documents][categoryCount];
+        int[] documentFrequency = new int[dimensions];
+        for (int d = 0; d < documents; d++) {
+            Example example = examples.get(d);
+            vectors[d] = HashedFeatureVector.of(example.text, hashBits);
+            for (int k = 0; k < vectors[d].size; k++) {
+                documentFrequency[vectors[d].indices[k]]++;
+            }
+            for (String label : example.labels) {
+                targets[d][categories.indexOf(label)] = true;
+            }
+        }
+
+        // Smoothed idf, and 0 for features no document has, which marks them unused
+        float[] idf = new float[dimensions];
+        for (int feature = 0; feature < dimensions; feature++) {
+            if (documentFrequency[feature] > 0) {
+                idf[feature] = (float) (Math.log((1.0 + documents) / (1.0 + documentFrequency[feature])) + 1);
+            }
+        }
+        for (HashedFeatureVector vector : vectors) {
+            vector.weightAndNormalize(idf);
+        }
+
+        float[] weights = new float[dimensions * categoryCount];
+        float[] bias = new float[categoryCount];
+        double[] margins = new double[categoryCount];
+        int[] order = new int[documents];
+        for (int d = 0; d < documents; d++) {
+            order[d] = d;
+        }
+        Random random = new Random(seed);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            shuffle(order, random);
+            double step = learningRate / (1 + epoch);
+            for (int d : order) {
+                HashedFeatureVector vector = vectors[d];
+                for (int category = 0; category < categoryCount; category++) {
+                    margins[category] = bias[category];
+                }
+                for (int k = 0; k < vector.size; k++) {
+                    int offset = vector.indices[k] * categoryCount;
+                    for (int category = 0; category < categoryCount; category++) {
+                        margins[category] += weights[offset + category] * vector.values[k];
+                    }
+                }
+                // The log-loss gradient of each category's margin is its prediction error
+                for (int category = 0; category < categoryCount; category++) {
+                    margins[category] = CategoryModel.sigmoid(margins[category]) - (targets[d][category] ? 1 : 0);
+                    bias[category] -= (float) (step * margins[category]);
+                }
+                for (int k = 0; k < vector.size; k++) {
+                    int offset = vector.indices[k] * categoryCount;
+                    for (int category = 0; category < categoryCount; category++) {
+                        float weight = weights[offset + category];
+                        weights[offset + category] =
+                                (float) (weight - step * (margins[category] * vector.values[k] + l2 * weight));
+                    }
+                }
+            }
+        }
+        return new CategoryModel(categories, hashBits, idf, weights, bias);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: CategoryModelTrainer <labelled directory> <model file> [hash bits]");
+            System.exit(2);
+        }
+        try {
+            CategoryModelTrainer trainer = args.length == 3
+                    ? new CategoryModelTrainer(Integer.parseInt(args[2]), 20, 0.5, 1e-6, 42)
+                    : new CategoryModelTrainer();
+            List<Example> examples = readLabelledDirectory(Paths.get(args[0]));
+            CategoryModel model = trainer.train(examples);
+            try (OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+                model.writeTo(out);
+            }
+            System.out.println("Trained categories " + model.getCategories() + " on " + examples.size() +
+                    " documents; model written to " + args[1]);
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static List<Example> readLabelledDirectory(Path root) throws IOException {
+        ExtractionStrategyFactory extraction = new ExtractionStrategyFactory(
+                List.of(new TextExtractionStrategy(), new PDFExtractionStrategy(), new DocxExtractionStrategy()),
+                new SimpleMeterRegistry());
+        Map<String, String> texts = new LinkedHashMap<>();
+        Map<String, List<String>> labels = new LinkedHashMap<>();
+        List<Path> categoryDirectories;
+        try (Stream<Path> children = Files.list(root)) {
+            categoryDirectories = children.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+        for (Path categoryDirectory : categoryDirectories) {
+            String category = categoryDirectory.getFileName().toString();
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(categoryDirectory)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                String document = categoryDirectory.relativize(file).toString();
+                if (!texts.containsKey(document)) {
+                    try {
+                        String name = file.getFileName().toString();
+                        String declaredType = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+                        texts.put(document, extraction.route(file.toString(), declaredType).getStrategy()
+                                .extractText(file.toString()));
+                    } catch (Exception e) {
+                        System.err.println("Skipping unreadable training document " + file + ": " + e.getMessage());
+                        continue;
+                    }
+                }
+                labels.computeIfAbsent(document, key -> new ArrayList<>()).add(category);
+            }
+        }
+
+        List<Example> examples = new ArrayList<>(texts.size());
+        for (Map.Entry<String, String> document : texts.entrySet()) {
+            examples.add(new Example(document.getValue(), labels.get(document.getKey())));
+        }
+        return examples;
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.legal.pipeline.domain.categorization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The evidence for each category of one document. From the keyword dictionary this is
+ * the summed keyword weights and the number of keyword hits; from a trained model it is
+ * the probability of each category, with no hits.
+ */
+public class CategoryScores {
+
+    /** The category of a document with no text. */
+    public static final String UNKNOWN = "UNKNOWN";
+    public static final String GENERAL = "GENERAL";
+
+    private final List<String> categories;
+    private final double[] scores;
+    private final int[] hits;
+    private final double labelThreshold;
+
+    CategoryScores(List<String> categories) {
+        this(categories, 0);
+    }
+
+    /**
+     * @param labelThreshold the score a category needs to be a label of the document; any
+     *                       positive score counts when this is 0
+     */
+    CategoryScores(List<String> categories, double labelThreshold) {
+        this.categories = categories;
+        this.scores = new double[categories.size()];
+        this.hits = new int[categories.size()];
+        this.labelThreshold = labelThreshold;
+    }
+
+    void add(int category, double weight) {
+        scores[category] += weight;
+        hits[category]++;
+    }
+
+    void set(int category, double score) {
+        scores[category] = score;
+    }
+
+    /**
+     * @return the highest-scoring label, the one declared first on a tie, or
+     * {@link #GENERAL} if the document has no label
+     */
+    public String getBestCategory() {
+        int best = -1;
+        for (int category = 0; category < scores.length; category++) {
+            if (isLabel(category) && (best < 0 || scores[category] > scores[best])) {
+                best = category;
+            }
+        }
+        return best < 0 ? GENERAL : categories.get(best);
+    }
+
+    /**
+     * @return every category the document belongs to, in ranking order; a document may
+     * belong to several
+     */
+    public List<String> getLabels() {
+        List<String> labels = new ArrayList<>();
+        for (int category = 0; category < scores.length; category++) {
+            if (isLabel(category)) {
+                labels.add(categories.get(category));
+            }
+        }
+        return labels;
+    }
+
+    public double getScore(String category) {
+        int index = categories.indexOf(category);
+        return index < 0 ? 0 : scores[index];
+    }
+
+    public int getHits(String category) {
+        int index = categories.indexOf(category);
+        return index < 0 ? 0 : hits[index];
+    }
+
+    /**
+     * @return the score of every category with any evidence
+     */
+    public Map<String, Object> scoresByCategory() {
+        Map<String, Object> byCategory = new LinkedHashMap<>();
+        for (int category = 0; category < scores.length; category++) {
+            if (hits[category] > 0 || scores[category] != 0) {
+                byCategory.put(categories.get(category), scores[category]);
+            }
+        }
+        return byCategory;
+    }
+
+    /**
+     * @return the hit count of every category with at least one hit
+     */
+    public Map<String, Object> hitsByCategory() {
+        Map<String, Object> byCategory = new LinkedHashMap<>();
+        for (int category = 0; category < hits.length; category++) {
+            if (hits[category] > 0) {
+                byCategory.put(categories.get(category), hits[category]);
+            }
+        }
+        return byCategory;
+    }
+
+    private boolean isLabel(int category) {
+        return scores[category] > 0 && scores[category] >= labelThreshold;
+    }
+}
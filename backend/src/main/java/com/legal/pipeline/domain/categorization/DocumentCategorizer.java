@@ -0,0 +1,25 @@
+package com.legal.pipeline.domain.categorization;
+
+import java.util.List;
+
+/**
+ * Assigns categories to document text.
+ * The categorizer stage uses whichever implementation {@code categorization.categorizer}
+ * selects: the keyword dictionary ({@code keyword}, the default) or a trained model
+ * ({@code model}).
+ */
+public interface DocumentCategorizer {
+
+    /**
+     * Scores a document against every category.
+     *
+     * @param content the document text, may be null
+     * @return the per-category scores
+     */
+    CategoryScores score(String content);
+
+    /**
+     * @return the categories this categorizer can assign, in ranking order
+     */
+    List<String> getCategories();
+}
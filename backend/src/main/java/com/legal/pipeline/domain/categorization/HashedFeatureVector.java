@@ -0,0 +1,138 @@
+package com.legal.pipeline.domain.categorization;
+
+/**
+ * A document as a sparse vector of hashed features: every word and every pair of adjacent
+ * words, lower-cased and hashed into 2^bits buckets. Words are hashed straight off the
+ * text as it is read and counted in a primitive hash table, so no token string or boxed
+ * count is ever created. Values start as log-scaled term counts.
+ */
+final class HashedFeatureVector {
+
+    static final int MAX_HASH_BITS = 24;
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    final int[] indices;
+    final float[] values;
+    final int size;
+
+    private HashedFeatureVector(int[] indices, float[] values, int size) {
+        this.indices = indices;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @param text     the text to featurize
+     * @param hashBits the number of hash bits, so the features range over [0, 2^hashBits)
+     * @return the distinct features, in no particular order, each valued 1 + ln(count)
+     */
+    static HashedFeatureVector of(CharSequence text, int hashBits) {
+        int length = text.length();
+        int shift = 32 - hashBits;
+        // Open addressing on primitive arrays, kept at most half full; sized for a typical
+        // word length and doubled if the text has more distinct features than that.
+        // Slots hold feature + 1 so that 0 means empty.
+        int[] slots = new int[Integer.highestOneBit(Math.max(16, length / 2)) << 1];
+        int[] counts = new int[slots.length];
+        int size = 0;
+
+        int word = FNV_OFFSET;
+        int previous = 0;
+        boolean inWord = false;
+        boolean hasPrevious = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = (word ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                if (2 * (size + 2) > slots.length) {
+                    int[][] grown = grow(slots, counts);
+                    slots = grown[0];
+                    counts = grown[1];
+                }
+                size += count(slots, counts, mix(word) >>> shift, 1);
+                if (hasPrevious) {
+                    int pair = mix(Integer.rotateLeft(previous, 13) ^ word ^ FNV_PRIME) >>> shift;
+                    size += count(slots, counts, pair, 1);
+                }
+                previous = word;
+                hasPrevious = true;
+                word = FNV_OFFSET;
+                inWord = false;
+            }
+        }
+
+        int[] indices = new int[size];
+        float[] values = new float[size];
+        int k = 0;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] != 0) {
+                indices[k] = slots[slot] - 1;
+                values[k++] = 1 + (float) Math.log(counts[slot]);
+            }
+        }
+        return new HashedFeatureVector(indices, values, size);
+    }
+
+    /**
+     * @return 1 if the feature is new to the table, otherwise 0
+     */
+    private static int count(int[] slots, int[] counts, int feature, int occurrences) {
+        int mask = slots.length - 1;
+        // Features are already uniformly hashed, so their low bits pick the slot
+        int slot = feature & mask;
+        while (slots[slot] != 0 && slots[slot] != feature + 1) {
+            slot = (slot + 1) & mask;
+        }
+        counts[slot] += occurrences;
+        if (slots[slot] == 0) {
+            slots[slot] = feature + 1;
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int[][] grow(int[] slots, int[] counts) {
+        int[] grownSlots = new int[slots.length * 2];
+        int[] grownCounts = new int[grownSlots.length];
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] != 0) {
+                count(grownSlots, grownCounts, slots[slot] - 1, counts[slot]);
+            }
+        }
+        return new int[][] { grownSlots, grownCounts };
+    }
+
+    /**
+     * Weights each feature by its inverse document frequency, then scales the vector to
+     * unit length, so long and short documents score on the same scale.
+     */
+    void weightAndNormalize(float[] idf) {
+        double norm = 0;
+        for (int k = 0; k < size; k++) {
+            values[k] *= idf[indices[k]];
+            norm += values[k] * values[k];
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int k = 0; k < size; k++) {
+                values[k] *= scale;
+            }
+        }
+    }
+
+    /**
+     * The MurmurHash3 finalizer: spreads FNV's weak low bits over the whole word.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,249 @@
+package com.legal.pipeline.domain.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords and phrases.
+ * Text is matched case-insensitively and whole-word in a single left-to-right pass that
+ * allocates nothing per character: letters and digits are lower-cased on the fly, and
+ * every run of other characters is read as one space, so "Governing\n  Law" matches
+ * "governing law".
+ * A keyword ending in {@code *} matches as a prefix, so "contract*" also matches
+ * "contracts" and "contractual". Cost is linear in the text length whatever the number
+ * of keywords. ASCII transitions are a dense table; other characters follow failure links.
+ */
+public final class KeywordAutomaton {
+
+    /**
+     * Receives each keyword occurrence, by its index in the list the automaton was built from.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        void onMatch(int keyword);
+    }
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int ASCII = 128;
+    private static final char GAP = ' ';
+
+    private final int[] asciiNext;
+    private final char[][] sparseKeys;
+    private final int[][] sparseTargets;
+    private final int[] fail;
+    private final int[] keywordAt;
+    private final int[] outputLink;
+    private final boolean[] prefix;
+
+    /**
+     * @param keywords the keywords; blank or duplicate ones are allowed but only the first
+     *                 of a set of duplicates is ever reported
+     */
+    public KeywordAutomaton(List<String> keywords) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminal.add(NONE);
+
+        prefix = new boolean[keywords.size()];
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k).trim();
+            prefix[k] = keyword.endsWith("*");
+            String normalized = normalize(prefix[k] ? keyword.substring(0, keyword.length() - 1) : keyword);
+            if (normalized.length() <= 1) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < normalized.length(); i++) {
+                Integer next = children.get(node).get(normalized.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    terminal.add(NONE);
+                    children.get(node).put(normalized.charAt(i), next);
+                }
+                node = next;
+            }
+            if (terminal.get(node) == NONE) {
+                terminal.set(node, k);
+            }
+        }
+
+        int nodes = children.size();
+        asciiNext = new int[nodes * ASCII];
+        sparseKeys = new char[nodes][];
+        sparseTargets = new int[nodes][];
+        fail = new int[nodes];
+        keywordAt = new int[nodes];
+        outputLink = new int[nodes];
+        for (int node = 0; node < nodes; node++) {
+            keywordAt[node] = terminal.get(node);
+            freezeSparse(node, children.get(node));
+        }
+
+        // Breadth-first, so every node's failure target is complete before its children need it
+        Queue<Integer> queue = new ArrayDeque<>();
+        fail[ROOT] = ROOT;
+        outputLink[ROOT] = NONE;
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            for (char c = 0; c < ASCII; c++) {
+                Integer child = children.get(node).get(c);
+                int fallback = node == ROOT ? ROOT : asciiNext[fail[node] * ASCII + c];
+                asciiNext[node * ASCII + c] = child != null ? child : fallback;
+            }
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                int child = edge.getValue();
+                fail[child] = node == ROOT ? ROOT : step(fail[node], edge.getKey());
+                outputLink[child] = keywordAt[fail[child]] != NONE ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Reports every keyword occurrence in the text, in order of where each one ends.
+     *
+     * @param text    the text to scan
+     * @param handler receives each occurrence
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        Cursor cursor = cursor(handler);
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            cursor.next(text.charAt(i));
+        }
+        cursor.finish();
+    }
+
+    /**
+     * Starts a scan that is fed one character at a time, for callers that compute other
+     * things about the text in the same pass.
+     *
+     * @param handler receives each occurrence
+     * @return a cursor at the start of a text
+     */
+    public Cursor cursor(MatchHandler handler) {
+        return new Cursor(handler);
+    }
+
+    /**
+     * A scan in progress. A whole-word match is only reported once the next character
+     * shows that the word ended, so the matches ending at a character are reported when
+     * the character after it is fed, or at {@link #finish()}.
+     */
+    public final class Cursor {
+
+        private final MatchHandler handler;
+        // Start as if after a gap, so a keyword can match at the very beginning
+        private int state = step(ROOT, GAP);
+        private boolean inGap = true;
+        // The first node whose keywords end at the previous character, or NONE
+        private int pending = NONE;
+
+        private Cursor(MatchHandler handler) {
+            this.handler = handler;
+        }
+
+        public void next(char c) {
+            boolean wordCharacter = Character.isLetterOrDigit(c);
+            if (pending != NONE) {
+                report(!wordCharacter);
+            }
+            if (wordCharacter) {
+                c = Character.toLowerCase(c);
+                inGap = false;
+            } else if (inGap) {
+                return;
+            } else {
+                c = GAP;
+                inGap = true;
+            }
+            state = step(state, c);
+            pending = keywordAt[state] != NONE ? state : outputLink[state];
+        }
+
+        /**
+         * Reports the matches that end with the text.
+         */
+        public void finish() {
+            if (pending != NONE) {
+                report(true);
+            }
+        }
+
+        private void report(boolean wordEnded) {
+            for (int node = pending; node != NONE; node = outputLink[node]) {
+                int keyword = keywordAt[node];
+                if (wordEnded || prefix[keyword]) {
+                    handler.onMatch(keyword);
+                }
+            }
+            pending = NONE;
+        }
+    }
+
+    private int step(int state, char c) {
+        if (c < ASCII) {
+            return asciiNext[state * ASCII + c];
+        }
+        while (true) {
+            int index = Arrays.binarySearch(sparseKeys[state], c);
+            if (index >= 0) {
+                return sparseTargets[state][index];
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private void freezeSparse(int node, Map<Character, Integer> edges) {
+        char[] keys = new char[edges.size()];
+        int count = 0;
+        for (char key : edges.keySet()) {
+            if (key >= ASCII) {
+                keys[count++] = key;
+            }
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        int[] targets = new int[count];
+        for (int i = 0; i < count; i++) {
+            targets[i] = edges.get(keys[i]);
+        }
+        sparseKeys[node] = keys;
+        sparseTargets[node] = targets;
+    }
+
+    /**
+     * Puts a keyword in the form the scan feeds the automaton: a leading gap for the word
+     * boundary, lower-case letters and digits, and one gap for each run of anything else.
+     */
+    private static String normalize(String keyword) {
+        StringBuilder normalized = new StringBuilder().append(GAP);
+        boolean inGap = true;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                inGap = false;
+            } else if (!inGap) {
+                normalized.append(GAP);
+                inGap = true;
+            }
+        }
+        if (inGap) {
+            normalized.setLength(normalized.length() - 1);
+        }
+        return normalized.toString();
+    }
+}
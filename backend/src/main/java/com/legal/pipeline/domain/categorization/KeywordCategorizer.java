@@ -0,0 +1,114 @@
+package com.legal.pipeline.domain.categorization;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Scores documents against a weighted keyword dictionary.
+ * The dictionary is read once at startup and compiled into a single
+ * {@link KeywordAutomaton}, so categorizing costs one pass over the text however many
+ * terms it lists. Each line of the dictionary is {@code CATEGORY | keyword | weight};
+ * blank lines and lines starting with {@code #} are ignored. Categories rank in the order
+ * they first appear, which breaks ties.
+ */
+@Component
+@ConditionalOnProperty(name = "categorization.categorizer", havingValue = "keyword", matchIfMissing = true)
+public class KeywordCategorizer implements DocumentCategorizer {
+
+    private final List<String> categories;
+    // For each distinct keyword: the weight it adds to each category, or 0
+    private final double[][] keywordWeights;
+    private final KeywordAutomaton automaton;
+
+    public KeywordCategorizer(
+            @Value("${categorization.dictionary:classpath:categorization/keywords.txt}") Resource dictionary) {
+        this(readDictionary(dictionary));
+    }
+
+    KeywordCategorizer(List<String[]> entries) {
+        List<String> categoryNames = new ArrayList<>();
+        Map<String, Integer> keywordIndex = new LinkedHashMap<>();
+        List<double[]> weights = new ArrayList<>();
+        for (String[] entry : entries) {
+            if (!categoryNames.contains(entry[0])) {
+                categoryNames.add(entry[0]);
+            }
+        }
+        for (String[] entry : entries) {
+            // Distinct keywords only: one keyword may count towards several categories
+            Integer keyword = keywordIndex.computeIfAbsent(entry[1].toLowerCase(Locale.ROOT), key -> {
+                weights.add(new double[categoryNames.size()]);
+                return weights.size() - 1;
+            });
+            weights.get(keyword)[categoryNames.indexOf(entry[0])] += Double.parseDouble(entry[2]);
+        }
+
+        this.categories = Collections.unmodifiableList(categoryNames);
+        this.keywordWeights = weights.toArray(new double[0][]);
+        this.automaton = new KeywordAutomaton(new ArrayList<>(keywordIndex.keySet()));
+    }
+
+    /**
+     * @param content the document text, may be null
+     * @return the per-category scores and hit counts
+     */
+    @Override
+    public CategoryScores score(String content) {
+        CategoryScores scores = new CategoryScores(categories);
+        if (content != null && !content.isEmpty()) {
+            automaton.scan(content, keyword -> {
+                double[] weights = keywordWeights[keyword];
+                for (int category = 0; category < weights.length; category++) {
+                    if (weights[category] != 0) {
+                        scores.add(category, weights[category]);
+                    }
+                }
+            });
+        }
+        return scores;
+    }
+
+    @Override
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    private static List<String[]> readDictionary(Resource dictionary) {
+        List<String[]> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(dictionary.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\|");
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("Keyword dictionary line " + lineNumber +
+                            " is not 'CATEGORY | keyword | weight': " + line);
+                }
+                entries.add(new String[] { fields[0].trim(), fields[1].trim(), fields[2].trim() });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read keyword dictionary " + dictionary, e);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,49 @@
+package com.legal.pipeline.domain.categorization;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Scores documents with a {@link CategoryModel} trained by {@link CategoryModelTrainer}.
+ * The model is loaded once at startup; a missing or unreadable model stops the
+ * application rather than leaving every document uncategorized.
+ */
+@Component
+@ConditionalOnProperty(name = "categorization.categorizer", havingValue = "model")
+public class ModelCategorizer implements DocumentCategorizer {
+
+    private final CategoryModel model;
+    private final double labelThreshold;
+
+    public ModelCategorizer(@Value("${categorization.model.path:file:category-model.bin}") Resource modelFile,
+            @Value("${categorization.model.label-threshold:0.5}") double labelThreshold) {
+        try (InputStream in = modelFile.getInputStream()) {
+            this.model = CategoryModel.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load category model " + modelFile, e);
+        }
+        this.labelThreshold = labelThreshold;
+        System.out.println("Loaded category model " + modelFile + " with categories " + model.getCategories());
+    }
+
+    /**
+     * @param content the document text, may be null
+     * @return the probability of each category
+     */
+    @Override
+    public CategoryScores score(String content) {
+        return model.score(content, labelThreshold);
+    }
+
+    @Override
+    public List<String> getCategories() {
+        return model.getCategories();
+    }
+}
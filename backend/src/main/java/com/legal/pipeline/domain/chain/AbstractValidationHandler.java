@@ -1,33 +1,59 @@
 package com.legal.pipeline.domain.chain;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Abstract base class for validation handlers in the Chain of Responsibility
  * pattern.
- * Provides common functionality for chaining handlers.
+ * Keeps the linked chaining of earlier releases working on top of
+ * {@link ValidationChain}, which measures the content once for all its handlers.
  */
 public abstract class AbstractValidationHandler implements IValidationHandler {
 
+    /**
+     * @deprecated see {@link IValidationHandler#setNextHandler(IValidationHandler)}
+     */
+    @Deprecated
     protected IValidationHandler nextHandler;
 
+    // The chain built from this handler's links; rebuilt when the links change
+    private volatile ValidationChain linkedChain;
+
+    @Deprecated
     @Override
     public void setNextHandler(IValidationHandler nextHandler) {
         this.nextHandler = nextHandler;
     }
 
     /**
-     * Template method for validation. Subclasses implement specific validation
-     * logic.
+     * Validates with this handler and the handlers linked after it. They run in the linked
+     * order, since a chain that is never reordered keeps its handlers as listed.
      *
      * @param documentId the ID of the document
      * @param content    the content to validate
      * @return true if validation passes
+     * @deprecated use {@link ValidationChain#validate(String, String)}
      */
+    @Deprecated
     @Override
     public boolean validate(String documentId, String content) {
-        if (performValidation(documentId, content)) {
-            return nextHandler == null || nextHandler.validate(documentId, content);
+        List<IValidationHandler> linked = linkedHandlers();
+        ValidationChain chain = linkedChain;
+        if (chain == null || !chain.getHandlers().equals(linked)) {
+            chain = new ValidationChain(linked, 0, Long.MAX_VALUE, System::nanoTime);
+            linkedChain = chain;
         }
-        return false;
+        return chain.validate(documentId, content);
+    }
+
+    /**
+     * Template method for validation. Subclasses implement specific validation
+     * logic.
+     */
+    @Override
+    public boolean validate(String documentId, String content, ContentProfile profile) {
+        return performValidation(documentId, content, profile);
     }
 
     /**
@@ -35,7 +61,20 @@ public abstract class AbstractValidationHandler implements IValidationHandler {
      *
      * @param documentId the ID of the document
      * @param content    the content to validate
+     * @param profile    the content measurements, covering what this handler declared
      * @return true if this handler's validation passes
      */
-    protected abstract boolean performValidation(String documentId, String content);
+    protected abstract boolean performValidation(String documentId, String content, ContentProfile profile);
+
+    @SuppressWarnings("deprecation")
+    private List<IValidationHandler> linkedHandlers() {
+        List<IValidationHandler> linked = new ArrayList<>();
+        IValidationHandler handler = this;
+        // A handler of another kind ends the walk; a handler seen before ends a circular link
+        while (handler != null && !linked.contains(handler)) {
+            linked.add(handler);
+            handler = handler instanceof AbstractValidationHandler abstractHandler ? abstractHandler.nextHandler : null;
+        }
+        return linked;
+    }
 }
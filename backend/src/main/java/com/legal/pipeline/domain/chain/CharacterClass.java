@@ -0,0 +1,55 @@
+package com.legal.pipeline.domain.chain;
+
+/**
+ * The classes of the character histogram in a {@link ContentProfile}.
+ */
+public enum CharacterClass {
+    LETTER,
+    DIGIT,
+    WHITESPACE,
+    PUNCTUATION,
+    CONTROL,
+    OTHER;
+
+    private static final byte[] ASCII = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            ASCII[c] = (byte) classify(c).ordinal();
+        }
+    }
+
+    /**
+     * @return the ordinal of the character's class; a table lookup for ASCII
+     */
+    static int ordinalOf(char c) {
+        return c < ASCII.length ? ASCII[c] : classify(c).ordinal();
+    }
+
+    private static CharacterClass classify(char c) {
+        if (Character.isLetter(c)) {
+            return LETTER;
+        }
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+            return WHITESPACE;
+        }
+        if (Character.isISOControl(c)) {
+            return CONTROL;
+        }
+        switch (Character.getType(c)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return PUNCTUATION;
+            default:
+                return OTHER;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.legal.pipeline.domain.chain;
+
+/**
+ * Content measurements a validation handler can ask the shared {@link ContentScanner}
+ * for. Length is always measured and term hits are requested by listing the terms, so
+ * neither appears here.
+ */
+public enum ContentFeature {
+
+    /** Sentence-ending punctuation: '.', '!' and '?'. */
+    SENTENCES,
+
+    /** A count of characters in each {@link CharacterClass}. */
+    CHARACTER_CLASSES
+}
@@ -0,0 +1,70 @@
+package com.legal.pipeline.domain.chain;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What one {@link ContentScanner} pass measured about a document's content, shared by
+ * every handler in the chain. Only the features some handler declared are measured;
+ * asking for anything else is a programming error and fails loudly.
+ */
+public final class ContentProfile {
+
+    private final int length;
+    private final Set<ContentFeature> features;
+    private final long sentenceCount;
+    private final long[] characterClassCounts;
+    private final Map<String, Integer> termIndex;
+    private final int[] termHits;
+
+    ContentProfile(int length, Set<ContentFeature> features, long sentenceCount, long[] characterClassCounts,
+            Map<String, Integer> termIndex, int[] termHits) {
+        this.length = length;
+        this.features = features;
+        this.sentenceCount = sentenceCount;
+        this.characterClassCounts = characterClassCounts;
+        this.termIndex = termIndex;
+        this.termHits = termHits;
+    }
+
+    /**
+     * @return the content length in characters
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the number of sentence-ending punctuation marks
+     */
+    public long getSentenceCount() {
+        require(ContentFeature.SENTENCES);
+        return sentenceCount;
+    }
+
+    /**
+     * @return the number of characters in the class
+     */
+    public long getCount(CharacterClass characterClass) {
+        require(ContentFeature.CHARACTER_CLASSES);
+        return characterClassCounts[characterClass.ordinal()];
+    }
+
+    /**
+     * @param term a term exactly as a handler declared it
+     * @return the number of times the term occurs
+     */
+    public int getTermHits(String term) {
+        Integer index = termIndex.get(term);
+        if (index == null) {
+            throw new IllegalArgumentException("No validation handler declared the term '" + term + "'");
+        }
+        return termHits[index];
+    }
+
+    private void require(ContentFeature feature) {
+        if (!features.contains(feature)) {
+            throw new IllegalStateException("No validation handler declared the content feature " + feature);
+        }
+    }
+}
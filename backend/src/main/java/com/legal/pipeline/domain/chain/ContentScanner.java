@@ -0,0 +1,84 @@
+package com.legal.pipeline.domain.chain;
+
+import com.legal.pipeline.domain.categorization.KeywordAutomaton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures everything the handlers of a validation chain need from the content in one
+ * pass over it. Each handler declares its content features and terms; the scanner
+ * merges the declarations, compiles all the terms into one {@link KeywordAutomaton},
+ * and feeds each character once to the automaton and to every requested counter. Adding
+ * a handler adds work per character, not another traversal of the content.
+ */
+public final class ContentScanner {
+
+    private final Set<ContentFeature> features;
+    private final Map<String, Integer> termIndex;
+    private final KeywordAutomaton automaton;
+
+    /**
+     * @param features the features to measure
+     * @param terms    the terms to count; a trailing {@code *} counts any word starting with the term
+     */
+    public ContentScanner(Set<ContentFeature> features, Iterable<String> terms) {
+        this.features = features.isEmpty() ? EnumSet.noneOf(ContentFeature.class) : EnumSet.copyOf(features);
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (String term : terms) {
+            index.putIfAbsent(term, index.size());
+        }
+        this.termIndex = Collections.unmodifiableMap(index);
+        this.automaton = index.isEmpty() ? null : new KeywordAutomaton(new ArrayList<>(index.keySet()));
+    }
+
+    /**
+     * @return a scanner for what any of the handlers declares
+     */
+    public static ContentScanner forHandlers(Iterable<? extends IValidationHandler> handlers) {
+        Set<ContentFeature> features = EnumSet.noneOf(ContentFeature.class);
+        List<String> terms = new ArrayList<>();
+        for (IValidationHandler handler : handlers) {
+            features.addAll(handler.requiredFeatures());
+            terms.addAll(handler.requiredTerms());
+        }
+        return new ContentScanner(features, terms);
+    }
+
+    /**
+     * @param content the content, may be null
+     * @return the measurements
+     */
+    public ContentProfile scan(String content) {
+        String text = content == null ? "" : content;
+        int length = text.length();
+        boolean countSentences = features.contains(ContentFeature.SENTENCES);
+        long[] classCounts = features.contains(ContentFeature.CHARACTER_CLASSES)
+                ? new long[CharacterClass.values().length] : null;
+        int[] termHits = new int[termIndex.size()];
+        KeywordAutomaton.Cursor terms = automaton == null ? null : automaton.cursor(term -> termHits[term]++);
+
+        long sentences = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (terms != null) {
+                terms.next(c);
+            }
+            if (countSentences && (c == '.' || c == '!' || c == '?')) {
+                sentences++;
+            }
+            if (classCounts != null) {
+                classCounts[CharacterClass.ordinalOf(c)]++;
+            }
+        }
+        if (terms != null) {
+            terms.finish();
+        }
+        return new ContentProfile(length, features, sentences, classCounts, termIndex, termHits);
+    }
+}
@@ -2,7 +2,10 @@ package com.legal.pipeline.domain.chain;
 
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Concrete validation handler for checking document content quality.
@@ -11,20 +14,29 @@ import java.util.regex.Pattern;
 @Component
 public class ContentValidationHandler extends AbstractValidationHandler {
 
-    private static final Pattern LEGAL_TERMS_PATTERN = Pattern.compile(
-            "(?i)(contract|agreement|party|clause|terms|conditions|law|legal|court|judgment)"
-    );
+    private static final List<String> LEGAL_TERMS = List.of(
+            "contract*", "agreement*", "party", "clause*", "terms", "conditions", "law*", "legal*", "court*",
+            "judgment*");
 
     @Override
-    protected boolean performValidation(String documentId, String content) {
-        if (!LEGAL_TERMS_PATTERN.matcher(content).find()) {
+    public Set<ContentFeature> requiredFeatures() {
+        return EnumSet.of(ContentFeature.SENTENCES);
+    }
+
+    @Override
+    public Collection<String> requiredTerms() {
+        return LEGAL_TERMS;
+    }
+
+    @Override
+    protected boolean performValidation(String documentId, String content, ContentProfile profile) {
+        if (!hasLegalTerm(profile)) {
             System.err.println("Content validation failed for document " + documentId + ": No legal terminology found");
             return false;
         }
 
         // Check for basic structure (paragraphs, sentences)
-        long sentenceCount = content.chars().filter(ch -> ch == '.' || ch == '!' || ch == '?').count();
-        if (sentenceCount < 2) {
+        if (profile.getSentenceCount() < 2) {
             System.err.println("Content validation failed for document " + documentId + ": Insufficient sentence structure");
             return false;
         }
@@ -32,4 +44,13 @@ public class ContentValidationHandler extends AbstractValidationHandler {
         System.out.println("Content validation passed for document " + documentId);
         return true;
     }
+
+    private static boolean hasLegalTerm(ContentProfile profile) {
+        for (String term : LEGAL_TERMS) {
+            if (profile.getTermHits(term) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
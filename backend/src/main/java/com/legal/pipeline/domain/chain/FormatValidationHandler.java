@@ -3,8 +3,10 @@ package com.legal.pipeline.domain.chain;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Concrete validation handler for document format validation.
@@ -17,30 +19,22 @@ public class FormatValidationHandler extends AbstractValidationHandler {
     private static final String[] SUPPORTED_EXTENSIONS = {"pdf", "docx", "doc", "txt"};
 
     @Override
-    protected boolean performValidation(String documentId, String content) {
+    protected boolean performValidation(String documentId, String content, ContentProfile profile) {
         try {
             Path filePath = Paths.get(documentId); // Assuming documentId is the file path
 
-            // Check if file exists
-            if (!Files.exists(filePath)) {
+            // One attribute read answers both existence and size
+            long fileSize;
+            try {
+                fileSize = Files.readAttributes(filePath, BasicFileAttributes.class).size();
+            } catch (NoSuchFileException e) {
                 System.err.println("Format validation failed for document " + documentId + ": File does not exist");
                 return false;
             }
 
-            // Check file size
-            long fileSize = Files.size(filePath);
-            if (fileSize > MAX_FILE_SIZE) {
-                System.err.println("Format validation failed for document " + documentId +
-                                 ": File size exceeds limit (" + fileSize + " bytes)");
-                return false;
-            }
-
-            // Check file extension
-            String fileName = filePath.getFileName().toString();
-            String extension = getFileExtension(fileName);
-            if (!isSupportedExtension(extension)) {
-                System.err.println("Format validation failed for document " + documentId +
-                                 ": Unsupported file extension: " + extension);
+            String reason = rejectionReason(filePath.getFileName().toString(), fileSize);
+            if (reason != null) {
+                System.err.println("Format validation failed for document " + documentId + ": " + reason);
                 return false;
             }
 
@@ -53,6 +47,29 @@ public class FormatValidationHandler extends AbstractValidationHandler {
         }
     }
 
+    /**
+     * Applies the format rules to a file known only by name and size, such as an archive
+     * entry, without touching the file system.
+     *
+     * @param fileName  the file name
+     * @param sizeBytes the file size
+     * @return why the file is rejected, or null if it passes
+     */
+    public String rejectionReason(String fileName, long sizeBytes) {
+        if (sizeBytes > MAX_FILE_SIZE) {
+            return "File size exceeds limit (" + sizeBytes + " bytes)";
+        }
+        String extension = getFileExtension(fileName);
+        if (!isSupportedExtension(extension)) {
+            return "Unsupported file extension: " + extension;
+        }
+        return null;
+    }
+
+    public long getMaxFileSize() {
+        return MAX_FILE_SIZE;
+    }
+
     private String getFileExtension(String fileName) {
         int lastDotIndex = fileName.lastIndexOf('.');
         return lastDotIndex > 0 ? fileName.substring(lastDotIndex + 1).toLowerCase() : "";
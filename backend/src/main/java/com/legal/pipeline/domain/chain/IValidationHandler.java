@@ -1,9 +1,69 @@
 package com.legal.pipeline.domain.chain;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Interface for validation handlers in the Chain of Responsibility pattern.
+ * {@link ValidationChain} is the chain: it passes each document along its handlers in
+ * its own order, so handlers need not be linked to each other. Handlers that inspect the
+ * content declare what they need from it, so the whole chain is served by one
+ * {@link ContentScanner} pass instead of one scan per handler.
  */
 public interface IValidationHandler {
+
+    /**
+     * Links the handler that validates a document after this one passes it.
+     *
+     * @param nextHandler the next handler, or null to end the chain here
+     * @deprecated put the handlers in a {@link ValidationChain}, which orders them itself
+     */
+    @Deprecated
     void setNextHandler(IValidationHandler nextHandler);
-    boolean validate(String content, String fileName);
+
+    /**
+     * Validates with this handler and the handlers linked after it, through a
+     * {@link ValidationChain} that keeps the linked order.
+     *
+     * @param documentId the ID of the document
+     * @param content    the content to validate
+     * @return true if every linked handler passes
+     * @deprecated use {@link ValidationChain#validate(String, String)}
+     */
+    @Deprecated
+    boolean validate(String documentId, String content);
+
+    /**
+     * Validates with measurements already taken for the whole chain.
+     *
+     * @param documentId the ID of the document
+     * @param content    the content to validate
+     * @param profile    the content measurements
+     * @return true if this handler passes
+     */
+    boolean validate(String documentId, String content, ContentProfile profile);
+
+    /**
+     * @return the content features this handler reads from the profile
+     */
+    default Set<ContentFeature> requiredFeatures() {
+        return EnumSet.noneOf(ContentFeature.class);
+    }
+
+    /**
+     * @return the terms this handler counts; a trailing {@code *} counts any word starting with the term
+     */
+    default Collection<String> requiredTerms() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the handlers that must see a document before this one, whatever
+     * {@link ValidationChain} would rank first
+     */
+    default Collection<Class<? extends IValidationHandler>> runsAfter() {
+        return Collections.emptyList();
+    }
 }
@@ -0,0 +1,288 @@
+package com.legal.pipeline.domain.chain;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Runs the validation handlers in the order that rejects bad documents most cheaply.
+ * Every handler's time and rejections are recorded as documents pass through. Every
+ * interval the chain re-ranks the handlers by expected cost per rejection (mean cost
+ * divided by rejection rate) and puts the lowest first, so a cheap check that turns away
+ * many uploads runs before an expensive one that rarely does. A handler that must see
+ * the document after another says so through {@link IValidationHandler#runsAfter()};
+ * ranking never moves it ahead of those.
+ * <p>
+ * The handlers that need only the file run through {@link #validateFile} before the text
+ * is extracted, and the ones that read content through {@link #validateContent} after, so
+ * a document rejected on its file alone is neither extracted nor scanned; each group is
+ * ranked among itself. Content is only scanned once a handler that reads it is reached,
+ * and the scan is charged to that handler. The tokenizer always runs the file handlers,
+ * and the content handlers only when {@code validation.content.enforce} is on. The order
+ * and per-handler statistics are served by the {@code validationchain} actuator endpoint.
+ */
+@Component
+@Endpoint(id = "validationchain")
+public class ValidationChain {
+
+    // Floor on the rejection rate, so a handler that never rejects ranks by cost alone
+    private static final double MIN_REJECTION_RATE = 1e-3;
+
+    /**
+     * One handler's statistics and ordering constraints.
+     */
+    static final class Stage {
+        final IValidationHandler handler;
+        final String name;
+        final boolean readsContent;
+        final List<Stage> predecessors = new ArrayList<>();
+
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder rejections = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        // Smoothed estimates and the counts they were last updated from; guarded by the chain
+        double meanCostNanos = Double.NaN;
+        double rejectionRate = Double.NaN;
+        long seenEvaluations;
+        long seenRejections;
+        long seenNanos;
+
+        Stage(IValidationHandler handler) {
+            this.handler = handler;
+            this.name = handler.getClass().getSimpleName();
+            this.readsContent = !handler.requiredFeatures().isEmpty() || !handler.requiredTerms().isEmpty();
+        }
+
+        /**
+         * @return the expected cost per rejection; 0 before the handler is measured, so a
+         * new handler runs early and gets measured
+         */
+        double rank() {
+            if (Double.isNaN(meanCostNanos)) {
+                return 0;
+            }
+            return meanCostNanos / Math.max(MIN_REJECTION_RATE, rejectionRate);
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final ContentScanner contentScanner;
+    private final ContentScanner lengthOnly = new ContentScanner(EnumSet.noneOf(ContentFeature.class), List.of());
+    private final double smoothing;
+    private final long minSamples;
+    private final LongSupplier nanoTime;
+    private volatile Stage[] order;
+
+    @Autowired
+    public ValidationChain(List<IValidationHandler> handlers,
+            @Value("${validation.chain.smoothing:0.3}") double smoothing,
+            @Value("${validation.chain.min-samples:50}") long minSamples) {
+        this(handlers, smoothing, minSamples, System::nanoTime);
+    }
+
+    ValidationChain(List<IValidationHandler> handlers, double smoothing, long minSamples, LongSupplier nanoTime) {
+        this.smoothing = smoothing;
+        this.minSamples = minSamples;
+        this.nanoTime = nanoTime;
+        for (IValidationHandler handler : handlers) {
+            stages.add(new Stage(handler));
+        }
+        for (Stage stage : stages) {
+            for (Class<? extends IValidationHandler> type : stage.handler.runsAfter()) {
+                for (Stage other : stages) {
+                    if (other != stage && type.isInstance(other.handler)) {
+                        stage.predecessors.add(other);
+                    }
+                }
+            }
+        }
+        this.contentScanner = ContentScanner.forHandlers(handlers);
+        this.order = arrange(stages);
+    }
+
+    /**
+     * Validates a document with every handler, stopping at the first rejection.
+     *
+     * @param documentId the ID of the document
+     * @param content    the content to validate, may be null
+     * @return true if every handler passes
+     */
+    public boolean validate(String documentId, String content) {
+        return validate(documentId, content, stage -> true);
+    }
+
+    /**
+     * Validates a document with the handlers that do not read its content, before there is any.
+     *
+     * @param filePath the path of the document's file
+     * @return true if every such handler passes
+     */
+    public boolean validateFile(String filePath) {
+        return validate(filePath, null, stage -> !stage.readsContent);
+    }
+
+    /**
+     * Validates a document's extracted text with the handlers that read content.
+     *
+     * @param documentId the ID of the document
+     * @param content    the content to validate
+     * @return true if every such handler passes
+     */
+    public boolean validateContent(String documentId, String content) {
+        return validate(documentId, content, stage -> stage.readsContent);
+    }
+
+    private boolean validate(String documentId, String content, Predicate<Stage> runs) {
+        ContentProfile scanned = null;
+        ContentProfile shallow = null;
+        for (Stage stage : order) {
+            if (!runs.test(stage)) {
+                continue;
+            }
+            long start = nanoTime.getAsLong();
+            boolean passed;
+            try {
+                ContentProfile profile;
+                if (scanned != null) {
+                    profile = scanned;
+                } else if (stage.readsContent) {
+                    profile = scanned = contentScanner.scan(content);
+                } else {
+                    profile = shallow != null ? shallow : (shallow = lengthOnly.scan(content));
+                }
+                passed = stage.handler.validate(documentId, content, profile);
+            } finally {
+                stage.nanos.add(nanoTime.getAsLong() - start);
+                stage.evaluations.increment();
+            }
+            if (!passed) {
+                stage.rejections.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the statistics gathered since the last call into each handler's estimates and
+     * re-ranks the chain. A handler seen fewer than the minimum number of times since
+     * then keeps its estimates until it has been.
+     */
+    @Scheduled(fixedDelayString = "${validation.chain.reorder-interval-ms:60000}",
+            initialDelayString = "${validation.chain.reorder-interval-ms:60000}")
+    public synchronized void reorder() {
+        for (Stage stage : stages) {
+            long evaluations = stage.evaluations.sum();
+            long rejections = stage.rejections.sum();
+            long nanos = stage.nanos.sum();
+            long window = evaluations - stage.seenEvaluations;
+            if (window < minSamples) {
+                continue;
+            }
+            double cost = (double) (nanos - stage.seenNanos) / window;
+            double rate = (double) (rejections - stage.seenRejections) / window;
+            stage.meanCostNanos = Double.isNaN(stage.meanCostNanos)
+                    ? cost : smoothing * cost + (1 - smoothing) * stage.meanCostNanos;
+            stage.rejectionRate = Double.isNaN(stage.rejectionRate)
+                    ? rate : smoothing * rate + (1 - smoothing) * stage.rejectionRate;
+            stage.seenEvaluations = evaluations;
+            stage.seenRejections = rejections;
+            stage.seenNanos = nanos;
+        }
+
+        Stage[] current = order;
+        Stage[] next = arrange(Arrays.asList(current));
+        if (!Arrays.equals(current, next)) {
+            order = next;
+            System.out.println("Validation chain reordered: " + names(next));
+        }
+    }
+
+    /**
+     * @return the handlers in the order they were given
+     */
+    List<IValidationHandler> getHandlers() {
+        List<IValidationHandler> handlers = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            handlers.add(stage.handler);
+        }
+        return handlers;
+    }
+
+    /**
+     * @return the handler class names in the order they run
+     */
+    public List<String> getOrder() {
+        return names(order);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("order", getOrder());
+        Map<String, Object> handlers = new LinkedHashMap<>();
+        for (Stage stage : order) {
+            Map<String, Object> handler = new LinkedHashMap<>();
+            handler.put("evaluations", stage.evaluations.sum());
+            handler.put("rejections", stage.rejections.sum());
+            handler.put("meanCostMicros", Double.isNaN(stage.meanCostNanos) ? null : stage.meanCostNanos / 1000);
+            handler.put("rejectionRate", Double.isNaN(stage.rejectionRate) ? null : stage.rejectionRate);
+            handler.put("readsContent", stage.readsContent);
+            List<String> runsAfter = new ArrayList<>();
+            for (Stage predecessor : stage.predecessors) {
+                runsAfter.add(predecessor.name);
+            }
+            handler.put("runsAfter", runsAfter);
+            handlers.put(stage.name, handler);
+        }
+        status.put("handlers", handlers);
+        return status;
+    }
+
+    /**
+     * Orders the stages by rank, placing each only after all its predecessors. Among the
+     * stages free to go next the lowest rank wins, and on a tie the one listed first.
+     */
+    private static Stage[] arrange(List<Stage> stages) {
+        List<Stage> remaining = new ArrayList<>(stages);
+        Stage[] arranged = new Stage[stages.size()];
+        for (int position = 0; position < arranged.length; position++) {
+            Stage best = null;
+            for (Stage candidate : remaining) {
+                if (Arrays.asList(arranged).subList(0, position).containsAll(candidate.predecessors)
+                        && (best == null || candidate.rank() < best.rank())) {
+                    best = candidate;
+                }
+            }
+            if (best == null) {
+                throw new IllegalStateException("Validation handlers have circular ordering constraints: " +
+                        names(remaining.toArray(new Stage[0])));
+            }
+            arranged[position] = best;
+            remaining.remove(best);
+        }
+        return arranged;
+    }
+
+    private static List<String> names(Stage[] stages) {
+        List<String> names = new ArrayList<>(stages.length);
+        for (Stage stage : stages) {
+            names.add(stage.name);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,57 @@
+package com.legal.pipeline.domain.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a bulk dead-letter replay request.
+ * Replays pending dead letters that failed in [from, to), optionally only those from one stage topic.
+ */
+public class DeadLetterReplayRequest {
+    private String failedTopic;
+
+    @NotNull
+    private LocalDateTime from;
+
+    @NotNull
+    private LocalDateTime to;
+
+    @Min(1)
+    private int limit = 10000;
+
+    public DeadLetterReplayRequest() {}
+
+    public String getFailedTopic() {
+        return failedTopic;
+    }
+
+    public void setFailedTopic(String failedTopic) {
+        this.failedTopic = failedTopic;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
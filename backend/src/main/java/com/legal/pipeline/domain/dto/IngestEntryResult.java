@@ -0,0 +1,91 @@
+package com.legal.pipeline.domain.dto;
+
+/**
+ * DTO for the outcome of one archive entry in a bulk ingest.
+ */
+public class IngestEntryResult {
+
+    public enum Status {
+        /** Spooled and published to the tokenizer. */
+        ACCEPTED,
+        /** Failed validation; nothing was published. */
+        REJECTED,
+        /** Same bytes as an earlier entry of the archive; not published again. */
+        DUPLICATE,
+        /** Valid, but could not be delivered; recorded on the error topic for replay. */
+        FAILED
+    }
+
+    private final String entryName;
+    private Status status;
+    private String documentId;
+    private String documentType;
+    private String lane;
+    private long sizeBytes;
+    private String reason;
+
+    public IngestEntryResult(String entryName) {
+        this.entryName = entryName;
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * @return why the entry was not accepted, or null
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public IngestEntryResult reject(Status status, String reason) {
+        this.status = status;
+        this.reason = reason;
+        return this;
+    }
+}
@@ -0,0 +1,60 @@
+package com.legal.pipeline.domain.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a bulk ingest: one result per archive entry, in archive order.
+ */
+public class IngestManifest {
+
+    private final String ingestId;
+    private final String matterId;
+    private final List<IngestEntryResult> entries;
+    private final String archiveError;
+
+    public IngestManifest(String ingestId, String matterId, List<IngestEntryResult> entries, String archiveError) {
+        this.ingestId = ingestId;
+        this.matterId = matterId;
+        this.entries = entries;
+        this.archiveError = archiveError;
+    }
+
+    public String getIngestId() {
+        return ingestId;
+    }
+
+    public String getMatterId() {
+        return matterId;
+    }
+
+    public List<IngestEntryResult> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return why reading the archive stopped early, or null if every entry was read
+     */
+    public String getArchiveError() {
+        return archiveError;
+    }
+
+    public long getAccepted() {
+        return count(IngestEntryResult.Status.ACCEPTED);
+    }
+
+    public long getRejected() {
+        return count(IngestEntryResult.Status.REJECTED);
+    }
+
+    public long getDuplicates() {
+        return count(IngestEntryResult.Status.DUPLICATE);
+    }
+
+    public long getFailed() {
+        return count(IngestEntryResult.Status.FAILED);
+    }
+
+    private long count(IngestEntryResult.Status status) {
+        return entries.stream().filter(entry -> entry.getStatus() == status).count();
+    }
+}
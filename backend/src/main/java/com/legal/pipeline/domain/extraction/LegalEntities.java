@@ -0,0 +1,103 @@
+package com.legal.pipeline.domain.extraction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Structured legal metadata pulled out of a document's text.
+ * Each collection keeps first-seen order, drops duplicates and is capped so that a
+ * pathological document cannot bloat the pipeline message.
+ */
+public class LegalEntities {
+
+    static final int MAX_VALUES_PER_KIND = 50;
+
+    private final Set<String> parties = new LinkedHashSet<>();
+    private final Set<String> dates = new LinkedHashSet<>();
+    private final Set<String> monetaryAmounts = new LinkedHashSet<>();
+    private final Set<String> clauseHeadings = new LinkedHashSet<>();
+    private String effectiveDate;
+    private String governingLaw;
+
+    void addParty(String party) {
+        addCapped(parties, party);
+    }
+
+    void addDate(String date, boolean effective) {
+        addCapped(dates, date);
+        if (effective && effectiveDate == null) {
+            effectiveDate = date;
+        }
+    }
+
+    void addMonetaryAmount(String amount) {
+        addCapped(monetaryAmounts, amount);
+    }
+
+    void addClauseHeading(String heading) {
+        addCapped(clauseHeadings, heading);
+    }
+
+    void setGoverningLawIfAbsent(String jurisdiction) {
+        if (governingLaw == null) {
+            governingLaw = jurisdiction;
+        }
+    }
+
+    public List<String> getParties() {
+        return new ArrayList<>(parties);
+    }
+
+    public List<String> getDates() {
+        return new ArrayList<>(dates);
+    }
+
+    public List<String> getMonetaryAmounts() {
+        return new ArrayList<>(monetaryAmounts);
+    }
+
+    public List<String> getClauseHeadings() {
+        return new ArrayList<>(clauseHeadings);
+    }
+
+    public String getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public String getGoverningLaw() {
+        return governingLaw;
+    }
+
+    /**
+     * Writes the non-empty entities into a pipeline metadata map.
+     *
+     * @param metadata the metadata map to populate
+     */
+    public void writeTo(Map<String, Object> metadata) {
+        putIfNotEmpty(metadata, "parties", parties);
+        putIfNotEmpty(metadata, "dates", dates);
+        putIfNotEmpty(metadata, "monetaryAmounts", monetaryAmounts);
+        putIfNotEmpty(metadata, "clauseHeadings", clauseHeadings);
+        if (effectiveDate != null) {
+            metadata.put("effectiveDate", effectiveDate);
+        }
+        if (governingLaw != null) {
+            metadata.put("governingLaw", governingLaw);
+        }
+    }
+
+    private static void addCapped(Set<String> values, String value) {
+        if (values.size() < MAX_VALUES_PER_KIND && !value.isEmpty()) {
+            values.add(value);
+        }
+    }
+
+    private static void putIfNotEmpty(Map<String, Object> metadata, String key, Set<String> values) {
+        if (!values.isEmpty()) {
+            metadata.put(key, new ArrayList<>(values));
+        }
+    }
+}
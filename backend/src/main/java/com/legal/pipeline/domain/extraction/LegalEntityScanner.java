@@ -0,0 +1,564 @@
+package com.legal.pipeline.domain.extraction;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-pass scanner for structured legal metadata.
+ * The text is tokenized once, left to right, and every token is fed to a handful of
+ * small state machines that recognise party names, dates (and which of them is the
+ * effective date), monetary amounts, the governing law and clause headings. Nothing
+ * is materialised until an entity is recognised, so cost is linear in the text length
+ * and independent of how many entity kinds are recognised.
+ */
+@Component
+public class LegalEntityScanner {
+
+    /**
+     * Scans the content for legal entities.
+     *
+     * @param content the document text, may be null
+     * @return the recognised entities
+     */
+    public LegalEntities scan(String content) {
+        LegalEntities entities = new LegalEntities();
+        if (content != null && !content.isEmpty()) {
+            new Scan(content, entities).run();
+        }
+        return entities;
+    }
+
+    /**
+     * Per-call scan state. Token positions are tracked as indices into the text.
+     */
+    private static final class Scan {
+
+        private static final int WORD = 0;
+        private static final int NUMBER = 1;
+        private static final int PUNCT = 2;
+
+        private static final String[] MONTHS = {
+                "January", "February", "March", "April", "May", "June", "July",
+                "August", "September", "October", "November", "December",
+                "Jan", "Feb", "Mar", "Apr", "Jun", "Jul", "Aug", "Sep", "Sept", "Oct", "Nov", "Dec"
+        };
+        private static final String[] ORDINAL_SUFFIXES = {"st", "nd", "rd", "th"};
+        private static final String[] CURRENCY_CODES = {"USD", "EUR", "GBP", "CAD", "AUD"};
+        private static final String[] CURRENCY_WORDS = {"dollars", "euros", "pounds", "USD", "EUR", "GBP"};
+        private static final String[] SCALE_WORDS = {"thousand", "million", "billion"};
+        private static final String[] EFFECTIVE_KEYWORDS = {"effective", "dated", "commencement"};
+        private static final String[] ENTITY_ABBREVIATIONS = {"Inc", "Corp", "Co", "Ltd", "LLC", "LLP", "plc", "L.L.C", "N.A", "S.A"};
+        private static final String[] HEADING_PREFIXES = {"Section", "Article", "Clause", "Schedule", "Exhibit"};
+        private static final String[] TITLE_CONNECTORS = {"of", "and", "the", "to", "in", "for", "or", "on", "by"};
+
+        private static final int MAX_PARTY_TOKENS = 12;
+        private static final int MAX_TOKENS_TO_SECOND_PARTY = 20;
+        private static final int EFFECTIVE_WINDOW_TOKENS = 10;
+        private static final int GOVERNING_WINDOW_TOKENS = 12;
+        private static final int MAX_HEADING_LENGTH = 80;
+        private static final int MAX_HEADING_WORDS = 10;
+        // Sentinel token index for "not seen"; far enough from zero that distances never overflow
+        private static final int NEVER = Integer.MIN_VALUE / 2;
+
+        private final String text;
+        private final LegalEntities entities;
+        private int tokenIndex;
+
+        // Monetary amounts
+        private int currencyTokenIndex = NEVER;
+        private int currencyStart;
+        private int amountStart = -1;
+        private int amountEnd;
+        private int amountTokenIndex;
+        private boolean amountHasCurrency;
+
+        // Dates
+        private static final int DATE_IDLE = 0;
+        private static final int DATE_EXPECT_DAY = 1;
+        private static final int DATE_EXPECT_YEAR = 2;
+        private int dateState = DATE_IDLE;
+        private int dateStart;
+        private int dateTokenIndex;
+        private int dayTokenIndex = NEVER;
+        private int dayStart;
+        private int effectiveKeywordTokenIndex = NEVER;
+
+        // Parties
+        private static final int PARTY_IDLE = 0;
+        private static final int PARTY_FIRST = 1;
+        private static final int PARTY_SEEK_AND = 2;
+        private static final int PARTY_SECOND = 3;
+        private int partyState = PARTY_IDLE;
+        private int partyStart = -1;
+        private int partyEnd;
+        private int partyStateTokens;
+        private String firstParty;
+        private boolean lastTokenWasAbbreviation;
+
+        // Governing law
+        private int governTokenIndex = NEVER;
+        private int lawsTokenIndex = NEVER;
+        private boolean capturingJurisdiction;
+        private int jurisdictionStart = -1;
+        private int jurisdictionEnd;
+
+        // Clause headings, tracked per line
+        private int lineTokens;
+        private int lineFirstStart;
+        private int lineLastEnd;
+        private int lineLetters;
+        private boolean lineHasLower;
+        private boolean lineNumbered;
+        private boolean expectHeadingNumber;
+        private int titleStart = -1;
+        private int titleEnd;
+        private int titleWords;
+        private boolean titleHasLowercaseWord;
+        private boolean titleClosed;
+
+        Scan(String text, LegalEntities entities) {
+            this.text = text;
+            this.entities = entities;
+        }
+
+        void run() {
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    endLine();
+                    i++;
+                } else if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isLetter(c)) {
+                    int start = i;
+                    boolean hasLower = false;
+                    while (i < length) {
+                        char ch = text.charAt(i);
+                        if (Character.isLetterOrDigit(ch)) {
+                            hasLower |= Character.isLowerCase(ch);
+                            i++;
+                        } else if ((ch == '\'' || ch == '’' || ch == '-' || ch == '.')
+                                && i + 1 < length && Character.isLetter(text.charAt(i + 1))) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    onToken(WORD, start, i, c, Character.isUpperCase(c), hasLower);
+                } else if (c >= '0' && c <= '9') {
+                    int start = i;
+                    while (i < length) {
+                        char ch = text.charAt(i);
+                        if (ch >= '0' && ch <= '9') {
+                            i++;
+                        } else if ((ch == ',' || ch == '.' || ch == '/' || ch == '-')
+                                && i + 1 < length && text.charAt(i + 1) >= '0' && text.charAt(i + 1) <= '9') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    onToken(NUMBER, start, i, c, false, false);
+                } else {
+                    onToken(PUNCT, i, i + 1, c, false, false);
+                    i++;
+                }
+            }
+            endLine();
+            flushAmount();
+        }
+
+        private void onToken(int kind, int start, int end, char first, boolean firstUpper, boolean hasLower) {
+            scanMoney(kind, start, end, first);
+            scanDate(kind, start, end, first, firstUpper);
+            scanParties(kind, start, end, first, firstUpper);
+            scanGoverningLaw(kind, start, end, firstUpper);
+            scanHeadingLine(kind, start, end, first, firstUpper, hasLower);
+            tokenIndex++;
+        }
+
+        // ---- Monetary amounts ----
+
+        private void scanMoney(int kind, int start, int end, char first) {
+            if (amountStart >= 0 && amountTokenIndex == tokenIndex - 1) {
+                if (kind == WORD && matchesAny(start, end, SCALE_WORDS, true)) {
+                    amountEnd = end;
+                    amountTokenIndex = tokenIndex;
+                    return;
+                }
+                if (kind == WORD && matchesAny(start, end, CURRENCY_WORDS, true)) {
+                    amountEnd = end;
+                    amountHasCurrency = true;
+                    flushAmount();
+                    return;
+                }
+            }
+            flushAmount();
+
+            if (kind == PUNCT && (first == '$' || first == '€' || first == '£')) {
+                currencyTokenIndex = tokenIndex;
+                currencyStart = start;
+            } else if (kind == WORD && matchesAny(start, end, CURRENCY_CODES, false)) {
+                currencyTokenIndex = tokenIndex;
+                currencyStart = start;
+            } else if (kind == NUMBER && !isNumericDate(start, end)) {
+                boolean afterCurrency = currencyTokenIndex == tokenIndex - 1;
+                amountStart = afterCurrency ? currencyStart : start;
+                amountEnd = end;
+                amountTokenIndex = tokenIndex;
+                amountHasCurrency = afterCurrency;
+            }
+        }
+
+        private void flushAmount() {
+            if (amountStart >= 0 && amountHasCurrency) {
+                entities.addMonetaryAmount(normalized(amountStart, amountEnd));
+            }
+            amountStart = -1;
+        }
+
+        // ---- Dates ----
+
+        private void scanDate(int kind, int start, int end, char first, boolean firstUpper) {
+            if (kind == WORD && matchesAny(start, end, EFFECTIVE_KEYWORDS, true)) {
+                effectiveKeywordTokenIndex = tokenIndex;
+            }
+            if (kind == NUMBER && isNumericDate(start, end)) {
+                emitDate(start, end, tokenIndex);
+                dateState = DATE_IDLE;
+                return;
+            }
+
+            boolean isMonth = kind == WORD && firstUpper && matchesAny(start, end, MONTHS, false);
+            switch (dateState) {
+                case DATE_EXPECT_DAY:
+                    if (kind == NUMBER && dayValue(start, end) > 0) {
+                        dateState = DATE_EXPECT_YEAR;
+                        return;
+                    }
+                    break;
+                case DATE_EXPECT_YEAR:
+                    if ((kind == PUNCT && first == ',') || (kind == WORD && matchesAny(start, end, ORDINAL_SUFFIXES, true))) {
+                        return;
+                    }
+                    if (kind == NUMBER && end - start == 4) {
+                        emitDate(dateStart, end, dateTokenIndex);
+                        dateState = DATE_IDLE;
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            dateState = DATE_IDLE;
+
+            if (kind == NUMBER && dayValue(start, end) > 0) {
+                dayTokenIndex = tokenIndex;
+                dayStart = start;
+            } else if (isMonth) {
+                // "1st day of January, 2024" and "1 January 2024" put the day first
+                if (tokenIndex - dayTokenIndex <= 4) {
+                    dateStart = dayStart;
+                    dateTokenIndex = dayTokenIndex;
+                    dateState = DATE_EXPECT_YEAR;
+                } else {
+                    dateStart = start;
+                    dateTokenIndex = tokenIndex;
+                    dateState = DATE_EXPECT_DAY;
+                }
+            }
+        }
+
+        private void emitDate(int start, int end, int firstTokenIndex) {
+            boolean effective = firstTokenIndex - effectiveKeywordTokenIndex <= EFFECTIVE_WINDOW_TOKENS;
+            entities.addDate(normalized(start, end), effective);
+        }
+
+        private int dayValue(int start, int end) {
+            if (end - start > 2) {
+                return 0;
+            }
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                value = value * 10 + (text.charAt(i) - '0');
+            }
+            return value >= 1 && value <= 31 ? value : 0;
+        }
+
+        /**
+         * Recognises d/m/yyyy, m/d/yy and yyyy-mm-dd shaped number tokens.
+         */
+        private boolean isNumericDate(int start, int end) {
+            int groups = 1;
+            int groupLength = 0;
+            int firstGroupLength = 0;
+            char separator = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    groupLength++;
+                } else if (c == '/' || c == '-') {
+                    if (separator != 0 && c != separator) {
+                        return false;
+                    }
+                    separator = c;
+                    if (groups == 1) {
+                        firstGroupLength = groupLength;
+                    }
+                    groups++;
+                    groupLength = 0;
+                } else {
+                    return false;
+                }
+            }
+            if (groups != 3) {
+                return false;
+            }
+            return firstGroupLength == 4 ? groupLength <= 2 : firstGroupLength <= 2 && (groupLength == 2 || groupLength == 4);
+        }
+
+        // ---- Parties ----
+
+        private void scanParties(int kind, int start, int end, char first, boolean firstUpper) {
+            boolean isAbbreviation = kind == WORD && matchesAny(start, end, ENTITY_ABBREVIATIONS, false);
+            switch (partyState) {
+                case PARTY_FIRST:
+                case PARTY_SECOND:
+                    partyStateTokens++;
+                    if (partyStateTokens <= MAX_PARTY_TOKENS && extendsPartyName(kind, start, end, first, firstUpper)) {
+                        break;
+                    }
+                    if (partyState == PARTY_FIRST) {
+                        firstParty = partyStart >= 0 ? normalized(partyStart, partyEnd) : null;
+                        partyStart = -1;
+                        partyStateTokens = 0;
+                        if (firstParty == null) {
+                            partyState = PARTY_IDLE;
+                        } else {
+                            partyState = isWord(kind, start, end, "and") ? PARTY_SECOND : PARTY_SEEK_AND;
+                        }
+                    } else {
+                        if (partyStart >= 0) {
+                            entities.addParty(firstParty);
+                            entities.addParty(normalized(partyStart, partyEnd));
+                        }
+                        partyState = PARTY_IDLE;
+                        partyStart = -1;
+                    }
+                    break;
+                case PARTY_SEEK_AND:
+                    partyStateTokens++;
+                    if (isWord(kind, start, end, "and")) {
+                        partyState = PARTY_SECOND;
+                        partyStateTokens = 0;
+                    } else if (partyStateTokens > MAX_TOKENS_TO_SECOND_PARTY || (kind == PUNCT && first == ';')) {
+                        partyState = PARTY_IDLE;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (kind == WORD && isWord(kind, start, end, "between")) {
+                partyState = PARTY_FIRST;
+                partyStart = -1;
+                partyStateTokens = 0;
+            }
+            lastTokenWasAbbreviation = isAbbreviation;
+        }
+
+        /**
+         * Extends the current party name with the token if it can belong to one:
+         * capitalised words, connectors inside a name, and the dot after an abbreviation.
+         */
+        private boolean extendsPartyName(int kind, int start, int end, char first, boolean firstUpper) {
+            if (kind == WORD && firstUpper) {
+                if (partyStart < 0) {
+                    partyStart = start;
+                }
+                partyEnd = end;
+                return true;
+            }
+            if (partyStart < 0) {
+                // Allow a leading article, as in "between the Company and ..."
+                return kind == WORD && isWord(kind, start, end, "the");
+            }
+            if (kind == PUNCT && first == '.' && lastTokenWasAbbreviation) {
+                partyEnd = end;
+                return true;
+            }
+            if (kind == PUNCT && (first == '&' || first == ',')) {
+                // "Smith, Jones & Co." keeps going; a comma followed by a lowercase word ends it
+                return first == '&' || followedByCapitalisedWord(end);
+            }
+            return kind == WORD && (isWord(kind, start, end, "of") || isWord(kind, start, end, "the"));
+        }
+
+        private boolean followedByCapitalisedWord(int index) {
+            int length = text.length();
+            while (index < length && text.charAt(index) == ' ') {
+                index++;
+            }
+            if (index >= length || !Character.isUpperCase(text.charAt(index))) {
+                return false;
+            }
+            // A following abbreviation ("Acme Holdings, Inc.") continues the name; anything else starts a new clause
+            int wordEnd = index;
+            while (wordEnd < length && (Character.isLetter(text.charAt(wordEnd)) || text.charAt(wordEnd) == '.')) {
+                wordEnd++;
+            }
+            int trimmedEnd = wordEnd > index && text.charAt(wordEnd - 1) == '.' ? wordEnd - 1 : wordEnd;
+            return matchesAny(index, trimmedEnd, ENTITY_ABBREVIATIONS, false);
+        }
+
+        // ---- Governing law ----
+
+        private void scanGoverningLaw(int kind, int start, int end, boolean firstUpper) {
+            if (capturingJurisdiction) {
+                if (kind == WORD && firstUpper) {
+                    if (jurisdictionStart < 0) {
+                        jurisdictionStart = start;
+                    }
+                    jurisdictionEnd = end;
+                    return;
+                }
+                boolean connector = kind == WORD && (isWord(kind, start, end, "of") || isWord(kind, start, end, "the")
+                        || isWord(kind, start, end, "and"));
+                if (connector) {
+                    return;
+                }
+                if (jurisdictionStart >= 0) {
+                    entities.setGoverningLawIfAbsent(normalized(jurisdictionStart, jurisdictionEnd));
+                }
+                capturingJurisdiction = false;
+                jurisdictionStart = -1;
+            }
+
+            if (kind != WORD) {
+                return;
+            }
+            if (end - start >= 6 && text.regionMatches(true, start, "govern", 0, 6)) {
+                governTokenIndex = tokenIndex;
+            } else if ((isWord(kind, start, end, "laws") || isWord(kind, start, end, "law"))
+                    && tokenIndex - governTokenIndex <= GOVERNING_WINDOW_TOKENS) {
+                lawsTokenIndex = tokenIndex;
+            } else if (isWord(kind, start, end, "of") && lawsTokenIndex == tokenIndex - 1) {
+                capturingJurisdiction = true;
+                jurisdictionStart = -1;
+            }
+        }
+
+        // ---- Clause headings ----
+
+        private void scanHeadingLine(int kind, int start, int end, char first, boolean firstUpper, boolean hasLower) {
+            if (lineTokens == 0) {
+                lineFirstStart = start;
+                if (kind == NUMBER || (kind == WORD && isRomanNumeral(start, end))) {
+                    lineNumbered = true;
+                } else if (kind == WORD && matchesAny(start, end, HEADING_PREFIXES, true)) {
+                    expectHeadingNumber = true;
+                }
+            } else if (expectHeadingNumber) {
+                expectHeadingNumber = false;
+                lineNumbered = kind == NUMBER || (kind == WORD && isRomanNumeral(start, end));
+            } else if (lineNumbered && !titleClosed) {
+                if (titleStart < 0) {
+                    if (kind == WORD && firstUpper) {
+                        titleStart = start;
+                        titleEnd = end;
+                        titleWords = 1;
+                    } else if (!(kind == PUNCT && (first == '.' || first == ')' || first == ':'))) {
+                        lineNumbered = false;
+                    }
+                } else if (kind == PUNCT && (first == '.' || first == ':' || first == ';')) {
+                    titleClosed = true;
+                } else {
+                    titleEnd = end;
+                    if (kind == WORD) {
+                        titleWords++;
+                        // Headings are title or upper case; a lowercase content word means a numbered sentence
+                        titleHasLowercaseWord |= !firstUpper && !matchesAny(start, end, TITLE_CONNECTORS, false);
+                    }
+                }
+            }
+
+            if (kind == WORD) {
+                lineLetters += end - start;
+                lineHasLower |= hasLower;
+            }
+            lineLastEnd = end;
+            lineTokens++;
+        }
+
+        private void endLine() {
+            if (lineTokens > 0) {
+                if (lineNumbered && titleStart >= 0 && !titleHasLowercaseWord && titleWords <= MAX_HEADING_WORDS
+                        && titleEnd - titleStart <= MAX_HEADING_LENGTH) {
+                    entities.addClauseHeading(normalized(lineFirstStart, titleEnd));
+                } else if (!lineHasLower && lineLetters >= 3 && lineTokens <= MAX_HEADING_WORDS
+                        && lineLastEnd - lineFirstStart <= MAX_HEADING_LENGTH) {
+                    entities.addClauseHeading(normalized(lineFirstStart, lineLastEnd));
+                }
+            }
+            lineTokens = 0;
+            lineLetters = 0;
+            lineHasLower = false;
+            lineNumbered = false;
+            expectHeadingNumber = false;
+            titleStart = -1;
+            titleWords = 0;
+            titleHasLowercaseWord = false;
+            titleClosed = false;
+        }
+
+        private boolean isRomanNumeral(int start, int end) {
+            if (end - start > 5) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c != 'I' && c != 'V' && c != 'X' && c != 'L') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // ---- Helpers ----
+
+        private boolean isWord(int kind, int start, int end, String word) {
+            return kind == WORD && end - start == word.length() && text.regionMatches(true, start, word, 0, word.length());
+        }
+
+        private boolean matchesAny(int start, int end, String[] words, boolean ignoreCase) {
+            int length = end - start;
+            for (String word : words) {
+                if (word.length() == length && text.regionMatches(ignoreCase, start, word, 0, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Materialises a recognised span, collapsing internal whitespace runs to single spaces.
+         */
+        private String normalized(int start, int end) {
+            StringBuilder value = new StringBuilder(end - start);
+            boolean pendingSpace = false;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = value.length() > 0;
+                } else {
+                    if (pendingSpace) {
+                        value.append(' ');
+                        pendingSpace = false;
+                    }
+                    value.append(c);
+                }
+            }
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.legal.pipeline.domain.similarity;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over word shingles. A document is the set of its runs of
+ * {@code shingleWords} consecutive words, lower-cased; each signature value is the
+ * minimum of one hash function over that set, so two signatures agree at a position
+ * with probability equal to the Jaccard similarity of the two sets. Words are hashed
+ * straight off the text and each shingle is hashed from its word hashes, so no token
+ * string is ever created.
+ */
+final class MinHasher {
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final long SHINGLE_PRIME = 0x100000001b3L;
+
+    private final int shingleWords;
+    // Hash function i maps a shingle x to the high half of multipliers[i] * x + increments[i]
+    private final long[] multipliers;
+    private final long[] increments;
+
+    MinHasher(int hashCount, int shingleWords, long seed) {
+        this.shingleWords = shingleWords;
+        this.multipliers = new long[hashCount];
+        this.increments = new long[hashCount];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < hashCount; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @param text the text to sign
+     * @return the signature, or null if the text has no words; a text shorter than one
+     * shingle is signed as a single shingle
+     */
+    int[] signature(CharSequence text) {
+        int[] minima = new int[multipliers.length];
+        Arrays.fill(minima, Integer.MAX_VALUE);
+        int[] window = new int[shingleWords];
+        int words = 0;
+
+        int length = text.length();
+        int word = FNV_OFFSET;
+        boolean inWord = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = (word ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                window[words % shingleWords] = word;
+                words++;
+                if (words >= shingleWords) {
+                    add(minima, shingle(window, words));
+                }
+                word = FNV_OFFSET;
+                inWord = false;
+            }
+        }
+
+        if (words == 0) {
+            return null;
+        }
+        if (words < shingleWords) {
+            add(minima, shingle(window, words));
+        }
+        return minima;
+    }
+
+    /**
+     * @return the hash of the last (up to) shingleWords words
+     */
+    private long shingle(int[] window, int words) {
+        long hash = 0;
+        for (int j = Math.max(0, words - shingleWords); j < words; j++) {
+            hash = (hash ^ (window[j % shingleWords] & 0xffffffffL)) * SHINGLE_PRIME;
+        }
+        // MurmurHash3 finalizer: every input bit reaches the high bits the hash functions read
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private void add(int[] minima, long shingle) {
+        for (int i = 0; i < minima.length; i++) {
+            int value = (int) ((multipliers[i] * shingle + increments[i]) >>> 32);
+            if (value < minima[i]) {
+                minima[i] = value;
+            }
+        }
+    }
+}
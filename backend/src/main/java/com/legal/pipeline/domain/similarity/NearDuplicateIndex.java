@@ -0,0 +1,379 @@
+package com.legal.pipeline.domain.similarity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finds earlier documents whose text is nearly the same as a new one, by locality-
+ * sensitive hashing of MinHash signatures. The signature is cut into bands of rows; two
+ * documents become candidates when all rows of any band agree, which for bands b and
+ * rows r happens with probability 1 - (1 - J^r)^b at Jaccard similarity J. With 8 bands
+ * of 6 rows that is 91% at J = 0.8, 99.8% at 0.9 and 12% at 0.5. Each candidate's
+ * similarity is then estimated from the whole signature and checked against the
+ * threshold.
+ * <p>
+ * The index is sized for millions of documents. Only the low byte of each signature
+ * value is kept (b-bit MinHash; the 1/256 chance agreement is corrected for), band
+ * buckets are chains of document ordinals in primitive arrays, and bucket keys are
+ * recomputed from the kept bytes when the tables grow. A document costs the signature
+ * bytes, eight bytes or so per band and its id: about 170 bytes with the defaults, so a
+ * million documents take under 200 MB of heap.
+ */
+public final class NearDuplicateIndex {
+
+    private static final int MAGIC = 0x4e445550;
+    private static final int VERSION = 1;
+    // Fixed so that signatures stay comparable across restarts
+    private static final long HASH_SEED = 0x5deece66dL;
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_BUCKET_CAPACITY = 1 << 30;
+    // Bound on the chain walked per band, so a bucket shared by a whole template family
+    // costs at most this many comparisons; the newest documents are walked first
+    private static final int MAX_CHAIN = 256;
+
+    /**
+     * An earlier document that the new one nearly duplicates.
+     */
+    public static final class Match {
+        private final String documentId;
+        private final double similarity;
+
+        Match(String documentId, double similarity) {
+            this.documentId = documentId;
+            this.similarity = similarity;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * @return the estimated Jaccard similarity of the two documents' shingle sets
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private final MinHasher hasher;
+    private final int shingleWords;
+    private final int bands;
+    private final int rows;
+    private final int hashCount;
+    private final int maxDocuments;
+
+    // Guarded by this. The per-document arrays only grow by copying, so the first count
+    // entries of the arrays seen under the lock never change afterwards.
+    private int count;
+    private byte[] sketches;
+    private byte[] ids = new byte[INITIAL_CAPACITY * 36];
+    private int[] idEnds = new int[INITIAL_CAPACITY];
+    // next[doc * bands + band] and heads[band][slot] hold document ordinal + 1, 0 ending the chain
+    private int[] next;
+    private int[][] heads;
+
+    /**
+     * @param shingleWords the number of consecutive words in a shingle
+     * @param bands        the number of signature bands
+     * @param rows         the number of signature values in a band
+     * @param maxDocuments the number of documents past which new ones are only looked up
+     */
+    public NearDuplicateIndex(int shingleWords, int bands, int rows, int maxDocuments) {
+        if (shingleWords < 1 || bands < 1 || rows < 1 || maxDocuments < 1) {
+            throw new IllegalArgumentException("Shingle words, bands, rows and maximum documents must be positive");
+        }
+        this.shingleWords = shingleWords;
+        this.bands = bands;
+        this.rows = rows;
+        this.hashCount = bands * rows;
+        this.maxDocuments = maxDocuments;
+        this.hasher = new MinHasher(hashCount, shingleWords, HASH_SEED);
+        this.sketches = new byte[INITIAL_CAPACITY * hashCount];
+        this.next = new int[INITIAL_CAPACITY * bands];
+        this.heads = new int[bands][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Computes a document's signature. Needs no lock, so callers sign outside
+     * {@link #findOrAdd}.
+     *
+     * @param text the document text
+     * @return the signature, or null if the text has no words
+     */
+    public int[] signature(CharSequence text) {
+        return hasher.signature(text);
+    }
+
+    /**
+     * Looks up the most similar earlier document and then adds this one, unless it is
+     * already indexed with the same text or the index is full.
+     *
+     * @param documentId the document id
+     * @param signature  the document's signature
+     * @param threshold  the lowest estimated similarity reported
+     * @return the most similar other document at or above the threshold, or null
+     */
+    public synchronized Match findOrAdd(String documentId, int[] signature, double threshold) {
+        byte[] sketch = new byte[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            sketch[i] = (byte) signature[i];
+        }
+        byte[] id = documentId.getBytes(StandardCharsets.UTF_8);
+        int mask = heads[0].length - 1;
+
+        int best = -1;
+        int bestMatches = -1;
+        boolean indexed = false;
+        int[] keys = new int[bands];
+        for (int band = 0; band < bands; band++) {
+            keys[band] = bandKey(sketch, 0, band);
+            int doc = heads[band][keys[band] & mask] - 1;
+            for (int walked = 0; doc >= 0 && walked < MAX_CHAIN; walked++) {
+                // Buckets share slots, so confirm the band itself agrees before scoring
+                if (bandEquals(doc, band, sketch)) {
+                    int matches = matches(doc, sketch);
+                    if (hasId(doc, id)) {
+                        indexed |= matches == hashCount;
+                    } else if (matches > bestMatches || (matches == bestMatches && doc < best)) {
+                        best = doc;
+                        bestMatches = matches;
+                    }
+                }
+                doc = next[doc * bands + band] - 1;
+            }
+        }
+
+        if (!indexed && count < maxDocuments) {
+            add(id, sketch, keys);
+        }
+        if (best < 0) {
+            return null;
+        }
+        double similarity = estimate(bestMatches);
+        return similarity >= threshold ? new Match(id(best), similarity) : null;
+    }
+
+    /**
+     * @return the number of documents indexed
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @return true if new documents are no longer added
+     */
+    public synchronized boolean isFull() {
+        return count >= maxDocuments;
+    }
+
+    /**
+     * @return true if signatures from an index with these settings can be compared with this one's
+     */
+    public boolean isCompatibleWith(int shingleWords, int bands, int rows) {
+        return this.shingleWords == shingleWords && this.bands == bands && this.rows == rows;
+    }
+
+    /**
+     * Writes the index, gzipped. The stream is finished but left open. Documents added
+     * while writing are left out; lookups and additions are not blocked.
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        int documents;
+        byte[] sketchesSnapshot;
+        byte[] idsSnapshot;
+        int[] idEndsSnapshot;
+        synchronized (this) {
+            documents = count;
+            sketchesSnapshot = sketches;
+            idsSnapshot = ids;
+            idEndsSnapshot = idEnds;
+        }
+
+        GZIPOutputStream gzip = new GZIPOutputStream(stream);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(shingleWords);
+        out.writeInt(bands);
+        out.writeInt(rows);
+        out.writeInt(documents);
+        int idBytes = documents > 0 ? idEndsSnapshot[documents - 1] : 0;
+        out.writeInt(idBytes);
+        out.write(idsSnapshot, 0, idBytes);
+        for (int doc = 0; doc < documents; doc++) {
+            out.writeInt(idEndsSnapshot[doc]);
+        }
+        out.write(sketchesSnapshot, 0, documents * hashCount);
+        out.flush();
+        gzip.finish();
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo(OutputStream)}.
+     *
+     * @param maxDocuments the number of documents past which new ones are only looked up
+     * @throws IOException if the stream cannot be read or does not hold an index
+     */
+    public static NearDuplicateIndex read(InputStream stream, int maxDocuments) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a near-duplicate index");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported near-duplicate index version " + version);
+        }
+        int shingleWords = in.readInt();
+        int bands = in.readInt();
+        int rows = in.readInt();
+        int documents = in.readInt();
+        int idBytes = in.readInt();
+        if (shingleWords < 1 || bands < 1 || rows < 1 || (long) bands * rows > 1024 || documents < 0
+                || idBytes < 0) {
+            throw new IOException("Corrupt near-duplicate index header");
+        }
+
+        NearDuplicateIndex index = new NearDuplicateIndex(shingleWords, bands, rows, maxDocuments);
+        int capacity = Math.max(INITIAL_CAPACITY, documents);
+        index.ids = new byte[Math.max(idBytes, INITIAL_CAPACITY * 36)];
+        in.readFully(index.ids, 0, idBytes);
+        index.idEnds = new int[capacity];
+        int previous = 0;
+        for (int doc = 0; doc < documents; doc++) {
+            int end = in.readInt();
+            if (end < previous || end > idBytes) {
+                throw new IOException("Corrupt near-duplicate index document " + doc);
+            }
+            index.idEnds[doc] = end;
+            previous = end;
+        }
+        index.sketches = new byte[Math.multiplyExact(capacity, index.hashCount)];
+        in.readFully(index.sketches, 0, documents * index.hashCount);
+        index.next = new int[Math.multiplyExact(capacity, bands)];
+        index.count = documents;
+        index.rebuildBuckets(bucketCapacityFor(documents));
+        return index;
+    }
+
+    private void add(byte[] id, byte[] sketch, int[] keys) {
+        if (count == idEnds.length) {
+            int capacity = (int) Math.min((long) count * 2, Math.max(maxDocuments, INITIAL_CAPACITY));
+            sketches = Arrays.copyOf(sketches, Math.multiplyExact(capacity, hashCount));
+            idEnds = Arrays.copyOf(idEnds, capacity);
+            next = Arrays.copyOf(next, Math.multiplyExact(capacity, bands));
+        }
+        int idStart = count > 0 ? idEnds[count - 1] : 0;
+        if (idStart + id.length > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, idStart + id.length));
+        }
+        System.arraycopy(id, 0, ids, idStart, id.length);
+        idEnds[count] = idStart + id.length;
+        System.arraycopy(sketch, 0, sketches, count * hashCount, hashCount);
+
+        if (count + 1 > heads[0].length && heads[0].length < MAX_BUCKET_CAPACITY) {
+            // The new document is linked below along with the rest; keys of the old ones are recomputed
+            count++;
+            rebuildBuckets(bucketCapacityFor(count));
+            return;
+        }
+        link(count, keys);
+        count++;
+    }
+
+    private void link(int doc, int[] keys) {
+        int mask = heads[0].length - 1;
+        for (int band = 0; band < bands; band++) {
+            int slot = keys[band] & mask;
+            next[doc * bands + band] = heads[band][slot];
+            heads[band][slot] = doc + 1;
+        }
+    }
+
+    /**
+     * Re-links every document into bucket tables of the given capacity, oldest first, so
+     * each chain still runs newest to oldest.
+     */
+    private void rebuildBuckets(int capacity) {
+        heads = new int[bands][capacity];
+        int[] keys = new int[bands];
+        for (int doc = 0; doc < count; doc++) {
+            for (int band = 0; band < bands; band++) {
+                keys[band] = bandKey(sketches, doc * hashCount, band);
+            }
+            link(doc, keys);
+        }
+    }
+
+    /**
+     * @return a power of two of at least the document count, so chains average under two slots' worth
+     */
+    private static int bucketCapacityFor(int documents) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < documents && capacity < MAX_BUCKET_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private int bandKey(byte[] sketch, int offset, int band) {
+        int hash = FNV_OFFSET ^ (band * 0x9e3779b9);
+        int start = offset + band * rows;
+        for (int row = 0; row < rows; row++) {
+            hash = (hash ^ (sketch[start + row] & 0xff)) * FNV_PRIME;
+        }
+        // MurmurHash3 finalizer, so the low bits used as the slot depend on every row
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean bandEquals(int doc, int band, byte[] sketch) {
+        int offset = doc * hashCount + band * rows;
+        return Arrays.equals(sketches, offset, offset + rows, sketch, band * rows, band * rows + rows);
+    }
+
+    private int matches(int doc, byte[] sketch) {
+        int offset = doc * hashCount;
+        int matches = 0;
+        for (int i = 0; i < hashCount; i++) {
+            if (sketches[offset + i] == sketch[i]) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the Jaccard similarity estimated from the number of agreeing signature bytes,
+     * less the share that agree by chance
+     */
+    private double estimate(int matches) {
+        double chance = 1.0 / 256;
+        double agreement = (double) matches / hashCount;
+        return Math.max(0, (agreement - chance) / (1 - chance));
+    }
+
+    private boolean hasId(int doc, byte[] id) {
+        int start = doc > 0 ? idEnds[doc - 1] : 0;
+        return Arrays.equals(ids, start, idEnds[doc], id, 0, id.length);
+    }
+
+    private String id(int doc) {
+        int start = doc > 0 ? idEnds[doc - 1] : 0;
+        return new String(ids, start, idEnds[doc] - start, StandardCharsets.UTF_8);
+    }
+}
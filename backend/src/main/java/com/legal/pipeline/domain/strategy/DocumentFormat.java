@@ -0,0 +1,26 @@
+package com.legal.pipeline.domain.strategy;
+
+/**
+ * Physical document formats recognised from a file's leading bytes.
+ * Each format carries the document type that is canonically extracted from it.
+ */
+public enum DocumentFormat {
+    PDF("pdf"),
+    OOXML("docx"),
+    OLE2("doc"),
+    TEXT("txt"),
+    UNKNOWN(null);
+
+    private final String documentType;
+
+    DocumentFormat(String documentType) {
+        this.documentType = documentType;
+    }
+
+    /**
+     * @return the canonical document type for this format, or null for UNKNOWN
+     */
+    public String getDocumentType() {
+        return documentType;
+    }
+}
@@ -0,0 +1,161 @@
+package com.legal.pipeline.domain.strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Detects a document's physical format from its leading bytes.
+ * Reads at most one kilobyte into a buffer of its own, so sniffing a file costs a
+ * single small read and one short-lived allocation, whichever thread it runs on.
+ * A ZIP archive counts as OOXML only if one of the entry headers in that kilobyte names
+ * a part of an Office package, such as {@code [Content_Types].xml}, {@code _rels/.rels}
+ * or a {@code word/} part; any other ZIP is UNKNOWN.
+ */
+public final class DocumentFormatSniffer {
+
+    /** The number of leading bytes a sniff looks at. */
+    public static final int SNIFF_BYTES = 1024;
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
+    private static final byte[] OLE2_MAGIC = {
+            (byte) 0xD0, (byte) 0xCF, (byte) 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, (byte) 0x1A, (byte) 0xE1
+    };
+    private static final byte[] ZIP_LOCAL_HEADER_MAGIC = {'P', 'K', 3, 4};
+    private static final int ZIP_LOCAL_HEADER_LENGTH = 30;
+    private static final List<byte[]> OOXML_PART_PREFIXES = Stream.of(
+                    "[Content_Types].xml", "_rels/.rels", "docProps/", "word/")
+            .map(prefix -> prefix.getBytes(StandardCharsets.US_ASCII))
+            .toList();
+
+    private DocumentFormatSniffer() {
+    }
+
+    /**
+     * Sniffs the format of a file.
+     *
+     * @param filePath the file to inspect
+     * @return the detected format, UNKNOWN if none of the known signatures match
+     * @throws IOException if the file cannot be read
+     */
+    public static DocumentFormat sniff(Path filePath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SNIFF_BYTES);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // keep reading until the header buffer is full or the file ends
+            }
+        }
+        header.flip();
+        return sniff(header);
+    }
+
+    /**
+     * Sniffs the format of the bytes between the buffer's position and limit.
+     *
+     * @param header the leading bytes of a document
+     * @return the detected format
+     */
+    public static DocumentFormat sniff(ByteBuffer header) {
+        int length = header.remaining();
+        int start = header.position();
+
+        if (startsWith(header, start, length, OLE2_MAGIC)) {
+            return DocumentFormat.OLE2;
+        }
+        if (startsWith(header, start, length, ZIP_LOCAL_HEADER_MAGIC)) {
+            return isOoxml(header, start, length) ? DocumentFormat.OOXML : DocumentFormat.UNKNOWN;
+        }
+        // The PDF header may be preceded by up to 1024 bytes of junk
+        for (int offset = 0; offset + PDF_MAGIC.length <= length; offset++) {
+            if (startsWith(header, start + offset, length - offset, PDF_MAGIC)) {
+                return DocumentFormat.PDF;
+            }
+        }
+        return looksLikeText(header, start, length) ? DocumentFormat.TEXT : DocumentFormat.UNKNOWN;
+    }
+
+    /**
+     * Walks the ZIP local file headers that fit in the sniffed bytes, looking for an entry
+     * that belongs to an Office package.
+     */
+    private static boolean isOoxml(ByteBuffer header, int start, int length) {
+        int offset = 0;
+        while (offset + ZIP_LOCAL_HEADER_LENGTH <= length
+                && startsWith(header, start + offset, length - offset, ZIP_LOCAL_HEADER_MAGIC)) {
+            int flags = unsignedShort(header, start + offset + 6);
+            long compressedSize = unsignedShort(header, start + offset + 18)
+                    | (long) unsignedShort(header, start + offset + 20) << 16;
+            int nameLength = unsignedShort(header, start + offset + 26);
+            int extraLength = unsignedShort(header, start + offset + 28);
+            int name = offset + ZIP_LOCAL_HEADER_LENGTH;
+            int nameAvailable = Math.min(nameLength, length - name);
+            for (byte[] prefix : OOXML_PART_PREFIXES) {
+                if (startsWith(header, start + name, nameAvailable, prefix)) {
+                    return true;
+                }
+            }
+            long data = (long) name + nameLength + extraLength;
+            if ((flags & 0x08) != 0) {
+                // The size trails the data in a descriptor, so look for the next header's signature instead
+                offset = nextLocalHeader(header, start, length, (int) Math.min(data, length));
+                continue;
+            }
+            long next = data + compressedSize;
+            if (next > length) {
+                return false;
+            }
+            offset = (int) next;
+        }
+        return false;
+    }
+
+    private static int nextLocalHeader(ByteBuffer header, int start, int length, int from) {
+        int offset = from;
+        while (offset < length && !startsWith(header, start + offset, length - offset, ZIP_LOCAL_HEADER_MAGIC)) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static int unsignedShort(ByteBuffer header, int index) {
+        return (header.get(index) & 0xFF) | (header.get(index + 1) & 0xFF) << 8;
+    }
+
+    private static boolean looksLikeText(ByteBuffer header, int start, int length) {
+        if (length == 0) {
+            return false;
+        }
+        int b0 = header.get(start) & 0xFF;
+        int b1 = length > 1 ? header.get(start + 1) & 0xFF : -1;
+        if ((b0 == 0xFF && b1 == 0xFE) || (b0 == 0xFE && b1 == 0xFF)) {
+            return true; // UTF-16/32 byte order mark
+        }
+        int controlBytes = 0;
+        for (int i = start; i < start + length; i++) {
+            int b = header.get(i) & 0xFF;
+            if (b == 0) {
+                return false;
+            }
+            if (b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != 0x1B) {
+                controlBytes++;
+            }
+        }
+        return controlBytes * 20 < length;
+    }
+
+    private static boolean startsWith(ByteBuffer header, int start, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header.get(start + i) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
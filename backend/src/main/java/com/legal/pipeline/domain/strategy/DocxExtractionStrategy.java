@@ -1,18 +1,214 @@
 package com.legal.pipeline.domain.strategy;
 
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.hwpf.usermodel.HeaderStories;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JRuntimeException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.XMLHelper;
 import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Concrete implementation of IExtractionStrategy for Word documents.
+ * OOXML (.docx) files are streamed part by part through a SAX handler, so headers,
+ * body paragraphs, tables and footers are read without building the XWPF object model.
+ * Legacy binary (.doc) files are read through HWPF.
+ */
 @Component
 public class DocxExtractionStrategy implements IExtractionStrategy {
 
+    private static final String WORDPROCESSINGML_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String HEADER_RELATIONSHIP =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships/header";
+    private static final String FOOTER_RELATIONSHIP =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships/footer";
+    private static final int CHUNK_SIZE = 16 * 1024;
+
     @Override
     public String extractText(String documentPath) throws Exception {
-        // Placeholder implementation as Apache POI is not in dependencies
-        return "DOCX extraction not yet implemented.";
+        StringBuilder text = new StringBuilder();
+        extractText(documentPath, text::append);
+        return text.toString();
+    }
+
+    @Override
+    public void extractText(String documentPath, TextChunkSink sink) throws Exception {
+        File file = new File(documentPath);
+        try {
+            if (FileMagic.valueOf(file) == FileMagic.OLE2) {
+                extractLegacyDocument(file, sink);
+            } else {
+                extractOpenXmlDocument(file, sink);
+            }
+        } catch (IOException | SAXException | OpenXML4JException | OpenXML4JRuntimeException e) {
+            throw new Exception("Failed to extract text from Word document: " + e.getMessage(), e);
+        }
     }
 
     @Override
     public boolean supports(String documentType) {
         return "docx".equalsIgnoreCase(documentType) || "doc".equalsIgnoreCase(documentType);
     }
+
+    @Override
+    public void registerWith(ExtractionStrategyRegistry registry) {
+        registry.register(this, DocumentFormat.OOXML, "docx");
+        registry.register(this, DocumentFormat.OLE2, "doc");
+    }
+
+    private void extractOpenXmlDocument(File file, TextChunkSink sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            List<PackagePart> mainParts = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (mainParts.isEmpty()) {
+                throw new IOException("Package has no main document part");
+            }
+            PackagePart mainPart = mainParts.get(0);
+
+            for (PackageRelationship relationship : mainPart.getRelationshipsByType(HEADER_RELATIONSHIP)) {
+                parsePart(mainPart.getRelatedPart(relationship), sink);
+            }
+            parsePart(mainPart, sink);
+            for (PackageRelationship relationship : mainPart.getRelationshipsByType(FOOTER_RELATIONSHIP)) {
+                parsePart(mainPart.getRelatedPart(relationship), sink);
+            }
+        }
+    }
+
+    private void parsePart(PackagePart part, TextChunkSink sink) throws Exception {
+        XMLReader reader = XMLHelper.newXMLReader();
+        WordprocessingTextHandler handler = new WordprocessingTextHandler(sink);
+        reader.setContentHandler(handler);
+        try (InputStream partStream = part.getInputStream()) {
+            reader.parse(new InputSource(partStream));
+        }
+        handler.flush();
+    }
+
+    private void extractLegacyDocument(File file, TextChunkSink sink) throws IOException {
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(file, true);
+             HWPFDocument document = new HWPFDocument(fileSystem.getRoot());
+             WordExtractor extractor = new WordExtractor(document)) {
+            HeaderStories headerStories = new HeaderStories(document);
+            emitIfPresent(headerStories.getOddHeaderSubrange(), sink);
+            for (String paragraph : extractor.getParagraphText()) {
+                sink.accept(paragraph);
+            }
+            emitIfPresent(headerStories.getOddFooterSubrange(), sink);
+        }
+    }
+
+    private void emitIfPresent(Range story, TextChunkSink sink) throws IOException {
+        if (story == null) {
+            return;
+        }
+        String text = Range.stripFields(story.text());
+        if (!text.isBlank()) {
+            sink.accept(text);
+        }
+    }
+
+    /**
+     * SAX handler for WordprocessingML parts. Collects the text of {@code w:t} runs,
+     * turns run-level tabs and breaks into whitespace, ends paragraphs and table rows
+     * with a newline and separates table cells with a tab. Text is handed to the sink
+     * whenever the buffer reaches the chunk size, so memory stays constant per part.
+     */
+    private static final class WordprocessingTextHandler extends DefaultHandler {
+
+        private final TextChunkSink sink;
+        private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE);
+        private int runDepth;
+        private int tableCellDepth;
+        private boolean inText;
+
+        WordprocessingTextHandler(TextChunkSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (!WORDPROCESSINGML_NS.equals(uri)) {
+                return;
+            }
+            switch (localName) {
+                case "r" -> runDepth++;
+                case "t" -> inText = true;
+                case "tc" -> tableCellDepth++;
+                case "tab" -> {
+                    if (runDepth > 0) {
+                        buffer.append('\t');
+                    }
+                }
+                case "br", "cr" -> {
+                    if (runDepth > 0) {
+                        buffer.append('\n');
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (!WORDPROCESSINGML_NS.equals(uri)) {
+                return;
+            }
+            switch (localName) {
+                case "r" -> runDepth--;
+                case "t" -> inText = false;
+                case "p" -> buffer.append(tableCellDepth > 0 ? ' ' : '\n');
+                case "tc" -> {
+                    tableCellDepth--;
+                    buffer.append('\t');
+                }
+                case "tr" -> buffer.append('\n');
+                default -> {
+                }
+            }
+            if (buffer.length() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (inText) {
+                buffer.append(ch, start, length);
+                if (buffer.length() >= CHUNK_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() throws SAXException {
+            if (buffer.length() == 0) {
+                return;
+            }
+            try {
+                sink.accept(buffer.toString());
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
 }
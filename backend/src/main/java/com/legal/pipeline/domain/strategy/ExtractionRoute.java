@@ -0,0 +1,35 @@
+package com.legal.pipeline.domain.strategy;
+
+/**
+ * The outcome of routing a document to an extraction strategy.
+ */
+public class ExtractionRoute {
+
+    private final IExtractionStrategy strategy;
+    private final String documentType;
+    private final boolean mislabelled;
+
+    public ExtractionRoute(IExtractionStrategy strategy, String documentType, boolean mislabelled) {
+        this.strategy = strategy;
+        this.documentType = documentType;
+        this.mislabelled = mislabelled;
+    }
+
+    public IExtractionStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the effective document type, taken from the detected format when it is known
+     */
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * @return true if the detected format disagreed with the client-supplied type
+     */
+    public boolean isMislabelled() {
+        return mislabelled;
+    }
+}
@@ -1,29 +1,36 @@
 package com.legal.pipeline.domain.strategy;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Factory class for managing and providing extraction strategies.
- * Uses Spring's dependency injection to collect all strategy implementations.
+ * Uses Spring's dependency injection to collect all strategy implementations,
+ * each of which declares the formats and document types it handles into a registry.
+ * Documents can be routed either by declared type or by sniffing their leading bytes,
+ * so mislabelled files reach the right parser instead of failing a full parse first.
  */
 @Component
 public class ExtractionStrategyFactory {
 
-    private final Map<String, IExtractionStrategy> strategies;
+    private final ExtractionStrategyRegistry registry = new ExtractionStrategyRegistry();
+    private final Counter typeMismatches;
 
     @Autowired
-    public ExtractionStrategyFactory(List<IExtractionStrategy> strategyList) {
-        this.strategies = strategyList.stream()
-                .collect(Collectors.toMap(
-                        strategy -> getDocumentTypeForStrategy(strategy),
-                        Function.identity()
-                ));
+    public ExtractionStrategyFactory(List<IExtractionStrategy> strategyList, MeterRegistry meterRegistry) {
+        for (IExtractionStrategy strategy : strategyList) {
+            strategy.registerWith(registry);
+        }
+        this.typeMismatches = Counter.builder("extraction.router.type.mismatch")
+                .description("Documents whose sniffed format disagreed with the declared type " +
+                        "and were routed by content")
+                .register(meterRegistry);
     }
 
     /**
@@ -34,13 +41,40 @@ public class ExtractionStrategyFactory {
      * @throws IllegalArgumentException if no strategy supports the document type
      */
     public IExtractionStrategy getStrategy(String documentType) {
-        IExtractionStrategy strategy = strategies.get(documentType.toLowerCase());
+        IExtractionStrategy strategy = documentType == null ? null : registry.forType(documentType);
         if (strategy == null) {
             throw new IllegalArgumentException("No extraction strategy found for document type: " + documentType);
         }
         return strategy;
     }
 
+    /**
+     * Routes a document to a strategy by sniffing its leading bytes, falling back to the
+     * declared type when the format is not recognised.
+     *
+     * @param filePath     the path to the document file
+     * @param declaredType the client-supplied document type, may be null
+     * @return the route to use for extraction
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if neither the format nor the declared type has a strategy
+     */
+    public ExtractionRoute route(String filePath, String declaredType) throws IOException {
+        DocumentFormat format = DocumentFormatSniffer.sniff(Paths.get(filePath));
+        IExtractionStrategy sniffedStrategy = registry.forFormat(format);
+        if (sniffedStrategy == null) {
+            return new ExtractionRoute(getStrategy(declaredType), declaredType, false);
+        }
+
+        IExtractionStrategy declaredStrategy = declaredType == null ? null : registry.forType(declaredType);
+        boolean mislabelled = declaredStrategy != sniffedStrategy;
+        if (mislabelled) {
+            typeMismatches.increment();
+            System.out.println("Document " + filePath + " declared as '" + declaredType +
+                    "' but detected as " + format + "; routing by content");
+        }
+        return new ExtractionRoute(sniffedStrategy, format.getDocumentType(), mislabelled);
+    }
+
     /**
      * Checks if a strategy exists for the given document type.
      *
@@ -48,16 +82,6 @@ public class ExtractionStrategyFactory {
      * @return true if supported, false otherwise
      */
     public boolean supportsDocumentType(String documentType) {
-        return strategies.containsKey(documentType.toLowerCase());
-    }
-
-    private String getDocumentTypeForStrategy(IExtractionStrategy strategy) {
-        // This is a simple implementation; in a real scenario, you might use annotations or configuration
-        if (strategy instanceof PDFExtractionStrategy) {
-            return "pdf";
-        } else if (strategy instanceof DocxExtractionStrategy) {
-            return "docx";
-        }
-        throw new IllegalArgumentException("Unknown strategy type: " + strategy.getClass().getSimpleName());
+        return documentType != null && registry.forType(documentType) != null;
     }
 }
@@ -0,0 +1,58 @@
+package com.legal.pipeline.domain.strategy;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry that extraction strategies declare themselves into.
+ * Strategies are indexed both by declared document type and by physical format;
+ * format lookups are a single array access by enum ordinal.
+ */
+public class ExtractionStrategyRegistry {
+
+    private final IExtractionStrategy[] strategiesByFormat = new IExtractionStrategy[DocumentFormat.values().length];
+    private final Map<String, IExtractionStrategy> strategiesByType = new HashMap<>();
+
+    /**
+     * Registers a strategy for a physical format and the document types it is declared under.
+     *
+     * @param strategy      the strategy to register
+     * @param format        the format the strategy can parse
+     * @param documentTypes the document types routed to the strategy
+     * @throws IllegalStateException if another strategy already claimed the format or a type
+     */
+    public void register(IExtractionStrategy strategy, DocumentFormat format, String... documentTypes) {
+        IExtractionStrategy existing = strategiesByFormat[format.ordinal()];
+        if (existing != null && existing != strategy) {
+            throw new IllegalStateException("Format " + format + " is already handled by " +
+                    existing.getClass().getSimpleName());
+        }
+        strategiesByFormat[format.ordinal()] = strategy;
+
+        for (String documentType : documentTypes) {
+            existing = strategiesByType.putIfAbsent(documentType.toLowerCase(Locale.ROOT), strategy);
+            if (existing != null && existing != strategy) {
+                throw new IllegalStateException("Document type " + documentType + " is already handled by " +
+                        existing.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * @param format the physical format
+     * @return the strategy for the format, or null if none is registered
+     */
+    public IExtractionStrategy forFormat(DocumentFormat format) {
+        return strategiesByFormat[format.ordinal()];
+    }
+
+    /**
+     * @param documentType the declared document type, in any case
+     * @return the strategy for the type, or null if none is registered
+     */
+    public IExtractionStrategy forType(String documentType) {
+        // toLowerCase returns the same instance when the type is already lower case
+        return strategiesByType.get(documentType.toLowerCase(Locale.ROOT));
+    }
+}
@@ -15,6 +15,21 @@ public interface IExtractionStrategy {
      */
     String extractText(String documentPath) throws Exception;
 
+    /**
+     * Extracts text content from the given document and emits it to the sink in chunks.
+     * Strategies that can walk a document incrementally override this so that the parser
+     * never holds the whole document at once; the default delegates to
+     * {@link #extractText(String)} and emits a single chunk. The text itself is only as
+     * bounded as the sink: a sink that collects the chunks still ends up with all of it.
+     *
+     * @param documentPath the path to the document file
+     * @param sink         receiver for the extracted text chunks
+     * @throws Exception if extraction fails
+     */
+    default void extractText(String documentPath, TextChunkSink sink) throws Exception {
+        sink.accept(extractText(documentPath));
+    }
+
     /**
      * Checks if this strategy supports the given document type.
      *
@@ -22,4 +37,11 @@ public interface IExtractionStrategy {
      * @return true if supported, false otherwise
      */
     boolean supports(String documentType);
+
+    /**
+     * Declares the physical formats and document types this strategy handles.
+     *
+     * @param registry the registry to declare into
+     */
+    void registerWith(ExtractionStrategyRegistry registry);
 }
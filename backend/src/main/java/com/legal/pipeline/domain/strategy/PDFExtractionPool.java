@@ -0,0 +1,45 @@
+package com.legal.pipeline.domain.strategy;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The fork-join pool that large PDFs are extracted on, a page range per task.
+ * One pool is shared by every {@link PDFExtractionStrategy} it is given to and is shut
+ * down with the application context; whoever creates one outside the context closes it.
+ */
+@Component
+public class PDFExtractionPool implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    public PDFExtractionPool(@Value("${extraction.pdf.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("pdf-extraction-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null, false);
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
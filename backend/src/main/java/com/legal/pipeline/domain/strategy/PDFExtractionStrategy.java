@@ -1,24 +1,96 @@
 package com.legal.pipeline.domain.strategy;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Concrete implementation of IExtractionStrategy for PDF documents.
  * Uses Apache PDFBox to extract text from PDF files.
+ * Documents are loaded with a mixed memory setting, so that PDFBox spills to a
+ * scratch file once the configured memory budget is used up, and text is
+ * stripped a page range at a time.
+ * Documents at or above the parallel page threshold are split into page ranges that
+ * are extracted concurrently on the shared {@link PDFExtractionPool} and stitched back in
+ * page order. A strategy created without a pool extracts every document sequentially.
  */
 @Component
 public class PDFExtractionStrategy implements IExtractionStrategy {
 
+    private static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024; // 64MB
+    private static final int DEFAULT_PAGES_PER_CHUNK = 20;
+    private static final int DEFAULT_PARALLEL_THRESHOLD_PAGES = 100;
+
+    private final long memoryBudgetBytes;
+    private final int pagesPerChunk;
+    private final String scratchDirectory;
+    private final int parallelThresholdPages;
+    private final PDFExtractionPool extractionPool;
+
+    public PDFExtractionStrategy() {
+        this(DEFAULT_MEMORY_BUDGET_BYTES, DEFAULT_PAGES_PER_CHUNK, "", DEFAULT_PARALLEL_THRESHOLD_PAGES, null);
+    }
+
+    @Autowired
+    public PDFExtractionStrategy(@Value("${extraction.pdf.memory-budget-bytes:67108864}") long memoryBudgetBytes,
+            @Value("${extraction.pdf.pages-per-chunk:20}") int pagesPerChunk,
+            @Value("${extraction.pdf.scratch-dir:}") String scratchDirectory,
+            @Value("${extraction.pdf.parallel-threshold-pages:100}") int parallelThresholdPages,
+            PDFExtractionPool extractionPool) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.pagesPerChunk = Math.max(1, pagesPerChunk);
+        this.scratchDirectory = scratchDirectory;
+        this.parallelThresholdPages = parallelThresholdPages;
+        this.extractionPool = extractionPool;
+    }
+
+    /**
+     * Extracts the full document text. Documents with at least the configured number of
+     * pages are extracted in parallel; smaller ones are streamed sequentially.
+     *
+     * @param documentPath the path to the PDF file
+     * @return the extracted text, in page order
+     * @throws Exception if the document cannot be read
+     */
     @Override
     public String extractText(String documentPath) throws Exception {
-        try (PDDocument document = PDDocument.load(new File(documentPath))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+        int pageCount;
+        try (PDDocument document = PDDocument.load(new File(documentPath), memoryUsageSetting())) {
+            pageCount = document.getNumberOfPages();
+            if (!shouldExtractInParallel(pageCount)) {
+                StringBuilder text = new StringBuilder();
+                streamPages(document, text::append);
+                return text.toString();
+            }
+        } catch (IOException e) {
+            throw new Exception("Failed to extract text from PDF: " + e.getMessage(), e);
+        }
+        return extractTextInParallel(documentPath, pageCount);
+    }
+
+    /**
+     * Streams the document text to the sink one page range at a time.
+     * Heap usage is bounded by the memory budget plus the text of a single page range,
+     * independent of the total page count.
+     *
+     * @param documentPath the path to the PDF file
+     * @param sink         receiver for the text of each page range, in page order
+     * @throws Exception if the document cannot be read
+     */
+    @Override
+    public void extractText(String documentPath, TextChunkSink sink) throws Exception {
+        try (PDDocument document = PDDocument.load(new File(documentPath), memoryUsageSetting())) {
+            streamPages(document, sink);
         } catch (IOException e) {
             throw new Exception("Failed to extract text from PDF: " + e.getMessage(), e);
         }
@@ -28,4 +100,120 @@ public class PDFExtractionStrategy implements IExtractionStrategy {
     public boolean supports(String documentType) {
         return "pdf".equalsIgnoreCase(documentType);
     }
+
+    @Override
+    public void registerWith(ExtractionStrategyRegistry registry) {
+        registry.register(this, DocumentFormat.PDF, "pdf");
+    }
+
+    private boolean shouldExtractInParallel(int pageCount) {
+        return parallelThresholdPages > 0
+                && extractionPool != null
+                && extractionPool.getParallelism() > 1
+                && pageCount >= parallelThresholdPages
+                && pageCount > pagesPerChunk;
+    }
+
+    private void streamPages(PDDocument document, TextChunkSink sink) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        int pageCount = document.getNumberOfPages();
+        for (int startPage = 1; startPage <= pageCount; startPage += pagesPerChunk) {
+            stripper.setStartPage(startPage);
+            stripper.setEndPage(Math.min(startPage + pagesPerChunk - 1, pageCount));
+            sink.accept(stripper.getText(document));
+        }
+    }
+
+    private String extractTextInParallel(String documentPath, int pageCount) throws Exception {
+        // Each leaf loads its own PDDocument since PDFBox documents are not thread-safe,
+        // so the memory budget is shared between the concurrently open copies.
+        int parallelism = extractionPool.getParallelism();
+        int pagesPerTask = Math.max(pagesPerChunk, pageCount / (parallelism * 2));
+        String[] rangeTexts = new String[(pageCount + pagesPerTask - 1) / pagesPerTask];
+        PageRangeTask task = new PageRangeTask(documentPath, memoryUsageSetting().getPartitionedCopy(parallelism),
+                pageCount, pagesPerTask, rangeTexts, new AtomicBoolean(), 0, rangeTexts.length);
+        extractionPool.getPool().execute(task);
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            // Ranges not yet started are skipped; the ones being stripped finish on their own
+            task.stop();
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw new Exception("Failed to extract text from PDF: " + cause.getMessage(), cause);
+        }
+        return String.join("", rangeTexts);
+    }
+
+    private MemoryUsageSetting memoryUsageSetting() {
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(memoryBudgetBytes);
+        if (scratchDirectory != null && !scratchDirectory.isBlank()) {
+            setting.setTempDir(new File(scratchDirectory));
+        }
+        return setting;
+    }
+
+    /**
+     * Fork-join task that splits a run of page ranges in half until it is down to one range,
+     * extracts the ranges concurrently into their slot of the shared result array, and stops
+     * starting new ranges once the extraction is cancelled or a range fails.
+     */
+    private static final class PageRangeTask extends RecursiveAction {
+
+        private final String documentPath;
+        private final MemoryUsageSetting memoryUsageSetting;
+        private final int pageCount;
+        private final int pagesPerTask;
+        private final String[] rangeTexts;
+        private final AtomicBoolean stopped;
+        private final int firstRange;
+        private final int endRange;
+
+        PageRangeTask(String documentPath, MemoryUsageSetting memoryUsageSetting, int pageCount, int pagesPerTask,
+                String[] rangeTexts, AtomicBoolean stopped, int firstRange, int endRange) {
+            this.documentPath = documentPath;
+            this.memoryUsageSetting = memoryUsageSetting;
+            this.pageCount = pageCount;
+            this.pagesPerTask = pagesPerTask;
+            this.rangeTexts = rangeTexts;
+            this.stopped = stopped;
+            this.firstRange = firstRange;
+            this.endRange = endRange;
+        }
+
+        void stop() {
+            stopped.set(true);
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped.get()) {
+                return;
+            }
+            if (endRange - firstRange == 1) {
+                rangeTexts[firstRange] = extractRange(firstRange * pagesPerTask + 1);
+                return;
+            }
+            int middleRange = firstRange + (endRange - firstRange) / 2;
+            invokeAll(
+                    new PageRangeTask(documentPath, memoryUsageSetting, pageCount, pagesPerTask, rangeTexts, stopped,
+                            firstRange, middleRange),
+                    new PageRangeTask(documentPath, memoryUsageSetting, pageCount, pagesPerTask, rangeTexts, stopped,
+                            middleRange, endRange));
+        }
+
+        private String extractRange(int startPage) {
+            try (PDDocument document = PDDocument.load(new File(documentPath), memoryUsageSetting)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setStartPage(startPage);
+                stripper.setEndPage(Math.min(startPage + pagesPerTask - 1, pageCount));
+                return stripper.getText(document);
+            } catch (IOException e) {
+                stop();
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.legal.pipeline.domain.strategy;
+
+import java.io.IOException;
+
+/**
+ * Receives extracted text incrementally from a streaming extraction.
+ * Chunks are delivered in document order; an implementation must not assume
+ * that a chunk boundary coincides with a word, line, or page boundary.
+ */
+@FunctionalInterface
+public interface TextChunkSink {
+
+    /**
+     * Accepts the next chunk of extracted text.
+     *
+     * @param chunk the text chunk, never null
+     * @throws IOException if the sink cannot accept the chunk
+     */
+    void accept(String chunk) throws IOException;
+}
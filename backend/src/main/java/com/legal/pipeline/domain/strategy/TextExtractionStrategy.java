@@ -0,0 +1,201 @@
+package com.legal.pipeline.domain.strategy;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Concrete implementation of IExtractionStrategy for plain-text documents.
+ * The file is memory-mapped and decoded straight from the mapping into a fixed-size
+ * character buffer, so the raw bytes are never copied onto the heap. The charset is
+ * taken from a byte order mark when present, and otherwise guessed from a sample:
+ * UTF-16 by the position of NUL bytes, then strict UTF-8, then Windows-1252.
+ */
+@Component
+public class TextExtractionStrategy implements IExtractionStrategy {
+
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final long MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int SAMPLE_BYTES = 64 * 1024;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+    private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
+
+    @Override
+    public String extractText(String documentPath) throws Exception {
+        StringBuilder text = new StringBuilder();
+        extractText(documentPath, text::append);
+        return text.toString();
+    }
+
+    @Override
+    public void extractText(String documentPath, TextChunkSink sink) throws Exception {
+        try (FileChannel channel = FileChannel.open(Paths.get(documentPath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+
+            MappedByteBuffer sample = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, SAMPLE_BYTES));
+            DetectedEncoding encoding = detectEncoding(sample);
+            CharsetDecoder decoder = encoding.charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chunk = CharBuffer.allocate(CHUNK_CHARS);
+
+            long position = encoding.bomLength;
+            while (position < size) {
+                long windowSize = Math.min(MAP_WINDOW_BYTES, size - position);
+                boolean endOfInput = position + windowSize >= size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                decode(decoder, window, chunk, endOfInput, sink);
+                // Bytes of a character split across windows are left unconsumed and re-mapped
+                position += window.position();
+            }
+            while (decoder.flush(chunk).isOverflow()) {
+                emit(chunk, sink);
+            }
+            emit(chunk, sink);
+        } catch (IOException e) {
+            throw new Exception("Failed to extract text from text file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supports(String documentType) {
+        return "txt".equalsIgnoreCase(documentType);
+    }
+
+    @Override
+    public void registerWith(ExtractionStrategyRegistry registry) {
+        registry.register(this, DocumentFormat.TEXT, "txt");
+    }
+
+    private void decode(CharsetDecoder decoder, ByteBuffer input, CharBuffer chunk, boolean endOfInput,
+            TextChunkSink sink) throws IOException {
+        while (true) {
+            CoderResult result = decoder.decode(input, chunk, endOfInput);
+            if (result.isOverflow()) {
+                emit(chunk, sink);
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void emit(CharBuffer chunk, TextChunkSink sink) throws IOException {
+        chunk.flip();
+        if (chunk.hasRemaining()) {
+            sink.accept(chunk.toString());
+        }
+        chunk.clear();
+    }
+
+    private DetectedEncoding detectEncoding(ByteBuffer sample) {
+        int b0 = byteAt(sample, 0);
+        int b1 = byteAt(sample, 1);
+        int b2 = byteAt(sample, 2);
+        int b3 = byteAt(sample, 3);
+
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new DetectedEncoding(StandardCharsets.UTF_8, 3);
+        }
+        if (b0 == 0x00 && b1 == 0x00 && b2 == 0xFE && b3 == 0xFF) {
+            return new DetectedEncoding(UTF_32BE, 4);
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0x00 && b3 == 0x00) {
+            return new DetectedEncoding(UTF_32LE, 4);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new DetectedEncoding(StandardCharsets.UTF_16BE, 2);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new DetectedEncoding(StandardCharsets.UTF_16LE, 2);
+        }
+
+        // Mostly-ASCII UTF-16 text has a NUL in every other byte
+        int evenNuls = 0;
+        int oddNuls = 0;
+        int limit = sample.limit();
+        for (int i = 0; i < limit; i++) {
+            if (sample.get(i) == 0) {
+                if ((i & 1) == 0) {
+                    evenNuls++;
+                } else {
+                    oddNuls++;
+                }
+            }
+        }
+        int pairs = limit / 2;
+        if (pairs > 0 && oddNuls > pairs * 0.4 && evenNuls < pairs * 0.1) {
+            return new DetectedEncoding(StandardCharsets.UTF_16LE, 0);
+        }
+        if (pairs > 0 && evenNuls > pairs * 0.4 && oddNuls < pairs * 0.1) {
+            return new DetectedEncoding(StandardCharsets.UTF_16BE, 0);
+        }
+
+        return new DetectedEncoding(isValidUtf8(sample) ? StandardCharsets.UTF_8 : WINDOWS_1252, 0);
+    }
+
+    /**
+     * Strictly validates UTF-8 in the sample. A multi-byte sequence truncated by the
+     * end of the sample is accepted, since the sample may cut a character in half.
+     */
+    private boolean isValidUtf8(ByteBuffer sample) {
+        int limit = sample.limit();
+        int i = 0;
+        while (i < limit) {
+            int lead = sample.get(i) & 0xFF;
+            int continuationBytes;
+            if (lead < 0x80) {
+                i++;
+                continue;
+            } else if (lead >= 0xC2 && lead <= 0xDF) {
+                continuationBytes = 1;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                continuationBytes = 2;
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                continuationBytes = 3;
+            } else {
+                return false;
+            }
+            for (int j = 1; j <= continuationBytes; j++) {
+                if (i + j >= limit) {
+                    return true;
+                }
+                if ((sample.get(i + j) & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuationBytes + 1;
+        }
+        return true;
+    }
+
+    private int byteAt(ByteBuffer buffer, int index) {
+        return index < buffer.limit() ? buffer.get(index) & 0xFF : -1;
+    }
+
+    private static final class DetectedEncoding {
+        private final Charset charset;
+        private final int bomLength;
+
+        DetectedEncoding(Charset charset, int bomLength) {
+            this.charset = charset;
+            this.bomLength = bomLength;
+        }
+    }
+}
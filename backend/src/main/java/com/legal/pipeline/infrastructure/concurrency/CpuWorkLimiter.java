@@ -0,0 +1,52 @@
+package com.legal.pipeline.infrastructure.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many CPU-bound sections of stage work run at once.
+ * On platform threads the stage worker pools already bound this, so the limiter is a
+ * pass-through. On virtual threads every in-flight record has its own thread, so
+ * without a cap thousands of records would contend for the carrier threads at once
+ * and blocking I/O on other records would stall behind them.
+ */
+@Component
+public class CpuWorkLimiter {
+
+    private final Semaphore permits;
+
+    public CpuWorkLimiter(MeterRegistry meterRegistry,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads,
+            @Value("${pipeline.virtual-threads.cpu-permits:0}") int cpuPermits) {
+        int count = cpuPermits > 0 ? cpuPermits : Runtime.getRuntime().availableProcessors();
+        this.permits = virtualThreads ? new Semaphore(count, true) : null;
+        if (permits != null) {
+            Gauge.builder("pipeline.cpu.permits.waiting", permits, Semaphore::getQueueLength)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs CPU-bound work once a permit is available.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     * @throws Exception if the work fails or the thread is interrupted while waiting
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        if (permits == null) {
+            return work.call();
+        }
+        permits.acquire();
+        try {
+            return work.call();
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stage completion store held in process memory.
+ * Bounded by total record size and evicted least-recently-used first; records also
+ * expire after the retention period. Catches redeliveries to the same pod, which covers
+ * most rebalances during a rolling deploy; use the Redis store to share it across pods.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.dedupe.store", havingValue = "local", matchIfMissing = true)
+public class LocalStageCompletionStore implements StageCompletionStore {
+
+    private final long maxBytes;
+    private final long retentionMillis;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    public LocalStageCompletionStore(
+            @Value("${pipeline.dedupe.local.max-bytes:67108864}") long maxBytes,
+            @Value("${pipeline.dedupe.retention-hours:24}") long retentionHours) {
+        this.maxBytes = maxBytes;
+        this.retentionMillis = Duration.ofHours(retentionHours).toMillis();
+    }
+
+    @Override
+    public synchronized byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            bytes -= entry.record.length;
+            return null;
+        }
+        return entry.record;
+    }
+
+    @Override
+    public synchronized void put(String key, byte[] record) {
+        if (record.length > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(record, System.currentTimeMillis() + retentionMillis));
+        if (previous != null) {
+            bytes -= previous.record.length;
+        }
+        bytes += record.length;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().record.length;
+            eldest.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] record;
+        private final long expiresAt;
+
+        private Entry(byte[] record, long expiresAt) {
+            this.record = record;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
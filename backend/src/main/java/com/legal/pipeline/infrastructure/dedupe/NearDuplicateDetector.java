@@ -0,0 +1,216 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.similarity.NearDuplicateIndex;
+import com.legal.pipeline.infrastructure.kafka.DocumentProcessingMessageCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Recognises documents that are nearly the same as one already processed, such as
+ * versions of one contract that differ only in party names. Each document's text is
+ * signed with MinHash and looked up in a {@link NearDuplicateIndex}; a match is tagged
+ * in the document's metadata ({@code nearDuplicateOf}, {@code nearDuplicateSimilarity}).
+ * When result reuse is on, stages may also record their results per document and take
+ * a near-duplicate's results instead of computing their own.
+ * <p>
+ * The index lives in this process and is snapshotted to disk every interval and on
+ * shutdown, then reloaded at startup. Each instance indexes the documents it sees, so
+ * near-duplicates handled by different instances are not matched with each other.
+ * Reusable results go to the stage completion store and share its retention. Like that
+ * store, detection is only an optimisation: if it fails, the document is processed as
+ * if it were new.
+ */
+@Component
+public class NearDuplicateDetector {
+
+    private static final String RESULT_KEY_PREFIX = "near-duplicate:";
+
+    private final StageCompletionStore stageCompletionStore;
+    private final double threshold;
+    private final boolean reuseResults;
+    private final Path indexPath;
+    private final NearDuplicateIndex index;
+
+    private final Counter matches;
+    private final Counter reused;
+    private volatile boolean fullReported;
+    // Index size at the last snapshot; guarded by the snapshot lock
+    private final Object snapshotLock = new Object();
+    private int snapshotSize;
+
+    public NearDuplicateDetector(StageCompletionStore stageCompletionStore, MeterRegistry meterRegistry,
+            @Value("${near-duplicate.enabled:true}") boolean enabled,
+            @Value("${near-duplicate.threshold:0.8}") double threshold,
+            @Value("${near-duplicate.reuse-results:false}") boolean reuseResults,
+            @Value("${near-duplicate.shingle-words:5}") int shingleWords,
+            @Value("${near-duplicate.bands:8}") int bands,
+            @Value("${near-duplicate.rows:6}") int rows,
+            @Value("${near-duplicate.index.max-documents:5000000}") int maxDocuments,
+            @Value("${near-duplicate.index.path:${java.io.tmpdir}/idp-near-duplicate-index.bin}") String indexPath) {
+        this.stageCompletionStore = stageCompletionStore;
+        this.threshold = threshold;
+        this.reuseResults = reuseResults;
+        this.indexPath = Paths.get(indexPath);
+        this.index = enabled ? loadIndex(shingleWords, bands, rows, maxDocuments) : null;
+        this.snapshotSize = index != null ? index.size() : 0;
+
+        this.matches = Counter.builder("pipeline.neardup.matches").register(meterRegistry);
+        this.reused = Counter.builder("pipeline.neardup.reused").register(meterRegistry);
+        if (index != null) {
+            Gauge.builder("pipeline.neardup.index.documents", index, NearDuplicateIndex::size)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Looks a document up among those seen before and indexes it. A match is written to
+     * the metadata.
+     *
+     * @param documentId the document id
+     * @param content    the document text, may be null
+     * @param metadata   the document's metadata, to tag
+     * @return the id of the document this one nearly duplicates, or null
+     */
+    public String findNearDuplicate(String documentId, String content, Map<String, Object> metadata) {
+        if (index == null || content == null) {
+            return null;
+        }
+        int[] signature = index.signature(content);
+        if (signature == null) {
+            return null;
+        }
+        NearDuplicateIndex.Match match = index.findOrAdd(documentId, signature, threshold);
+        if (!fullReported && index.isFull()) {
+            fullReported = true;
+            System.err.println("Near-duplicate index is full at " + index.size() +
+                    " documents; new documents are looked up but no longer indexed");
+        }
+        if (match == null) {
+            return null;
+        }
+        metadata.put("nearDuplicateOf", match.getDocumentId());
+        metadata.put("nearDuplicateSimilarity", Math.round(match.getSimilarity() * 1000) / 1000.0);
+        matches.increment();
+        return match.getDocumentId();
+    }
+
+    /**
+     * @param stage      the stage name
+     * @param documentId the document whose results are wanted
+     * @return the results the stage recorded for the document, or null if reuse is off or none are known
+     */
+    public Map<String, Object> reusableResults(String stage, String documentId) {
+        if (!reuseResults || documentId == null) {
+            return null;
+        }
+        try {
+            byte[] record = stageCompletionStore.get(RESULT_KEY_PREFIX + stage + ":" + documentId);
+            if (record == null) {
+                return null;
+            }
+            Map<String, Object> results = DocumentProcessingMessageCodec.decode(record).getMetadata();
+            reused.increment();
+            return results;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load " + stage + " results of document " + documentId + ": " +
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records a stage's results for a document, so its near-duplicates can reuse them.
+     *
+     * @param stage      the stage name
+     * @param documentId the document id
+     * @param results    the metadata entries the stage produced
+     */
+    public void recordResults(String stage, String documentId, Map<String, Object> results) {
+        if (!reuseResults || index == null) {
+            return;
+        }
+        DocumentProcessingMessage carrier = new DocumentProcessingMessage();
+        carrier.setDocumentId(documentId);
+        carrier.setMetadata(results);
+        try {
+            stageCompletionStore.put(RESULT_KEY_PREFIX + stage + ":" + documentId,
+                    DocumentProcessingMessageCodec.encode(carrier, Integer.MAX_VALUE));
+        } catch (IOException e) {
+            System.err.println("Failed to record " + stage + " results of document " + documentId + ": " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the index to disk if documents were added since the last snapshot. The file
+     * is replaced atomically, so a crash mid-write leaves the previous snapshot.
+     */
+    @Scheduled(fixedDelayString = "${near-duplicate.index.snapshot-interval-ms:300000}",
+            initialDelayString = "${near-duplicate.index.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (index == null) {
+            return;
+        }
+        synchronized (snapshotLock) {
+            int size = index.size();
+            if (size == snapshotSize) {
+                return;
+            }
+            Path temporary = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            try {
+                if (indexPath.getParent() != null) {
+                    Files.createDirectories(indexPath.getParent());
+                }
+                try (OutputStream out = Files.newOutputStream(temporary)) {
+                    index.writeTo(out);
+                }
+                Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshotSize = size;
+                System.out.println("Near-duplicate index snapshot written: " + size + " documents");
+            } catch (IOException e) {
+                System.err.println("Failed to write near-duplicate index snapshot " + indexPath + ": " +
+                        e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private NearDuplicateIndex loadIndex(int shingleWords, int bands, int rows, int maxDocuments) {
+        if (Files.exists(indexPath)) {
+            try (InputStream in = Files.newInputStream(indexPath)) {
+                NearDuplicateIndex loaded = NearDuplicateIndex.read(in, maxDocuments);
+                if (loaded.isCompatibleWith(shingleWords, bands, rows)) {
+                    System.out.println("Loaded near-duplicate index " + indexPath + " with " + loaded.size() +
+                            " documents");
+                    return loaded;
+                }
+                // Signatures made with other settings cannot be compared; start over
+                System.err.println("Near-duplicate index " + indexPath + " was built with other settings; " +
+                        "starting a new index");
+            } catch (IOException e) {
+                System.err.println("Failed to load near-duplicate index " + indexPath + ": " + e.getMessage() +
+                        "; starting a new index");
+            }
+        }
+        return new NearDuplicateIndex(shingleWords, bands, rows, maxDocuments);
+    }
+}
@@ -0,0 +1,54 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Stage completion store backed by Redis, shared by every pod of a stage, so work
+ * finished on one pod is recognised when a rebalance hands its partition to another.
+ * Each record is a single key that expires after the retention period.
+ */
+@Component
+@ConditionalOnProperty(name = "pipeline.dedupe.store", havingValue = "redis")
+public class RedisStageCompletionStore implements StageCompletionStore {
+
+    private static final String KEY_PREFIX = "idp:stage-done:";
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration retention;
+
+    public RedisStageCompletionStore(RedisConnectionFactory connectionFactory,
+            @Value("${pipeline.dedupe.retention-hours:24}") long retentionHours) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(RedisSerializer.string());
+        this.redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        this.redisTemplate.afterPropertiesSet();
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        try {
+            return redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to load stage completion " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] record) throws IOException {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, record, retention);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to store stage completion " + key + ": " + e.getMessage(), e);
+        }
+    }
+}
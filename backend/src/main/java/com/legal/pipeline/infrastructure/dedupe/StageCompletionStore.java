@@ -0,0 +1,28 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import java.io.IOException;
+
+/**
+ * Remembers the output of stage work that has already completed, so a redelivered
+ * record can be answered from the store instead of being processed again.
+ */
+public interface StageCompletionStore {
+
+    /**
+     * Loads a completion record.
+     *
+     * @param key the completion key
+     * @return the stored record, or null if none is known
+     * @throws IOException if the store cannot be read
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Stores a completion record, replacing any previous one under the same key.
+     *
+     * @param key    the completion key
+     * @param record the record bytes
+     * @throws IOException if the record cannot be written
+     */
+    void put(String key, byte[] record) throws IOException;
+}
@@ -0,0 +1,158 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.extraction.ContentHasher;
+import com.legal.pipeline.infrastructure.kafka.DocumentProcessingMessageCodec;
+import com.legal.pipeline.infrastructure.kafka.StageOutputPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Makes stage processing idempotent across redeliveries.
+ * When a stage has delivered its output it records that output under the document id,
+ * the stage and the hash of the stage's input. A record redelivered after a rebalance,
+ * before its offset was committed, is then answered by re-sending the recorded output
+ * instead of redoing the work. Downstream stages see the same output twice, as they
+ * already could with at-least-once delivery, and deduplicate it the same way.
+ * <p>
+ * The store is only an optimisation: if it cannot be read or written, the stage simply
+ * does the work again.
+ */
+@Component
+public class StageDeduplicator {
+
+    private static final int RECORD_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private final StageCompletionStore stageCompletionStore;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public StageDeduplicator(StageCompletionStore stageCompletionStore, StageOutputPublisher stageOutputPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${pipeline.dedupe.enabled:true}") boolean enabled) {
+        this.stageCompletionStore = stageCompletionStore;
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param message a message whose document file a stage reads
+     * @return the hash of the file, or null if it cannot be read or deduplication is off;
+     * the hash taken at ingest is used when the message carries one
+     */
+    public String fileHash(DocumentProcessingMessage message) {
+        if (!enabled || message.getFilePath() == null) {
+            return null;
+        }
+        Object ingestHash = message.getMetadata() != null ? message.getMetadata().get("fileHash") : null;
+        if (ingestHash instanceof String hash) {
+            return hash;
+        }
+        try {
+            return ContentHasher.sha256(Paths.get(message.getFilePath()));
+        } catch (IOException e) {
+            // The stage itself will report the unreadable file
+            return null;
+        }
+    }
+
+    /**
+     * @param message a message whose text a stage reads
+     * @return the hash of the text, or null if the message carries none or deduplication is off
+     */
+    public String contentHash(DocumentProcessingMessage message) {
+        if (!enabled) {
+            return null;
+        }
+        if (message.getContentHash() != null) {
+            return message.getContentHash();
+        }
+        return message.getContent() != null ? ContentHasher.sha256(message.getContent()) : null;
+    }
+
+    /**
+     * Re-sends the recorded output if this stage already completed the same input.
+     *
+     * @param stage      the stage name
+     * @param documentId the document id
+     * @param inputHash  the hash of the stage input, or null to skip the check
+     * @return true if the output was re-sent and the stage has nothing left to do
+     * @throws Exception if the recorded output could not be delivered
+     */
+    public boolean resendIfCompleted(String stage, String documentId, String inputHash) throws Exception {
+        if (inputHash == null) {
+            return false;
+        }
+        byte[] record;
+        try {
+            record = stageCompletionStore.get(key(stage, documentId, inputHash));
+        } catch (IOException e) {
+            System.err.println("Stage completion lookup failed for document " + documentId + ": " + e.getMessage());
+            return false;
+        }
+        if (record == null) {
+            counter("pipeline.dedupe.misses", stage).increment();
+            return false;
+        }
+
+        String outputTopic;
+        DocumentProcessingMessage output;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            outputTopic = in.readUTF();
+            output = DocumentProcessingMessageCodec.decode(in.readAllBytes());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unreadable stage completion for document " + documentId + ": " + e.getMessage());
+            return false;
+        }
+
+        stageOutputPublisher.sendAndAwait(outputTopic, documentId, output);
+        counter("pipeline.dedupe.hits", stage).increment();
+        System.out.println("Document " + documentId + " already completed " + stage +
+                "; re-sent its output to " + outputTopic);
+        return true;
+    }
+
+    /**
+     * Records a stage's delivered output. Call only once the output is acknowledged.
+     *
+     * @param stage       the stage name
+     * @param inputHash   the hash of the stage input, or null to record nothing
+     * @param outputTopic the topic the output was sent to
+     * @param output      the output message
+     */
+    public void recordCompleted(String stage, String inputHash, String outputTopic, DocumentProcessingMessage output) {
+        if (inputHash == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(outputTopic);
+                out.write(DocumentProcessingMessageCodec.encode(output, RECORD_COMPRESSION_THRESHOLD_BYTES));
+            }
+            stageCompletionStore.put(key(stage, output.getDocumentId(), inputHash), bytes.toByteArray());
+        } catch (IOException e) {
+            System.err.println("Failed to record stage completion for document " + output.getDocumentId() + ": " +
+                    e.getMessage());
+        }
+    }
+
+    private Counter counter(String name, String stage) {
+        return Counter.builder(name).tag("stage", stage).register(meterRegistry);
+    }
+
+    private static String key(String stage, String documentId, String inputHash) {
+        return stage + ":" + documentId + ":" + inputHash;
+    }
+}
@@ -0,0 +1,84 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Computes content hashes of document files.
+ * Files are streamed through a direct buffer so hashing never loads the whole
+ * document onto the heap. Buffers are borrowed from a small shared pool rather than
+ * held per thread, since callers may run on short-lived virtual threads.
+ */
+public final class ContentHasher {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final BlockingQueue<ByteBuffer> BUFFERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private ContentHasher() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of a file.
+     *
+     * @param filePath the file to hash
+     * @return the digest as a lowercase hex string
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256(Path filePath) throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            // Dropped when the pool is full, which only happens after a burst of concurrent hashing
+            BUFFERS.offer(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 digest of a string's UTF-8 encoding.
+     *
+     * @param content the content to hash
+     * @return the digest as a lowercase hex string
+     */
+    public static String sha256(String content) {
+        return sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the SHA-256 digest of a byte array.
+     *
+     * @param content the bytes to hash
+     * @return the digest as a lowercase hex string
+     */
+    public static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newSha256().digest(content));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
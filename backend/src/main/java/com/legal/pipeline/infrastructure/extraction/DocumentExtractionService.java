@@ -0,0 +1,130 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import com.legal.pipeline.domain.strategy.ExtractionRoute;
+import com.legal.pipeline.domain.strategy.ExtractionStrategyFactory;
+import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the extraction stage for a single document.
+ * Looks the document up in the content-addressed cache first, and on a miss routes it
+ * by its sniffed format and admits it through the memory governor before running the
+ * extraction strategy on the deadline-bounded extraction executor. Callers that ration
+ * extraction workers pass a gate, which wraps only that last step.
+ */
+@Component
+public class DocumentExtractionService {
+
+    private final ExtractionStrategyFactory extractionStrategyFactory;
+    private final ExtractionCache extractionCache;
+    private final ExtractionMemoryGovernor memoryGovernor;
+    private final ExtractionExecutor extractionExecutor;
+    private final Counter failedParses;
+
+    public DocumentExtractionService(ExtractionStrategyFactory extractionStrategyFactory,
+            ExtractionCache extractionCache,
+            ExtractionMemoryGovernor memoryGovernor,
+            ExtractionExecutor extractionExecutor,
+            MeterRegistry meterRegistry) {
+        this.extractionStrategyFactory = extractionStrategyFactory;
+        this.extractionCache = extractionCache;
+        this.memoryGovernor = memoryGovernor;
+        this.extractionExecutor = extractionExecutor;
+        this.failedParses = Counter.builder("extraction.parse.failed")
+                .description("Parse attempts that failed after routing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Extracts the text of a document.
+     *
+     * @param filePath     the path to the document file
+     * @param documentType the declared document type
+     * @return the extracted text
+     * @throws Exception if the document cannot be admitted or extracted
+     */
+    public String extract(String filePath, String documentType) throws Exception {
+        return extract(filePath, documentType, null);
+    }
+
+    /**
+     * Extracts the text of a document whose hash the caller already knows.
+     *
+     * @param filePath     the path to the document file
+     * @param documentType the declared document type
+     * @param fileHash     the SHA-256 of the file, or null to hash it for the cache lookup
+     * @return the extracted text
+     * @throws Exception if the document cannot be admitted or extracted
+     */
+    public String extract(String filePath, String documentType, String fileHash) throws Exception {
+        return extract(filePath, documentType, fileHash, Callable::call);
+    }
+
+    /**
+     * Extracts the text of a document, running the extraction itself through a gate.
+     * Cache hits and the wait for memory admission do not pass through the gate.
+     *
+     * @param filePath     the path to the document file
+     * @param documentType the declared document type
+     * @param fileHash     the SHA-256 of the file, or null to hash it for the cache lookup
+     * @param gate         runs the extraction, for example once a worker permit is held
+     * @return the extracted text
+     * @throws Exception if the document cannot be admitted or extracted
+     */
+    public String extract(String filePath, String documentType, String fileHash, ExtractionGate gate)
+            throws Exception {
+        return extractionCache.getOrExtract(filePath, fileHash, () -> {
+            ExtractionRoute route = extractionStrategyFactory.route(filePath, documentType);
+            try {
+                return extractAdmitted(filePath, route.getDocumentType(), route.getStrategy(), gate);
+            } catch (Exception e) {
+                failedParses.increment();
+                throw e;
+            }
+        });
+    }
+
+    private String extractAdmitted(String filePath, String documentType, IExtractionStrategy strategy,
+            ExtractionGate gate) throws Exception {
+        Path path = Paths.get(filePath);
+        ExtractionMemoryGovernor.Permit permit = memoryGovernor.admit(Files.size(path), documentType);
+        if (permit.isScratchMode()) {
+            System.out.println("Extracting oversized document " + filePath + " in scratch mode");
+        }
+        // The executor releases the permit once extraction really stops, even after a timeout;
+        // until the gate lets the extraction start, releasing it is up to this method
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            return gate.run(() -> {
+                started.set(true);
+                return extractionExecutor.extract(filePath, strategy, permit.isScratchMode(), permit);
+            });
+        } finally {
+            if (!started.get()) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * Runs an extraction once the caller's own limits allow it.
+     */
+    @FunctionalInterface
+    public interface ExtractionGate {
+
+        /**
+         * @param extraction the extraction to run
+         * @return the extracted text
+         * @throws Exception if the extraction fails, or the gate gives up before running it
+         */
+        String run(Callable<String> extraction) throws Exception;
+    }
+}
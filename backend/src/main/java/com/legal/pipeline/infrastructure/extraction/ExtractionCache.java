@@ -0,0 +1,312 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed cache for extracted document text.
+ * Entries are keyed by the SHA-256 of the document bytes, so a re-uploaded document
+ * skips extraction regardless of its file name or path. Two tiers are kept: an
+ * in-process LRU bounded by an approximate byte size, and a gzip-compressed on-disk
+ * store bounded by total file size and evicted least-recently-used first.
+ */
+@Component
+public class ExtractionCache {
+
+    private static final String ENTRY_SUFFIX = ".txt.gz";
+    private static final double DISK_EVICTION_TARGET = 0.9;
+
+    private final boolean enabled;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final Path cacheDirectory;
+
+    private final LinkedHashMap<String, String> memoryEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    // A lock rather than a monitor: eviction does file I/O and must not pin a virtual thread
+    private final ReentrantLock diskEvictionLock = new ReentrantLock();
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter memoryEvictions;
+    private final Counter diskEvictions;
+
+    public ExtractionCache(MeterRegistry meterRegistry,
+            @Value("${extraction.cache.enabled:true}") boolean enabled,
+            @Value("${extraction.cache.memory-max-bytes:67108864}") long memoryMaxBytes,
+            @Value("${extraction.cache.disk-max-bytes:1073741824}") long diskMaxBytes,
+            @Value("${extraction.cache.dir:${java.io.tmpdir}/idp-extraction-cache}") String cacheDirectory) {
+        this.enabled = enabled;
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        this.cacheDirectory = Paths.get(cacheDirectory);
+
+        this.memoryHits = Counter.builder("extraction.cache.hits").tag("tier", "memory").register(meterRegistry);
+        this.diskHits = Counter.builder("extraction.cache.hits").tag("tier", "disk").register(meterRegistry);
+        this.misses = Counter.builder("extraction.cache.misses").register(meterRegistry);
+        this.memoryEvictions = Counter.builder("extraction.cache.evictions").tag("tier", "memory").register(meterRegistry);
+        this.diskEvictions = Counter.builder("extraction.cache.evictions").tag("tier", "disk").register(meterRegistry);
+        Gauge.builder("extraction.cache.size.bytes", this, cache -> cache.currentMemoryBytes())
+                .tag("tier", "memory").register(meterRegistry);
+        Gauge.builder("extraction.cache.size.bytes", diskBytes, AtomicLong::get)
+                .tag("tier", "disk").register(meterRegistry);
+
+        if (enabled) {
+            initializeDiskTier();
+        }
+    }
+
+    /**
+     * Returns the extracted text for a document, running the strategy only if no
+     * document with identical bytes has been extracted before.
+     *
+     * @param documentPath the path to the document file
+     * @param strategy     the strategy to use on a cache miss
+     * @return the extracted text
+     * @throws Exception if hashing or extraction fails
+     */
+    public String getOrExtract(String documentPath, IExtractionStrategy strategy) throws Exception {
+        return getOrExtract(documentPath, () -> strategy.extractText(documentPath));
+    }
+
+    /**
+     * Returns the extracted text for a document, running the given extraction only if
+     * no document with identical bytes has been extracted before.
+     *
+     * @param documentPath the path to the document file
+     * @param extraction   produces the text on a cache miss
+     * @return the extracted text
+     * @throws Exception if hashing or extraction fails
+     */
+    public String getOrExtract(String documentPath, Callable<String> extraction) throws Exception {
+        return getOrExtract(documentPath, null, extraction);
+    }
+
+    /**
+     * Returns the extracted text for a document whose hash the caller already knows,
+     * so the file is not read a second time just to look it up.
+     *
+     * @param documentPath the path to the document file
+     * @param documentHash the SHA-256 of the document bytes, or null to hash the file
+     * @param extraction   produces the text on a cache miss
+     * @return the extracted text
+     * @throws Exception if hashing or extraction fails
+     */
+    public String getOrExtract(String documentPath, String documentHash, Callable<String> extraction)
+            throws Exception {
+        if (!enabled) {
+            return extraction.call();
+        }
+
+        String key = documentHash != null ? documentHash : ContentHasher.sha256(Paths.get(documentPath));
+        String cached = getFromMemory(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+        cached = getFromDisk(key);
+        if (cached != null) {
+            diskHits.increment();
+            putInMemory(key, cached);
+            return cached;
+        }
+
+        misses.increment();
+        String content = extraction.call();
+        putInMemory(key, content);
+        putOnDisk(key, content);
+        return content;
+    }
+
+    private synchronized String getFromMemory(String key) {
+        return memoryEntries.get(key);
+    }
+
+    private synchronized void putInMemory(String key, String content) {
+        long entryBytes = estimateBytes(content);
+        if (entryBytes > memoryMaxBytes) {
+            return;
+        }
+        String previous = memoryEntries.put(key, content);
+        if (previous != null) {
+            memoryBytes -= estimateBytes(previous);
+        }
+        memoryBytes += entryBytes;
+
+        Iterator<Map.Entry<String, String>> eldest = memoryEntries.entrySet().iterator();
+        while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+            memoryBytes -= estimateBytes(eldest.next().getValue());
+            eldest.remove();
+            memoryEvictions.increment();
+        }
+    }
+
+    private synchronized long currentMemoryBytes() {
+        return memoryBytes;
+    }
+
+    private String getFromDisk(String key) {
+        Path entry = entryPath(key);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry));
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+            // Touch the entry so disk eviction approximates least-recently-used
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return content.toString();
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable extraction cache entry " + key + ": " + e.getMessage());
+            deleteEntry(entry);
+            return null;
+        }
+    }
+
+    private void putOnDisk(String key, String content) {
+        Path entry = entryPath(key);
+        if (Files.exists(entry)) {
+            return;
+        }
+        try {
+            Files.createDirectories(entry.getParent());
+            Path tempFile = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile));
+                 Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+            long entryBytes = Files.size(tempFile);
+            try {
+                Files.move(tempFile, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (diskBytes.addAndGet(entryBytes) > diskMaxBytes) {
+                evictDiskEntries();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write extraction cache entry " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void evictDiskEntries() {
+        diskEvictionLock.lock();
+        try {
+            if (diskBytes.get() <= diskMaxBytes) {
+                return;
+            }
+            // Evict below the bound so that a steady stream of new entries does not rescan on every write
+            long target = (long) (diskMaxBytes * DISK_EVICTION_TARGET);
+            for (Path entry : listEntriesOldestFirst()) {
+                if (diskBytes.get() <= target) {
+                    break;
+                }
+                if (deleteEntry(entry)) {
+                    diskEvictions.increment();
+                }
+            }
+        } finally {
+            diskEvictionLock.unlock();
+        }
+    }
+
+    private List<Path> listEntriesOldestFirst() {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files.filter(path -> path.toString().endsWith(ENTRY_SUFFIX))
+                    .sorted(Comparator.comparingLong(this::lastModifiedMillis))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Failed to scan extraction cache directory: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private boolean deleteEntry(Path entry) {
+        try {
+            long size = Files.size(entry);
+            if (Files.deleteIfExists(entry)) {
+                diskBytes.addAndGet(-size);
+                return true;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to delete extraction cache entry " + entry + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void initializeDiskTier() {
+        try {
+            Files.createDirectories(cacheDirectory);
+            try (Stream<Path> files = Files.walk(cacheDirectory)) {
+                diskBytes.set(files.filter(path -> path.toString().endsWith(ENTRY_SUFFIX))
+                        .mapToLong(this::sizeOrZero)
+                        .sum());
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to initialize extraction cache directory " + cacheDirectory + ": " + e.getMessage());
+        }
+    }
+
+    private Path entryPath(String key) {
+        // Fan out by hash prefix to keep directory sizes manageable
+        return cacheDirectory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private long lastModifiedMillis(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private long sizeOrZero(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long estimateBytes(String content) {
+        return 2L * content.length();
+    }
+}
@@ -0,0 +1,238 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs extraction work off the Kafka listener threads with a per-document deadline.
+ * In thread isolation mode, extraction runs on a dedicated bounded pool and is
+ * cancelled when it overruns; parsers that ignore interruption keep their pool slot
+ * until they finish, so the pool size also caps how many runaway documents can pile up.
+ * In process isolation mode, each document is extracted in a child JVM that is killed
+ * at the deadline, which fully contains the CPU and memory cost of a runaway document.
+ * When the pipeline runs on virtual threads, far more documents can be in flight than
+ * the pool can hold, so callers wait for a submission slot instead of being rejected.
+ * In process mode callers always wait for a slot, so the pool size caps the child JVMs,
+ * each with its own heap, however many listener threads are running.
+ */
+@Component
+public class ExtractionExecutor {
+
+    private final boolean processIsolation;
+    private final long deadlineMs;
+    private final String childMaxHeap;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore submissionSlots;
+
+    private final Counter timeouts;
+    private final Counter rejections;
+
+    public ExtractionExecutor(MeterRegistry meterRegistry,
+            @Value("${extraction.isolation:thread}") String isolation,
+            @Value("${extraction.deadline-ms:120000}") long deadlineMs,
+            @Value("${extraction.executor.pool-size:4}") int poolSize,
+            @Value("${extraction.executor.queue-capacity:16}") int queueCapacity,
+            @Value("${extraction.child-jvm.max-heap:512m}") String childMaxHeap,
+            @Value("${pipeline.stage.tokenizer.max-poll-interval-ms:600000}") long maxPollIntervalMs,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.processIsolation = "process".equalsIgnoreCase(isolation);
+        this.deadlineMs = deadlineMs;
+        this.childMaxHeap = childMaxHeap;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "extraction-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Child JVMs are not pooled, so in process mode the pool size caps how many run at once
+        int slots = processIsolation ? poolSize : poolSize + queueCapacity;
+        this.submissionSlots = virtualThreads || processIsolation ? new Semaphore(slots, true) : null;
+
+        this.timeouts = Counter.builder("extraction.executor.timeouts").register(meterRegistry);
+        this.rejections = Counter.builder("extraction.executor.rejections").register(meterRegistry);
+        Gauge.builder("extraction.executor.active", pool, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("extraction.executor.queued", pool, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+
+        if (deadlineMs >= maxPollIntervalMs) {
+            System.err.println("WARNING: extraction.deadline-ms (" + deadlineMs + ") is not below " +
+                    "the tokenizer max poll interval (" + maxPollIntervalMs + "); a slow batch can trigger a consumer rebalance");
+        }
+    }
+
+    /**
+     * Extracts a document within the configured deadline.
+     *
+     * @param filePath    the path to the document file
+     * @param strategy    the strategy to extract with
+     * @param scratchMode true to use the strategy's chunked, low-memory path
+     * @param resources   released when the extraction actually stops running, which for a
+     *                    cancelled in-thread extraction may be after this method returns
+     * @return the extracted text
+     * @throws ExtractionTimeoutException if the deadline passes first
+     * @throws Exception                  if extraction fails or the pool is saturated
+     */
+    public String extract(String filePath, IExtractionStrategy strategy, boolean scratchMode,
+            AutoCloseable resources) throws Exception {
+        try {
+            acquireSlot();
+        } catch (InterruptedException e) {
+            resources.close();
+            throw e;
+        }
+        if (processIsolation) {
+            try (resources) {
+                return extractInChildProcess(filePath, strategy);
+            } finally {
+                releaseSlot();
+            }
+        }
+
+        // Whoever claims first owns releasing the resources: the worker when it starts,
+        // or the caller when the deadline passes while the task is still queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<String> future;
+        try {
+            future = pool.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try (resources) {
+                    return extractInThread(filePath, strategy, scratchMode);
+                } finally {
+                    releaseSlot();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseSlot();
+            resources.close();
+            rejections.increment();
+            throw new Exception("Extraction pool is saturated; document rejected", e);
+        }
+
+        try {
+            return future.get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            if (claimed.compareAndSet(false, true)) {
+                // Never started: drop it from the queue so its slot is really free
+                pool.remove((Runnable) future);
+                releaseSlot();
+                resources.close();
+            }
+            timeouts.increment();
+            throw new ExtractionTimeoutException("Extraction timed out after " + deadlineMs + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        if (submissionSlots != null) {
+            submissionSlots.acquire();
+        }
+    }
+
+    private void releaseSlot() {
+        if (submissionSlots != null) {
+            submissionSlots.release();
+        }
+    }
+
+    private String extractInThread(String filePath, IExtractionStrategy strategy, boolean scratchMode)
+            throws Exception {
+        if (scratchMode) {
+            // Bounds the parser's memory, one page range at a time; the text is still collected in
+            // full, since validation, the extraction cache and the message all take it as one string
+            StringBuilder text = new StringBuilder();
+            strategy.extractText(filePath, text::append);
+            return text.toString();
+        }
+        return strategy.extractText(filePath);
+    }
+
+    private String extractInChildProcess(String filePath, IExtractionStrategy strategy) throws Exception {
+        Path output = Files.createTempFile("extraction-", ".txt");
+        Path errors = Files.createTempFile("extraction-", ".err");
+        try {
+            Process process = new ProcessBuilder(childCommand(strategy, filePath, output))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(errors.toFile())
+                    .start();
+            try {
+                if (!process.waitFor(deadlineMs, TimeUnit.MILLISECONDS)) {
+                    timeouts.increment();
+                    throw new ExtractionTimeoutException("Extraction timed out after " + deadlineMs + " ms");
+                }
+                if (process.exitValue() != 0) {
+                    throw new Exception("Isolated extraction failed: " + Files.readString(errors).trim());
+                }
+                return Files.readString(output, StandardCharsets.UTF_8);
+            } finally {
+                // Also when the wait is interrupted: the child must not outlive its caller
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(errors);
+        }
+    }
+
+    private List<String> childCommand(IExtractionStrategy strategy, String filePath, Path output) {
+        String javaBinary = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+
+        List<String> command = new ArrayList<>();
+        command.add(javaBinary);
+        command.add("-Xmx" + childMaxHeap);
+        if (classPath.endsWith(".jar") && !classPath.contains(File.pathSeparator)) {
+            // Running from the Spring Boot fat jar: let its launcher resolve the nested classes
+            command.add("-Dloader.main=" + IsolatedExtractionMain.class.getName());
+            command.add("-cp");
+            command.add(classPath);
+            command.add("org.springframework.boot.loader.launch.PropertiesLauncher");
+        } else {
+            command.add("-cp");
+            command.add(classPath);
+            command.add(IsolatedExtractionMain.class.getName());
+        }
+        command.add(strategy.getClass().getName());
+        command.add(filePath);
+        command.add(output.toString());
+        return command;
+    }
+}
@@ -0,0 +1,219 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for the extraction stage.
+ * Each document's working set is estimated from its file size and type, and work is
+ * admitted only while the total estimated in-flight bytes stay under a budget derived
+ * from the maximum heap size. Documents whose estimate alone exceeds the budget are
+ * admitted in scratch mode: they reserve a fixed slice of the budget and must be
+ * extracted with the sequential, scratch-file-backed streaming path. That slice covers the
+ * parser's page-level working set only; the extracted text is still held in full.
+ * Waiting documents queue in arrival order. A later document that fits may go ahead of
+ * the one at the head of the queue, but only until that one has waited for the bypass
+ * bound; after that nothing else is admitted until it is, so a large document cannot be
+ * starved by a stream of small ones.
+ */
+@Component
+public class ExtractionMemoryGovernor {
+
+    private final long budgetBytes;
+    private final long scratchReservationBytes;
+    private final long admissionTimeoutMs;
+    private final long maxBypassNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition memoryReleased = lock.newCondition();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private long inFlightBytes;
+
+    private final Counter scratchAdmissions;
+    private final Counter admissionTimeouts;
+
+    public ExtractionMemoryGovernor(MeterRegistry meterRegistry,
+            @Value("${extraction.governor.heap-fraction:0.5}") double heapFraction,
+            @Value("${extraction.governor.scratch-reservation-bytes:67108864}") long scratchReservationBytes,
+            @Value("${extraction.governor.admission-timeout-ms:300000}") long admissionTimeoutMs,
+            @Value("${extraction.governor.max-bypass-ms:10000}") long maxBypassMs) {
+        this.budgetBytes = (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        this.scratchReservationBytes = Math.min(scratchReservationBytes, budgetBytes);
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.maxBypassNanos = TimeUnit.MILLISECONDS.toNanos(maxBypassMs);
+
+        this.scratchAdmissions = Counter.builder("extraction.governor.scratch.admissions").register(meterRegistry);
+        this.admissionTimeouts = Counter.builder("extraction.governor.admission.timeouts").register(meterRegistry);
+        Gauge.builder("extraction.governor.inflight.bytes", this, ExtractionMemoryGovernor::getInFlightBytes)
+                .register(meterRegistry);
+        Gauge.builder("extraction.governor.waiting.documents", this, ExtractionMemoryGovernor::getWaitingDocuments)
+                .register(meterRegistry);
+        Gauge.builder("extraction.governor.budget.bytes", this, governor -> governor.budgetBytes)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Estimates the heap working set needed to extract a document.
+     * The multipliers reflect how much larger the parsed object graph and the extracted
+     * text typically are than the file itself for each format.
+     *
+     * @param fileSize     the document size in bytes
+     * @param documentType the document type (e.g., "pdf", "docx")
+     * @return the estimated working set in bytes
+     */
+    public long estimateWorkingSet(long fileSize, String documentType) {
+        int multiplier = switch (documentType == null ? "" : documentType.toLowerCase()) {
+            case "txt" -> 2;
+            case "docx" -> 4;
+            case "doc" -> 6;
+            default -> 8;
+        };
+        return fileSize * multiplier;
+    }
+
+    /**
+     * Blocks until the document's estimated working set fits in the budget and no document
+     * that has waited past the bypass bound is ahead of it.
+     *
+     * @param fileSize     the document size in bytes
+     * @param documentType the document type
+     * @return a permit that must be closed when extraction finishes
+     * @throws TimeoutException     if the document could not be admitted within the admission timeout
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Permit admit(long fileSize, String documentType) throws TimeoutException, InterruptedException {
+        long estimate = estimateWorkingSet(fileSize, documentType);
+        boolean scratchMode = estimate > budgetBytes;
+        long reservation = scratchMode ? scratchReservationBytes : estimate;
+
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(admissionTimeoutMs);
+        lock.lockInterruptibly();
+        try {
+            if (!mayAdmit(null, reservation)) {
+                Waiter waiter = new Waiter(System.nanoTime());
+                waiters.addLast(waiter);
+                try {
+                    while (!mayAdmit(waiter, reservation)) {
+                        if (remainingNanos <= 0) {
+                            admissionTimeouts.increment();
+                            throw new TimeoutException("Timed out waiting for extraction memory (" +
+                                    reservation + " bytes requested, " + inFlightBytes + " of " +
+                                    budgetBytes + " bytes in flight)");
+                        }
+                        remainingNanos = memoryReleased.awaitNanos(remainingNanos);
+                    }
+                } finally {
+                    waiters.remove(waiter);
+                    // Whoever is now at the head may be allowed in, and may let others in behind it
+                    memoryReleased.signalAll();
+                }
+            }
+            inFlightBytes += reservation;
+        } finally {
+            lock.unlock();
+        }
+
+        if (scratchMode) {
+            scratchAdmissions.increment();
+        }
+        return new Permit(reservation, scratchMode);
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getInFlightBytes() {
+        lock.lock();
+        try {
+            return inFlightBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingDocuments() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param waiter the queued document asking, or null for one that has not queued yet
+     */
+    private boolean mayAdmit(Waiter waiter, long reservation) {
+        if (inFlightBytes + reservation > budgetBytes) {
+            return false;
+        }
+        Waiter head = waiters.peekFirst();
+        return head == null || head == waiter || System.nanoTime() - head.since < maxBypassNanos;
+    }
+
+    private void release(long reservation) {
+        lock.lock();
+        try {
+            inFlightBytes -= reservation;
+            memoryReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A queued document; compared by identity, since two may start waiting in the same nanosecond.
+     */
+    private static final class Waiter {
+        private final long since;
+
+        private Waiter(long since) {
+            this.since = since;
+        }
+    }
+
+    /**
+     * A reservation of extraction memory, released when closed.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long reservedBytes;
+        private final boolean scratchMode;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long reservedBytes, boolean scratchMode) {
+            this.reservedBytes = reservedBytes;
+            this.scratchMode = scratchMode;
+        }
+
+        public long getReservedBytes() {
+            return reservedBytes;
+        }
+
+        /**
+         * @return true if the document exceeded the budget and must be extracted in scratch mode
+         */
+        public boolean isScratchMode() {
+            return scratchMode;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(reservedBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+/**
+ * Thrown when a document's extraction runs past its deadline and is cancelled.
+ */
+public class ExtractionTimeoutException extends Exception {
+
+    public ExtractionTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Entry point for extraction in a child JVM.
+ * Usage: {@code IsolatedExtractionMain <strategy class> <document path> <output path>}.
+ * The strategy is instantiated through its no-argument constructor and the extracted
+ * text is written to the output path as UTF-8. Exits with status 1 on failure, with
+ * the reason on standard error.
+ */
+public final class IsolatedExtractionMain {
+
+    private IsolatedExtractionMain() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: IsolatedExtractionMain <strategy class> <document path> <output path>");
+            System.exit(2);
+        }
+        try {
+            IExtractionStrategy strategy = (IExtractionStrategy) Class.forName(args[0])
+                    .getDeclaredConstructor().newInstance();
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                strategy.extractText(args[1], writer::write);
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
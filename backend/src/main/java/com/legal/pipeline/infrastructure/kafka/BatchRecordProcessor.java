@@ -0,0 +1,176 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes one polled batch of a pipeline stage in parallel.
+ * Records are grouped by key and the groups run concurrently on the stage's worker pool,
+ * or on one virtual thread per group when virtual threads are enabled;
+ * records sharing a key (the same document) still run one after another in offset order.
+ * The listener returns only once every record has been handled, so the container commits
+ * the whole batch at once. If a record fails, the batch is reported as failed at the
+ * earliest failing position, which commits everything polled before it and redelivers
+ * the rest, so no partition's offset ever moves past an unprocessed record. Records after
+ * a failure are not started once it is known, since they are redelivered anyway; a
+ * broker outage then costs a batch one failed delivery per worker, not one per record.
+ */
+public class BatchRecordProcessor implements AutoCloseable {
+
+    /**
+     * Handles a single record value.
+     */
+    @FunctionalInterface
+    public interface RecordHandler<V> {
+        void handle(V value) throws Exception;
+    }
+
+    private final String stage;
+    private final ExecutorService pool;
+
+    private final DistributionSummary batchSizes;
+    private final Timer batchDurations;
+    private final Counter failures;
+
+    /**
+     * @param stage          the stage name, used for thread names and metric tags
+     * @param parallelism    worker threads for this stage; 0 uses one per available processor
+     * @param virtualThreads true to run every record on its own virtual thread instead of
+     *                       the worker pool, in which case parallelism is ignored and the
+     *                       batch size alone bounds the records in flight
+     * @param meterRegistry  the registry for batch metrics
+     */
+    public BatchRecordProcessor(String stage, int parallelism, boolean virtualThreads, MeterRegistry meterRegistry) {
+        this.stage = stage;
+        if (virtualThreads) {
+            this.pool = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(stage + "-batch-vthread-", 1).factory());
+        } else {
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadCount = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, stage + "-batch-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.batchSizes = DistributionSummary.builder("pipeline.batch.size").tag("stage", stage)
+                .register(meterRegistry);
+        this.batchDurations = Timer.builder("pipeline.batch.duration").tag("stage", stage).register(meterRegistry);
+        this.failures = Counter.builder("pipeline.batch.failures").tag("stage", stage).register(meterRegistry);
+    }
+
+    /**
+     * Handles every record of a polled batch.
+     *
+     * @param records the batch, in the order it was polled
+     * @param handler the per-record work of the stage
+     * @throws BatchListenerFailedException at the earliest record that failed
+     */
+    public <V> void process(List<ConsumerRecord<String, V>> records, RecordHandler<V> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+        batchSizes.record(records.size());
+        long start = System.nanoTime();
+
+        EarliestFailure failure = new EarliestFailure();
+        if (records.size() == 1) {
+            handleGroup(records, List.of(0), handler, failure);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (List<Integer> group : groupByKey(records).values()) {
+                tasks.add(() -> {
+                    handleGroup(records, group, handler, failure);
+                    return null;
+                });
+            }
+            try {
+                pool.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchListenerFailedException(stage + " batch interrupted", e, 0);
+            }
+        }
+        batchDurations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (failure.index != Integer.MAX_VALUE) {
+            failures.increment();
+            throw new BatchListenerFailedException(stage + " batch failed at record " + failure.index,
+                    failure.cause, failure.index);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static <V> Map<Object, List<Integer>> groupByKey(List<ConsumerRecord<String, V>> records) {
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            // Unkeyed records carry no ordering relation to each other, so each runs on its own
+            Object key = records.get(i).key() != null ? records.get(i).key() : Integer.valueOf(i);
+            groups.computeIfAbsent(key, ignored -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    private <V> void handleGroup(List<ConsumerRecord<String, V>> records, List<Integer> group,
+            RecordHandler<V> handler, EarliestFailure failure) {
+        for (int index : group) {
+            if (failure.isBefore(index)) {
+                // Redelivered after the failure whatever happens here; the group's later records too
+                return;
+            }
+            ConsumerRecord<String, V> record = records.get(index);
+            if (record.value() == null) {
+                // Undeserializable payload: retrying would fail the same way
+                System.err.println("Skipping unreadable record in " + stage + " stage at " +
+                        record.topic() + "-" + record.partition() + "@" + record.offset());
+                continue;
+            }
+            try {
+                handler.handle(record.value());
+            } catch (Exception e) {
+                failure.record(index, e);
+                // Later records of the same key must not overtake the failed one
+                return;
+            }
+        }
+    }
+
+    /**
+     * The lowest batch position that failed; invokeAll publishes it back to the listener thread.
+     */
+    private static final class EarliestFailure {
+
+        private int index = Integer.MAX_VALUE;
+        private Throwable cause;
+
+        synchronized boolean isBefore(int index) {
+            return this.index < index;
+        }
+
+        synchronized void record(int index, Throwable cause) {
+            if (index < this.index) {
+                this.index = index;
+                this.cause = cause;
+            }
+        }
+    }
+}
@@ -1,28 +1,70 @@
 package com.legal.pipeline.infrastructure.kafka;
 
 import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.categorization.CategoryScores;
+import com.legal.pipeline.domain.categorization.DocumentCategorizer;
+import com.legal.pipeline.infrastructure.concurrency.CpuWorkLimiter;
+import com.legal.pipeline.infrastructure.dedupe.NearDuplicateDetector;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Kafka consumer for the categorizer stage of the document processing pipeline.
- * Categorizes documents based on content analysis.
+ * Categorizes documents based on content analysis. A document that nearly duplicates
+ * one seen before is tagged as such and, when result reuse is on, takes that
+ * document's category instead of being scored again.
  */
 @Service
 public class CategorizerConsumer {
 
-    private final KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final StageRetryRouter stageRetryRouter;
+    private final ClaimCheckService claimCheckService;
+    private final DocumentCategorizer documentCategorizer;
+    private final CpuWorkLimiter cpuWorkLimiter;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private final BatchRecordProcessor batchProcessor;
+
+    public CategorizerConsumer(StageOutputPublisher stageOutputPublisher, StageRetryRouter stageRetryRouter,
+            ClaimCheckService claimCheckService, DocumentCategorizer documentCategorizer,
+            CpuWorkLimiter cpuWorkLimiter, NearDuplicateDetector nearDuplicateDetector, MeterRegistry meterRegistry,
+            @Value("${pipeline.stage.categorizer.parallelism:0}") int parallelism,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.stageRetryRouter = stageRetryRouter;
+        this.claimCheckService = claimCheckService;
+        this.documentCategorizer = documentCategorizer;
+        this.cpuWorkLimiter = cpuWorkLimiter;
+        this.nearDuplicateDetector = nearDuplicateDetector;
+        this.batchProcessor = new BatchRecordProcessor("categorizer", parallelism, virtualThreads, meterRegistry);
+    }
+
+    @KafkaListener(id = "categorizer", idIsGroup = false,
+            topics = "document-categorizer", groupId = "legal-document-processor-categorizer",
+            containerFactory = KafkaListenerConfig.BATCH_FACTORY,
+            concurrency = "${pipeline.stage.categorizer.concurrency:3}",
+            properties = {
+                    "max.poll.records:${pipeline.stage.categorizer.batch-size:200}",
+                    "max.poll.interval.ms:${pipeline.stage.categorizer.max-poll-interval-ms:300000}" })
+    public void consumeCategorizer(List<ConsumerRecord<String, DocumentProcessingMessage>> records) {
+        batchProcessor.process(records, this::categorize);
+    }
 
-    public CategorizerConsumer(KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    @PreDestroy
+    public void shutdown() {
+        batchProcessor.close();
     }
 
-    @KafkaListener(topics = "document-categorizer", groupId = "legal-document-processor")
-    public void consumeCategorizer(DocumentProcessingMessage message) {
+    void categorize(DocumentProcessingMessage message) throws Exception {
         String documentId = message.getDocumentId();
         if (documentId == null) {
             System.err.println("Received message with null document ID in CategorizerConsumer");
@@ -31,56 +73,69 @@ public class CategorizerConsumer {
 
         System.out.println("Categorizing document: " + documentId);
 
+        String category;
         try {
-            // Simple categorization based on content keywords
-            String category = categorizeDocument(message.getContent());
-            Map<String, Object> metadata = message.getMetadata();
-            if (metadata == null) {
-                metadata = new HashMap<>();
-            }
-            metadata.put("category", category);
-            message.setMetadata(metadata);
-            message.setCurrentStage("CATEGORIZER");
-
-            // Send to output stage
-            kafkaTemplate.send("document-output", documentId, message);
-            System.out.println("Document " + documentId + " categorized as '" + category +
-                    "' and sent to output stage");
-
+            category = runStage(message);
         } catch (Exception e) {
-            message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
-            message.setErrorMessage("Categorization failed: " + e.getMessage());
-            kafkaTemplate.send("document-error", documentId, message);
-            System.err.println("Categorization failed for document " + documentId + ": " + e.getMessage());
-        }
-    }
-
-    private String categorizeDocument(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return "UNKNOWN";
+            failStage(message, e);
+            return;
         }
 
-        String lowerContent = content.toLowerCase();
-
-        // Contract-related keywords
-        if (lowerContent.contains("contract") || lowerContent.contains("agreement") ||
-                lowerContent.contains("terms") || lowerContent.contains("conditions")) {
-            return "CONTRACT";
-        }
+        // Send to output stage
+        stageOutputPublisher.sendAndAwait("document-output", documentId, message);
+        System.out.println("Document " + documentId + " categorized as '" + category +
+                "' and sent to output stage");
+    }
 
-        // Legal document keywords
-        if (lowerContent.contains("court") || lowerContent.contains("judgment") ||
-                lowerContent.contains("lawsuit") || lowerContent.contains("litigation")) {
-            return "LEGAL_DOCUMENT";
+    /**
+     * The categorizer's work on one message, without forwarding it anywhere.
+     * Shared by the Kafka listener and {@link FusedPipeline}.
+     */
+    String runStage(DocumentProcessingMessage message) throws Exception {
+        // The configured categorizer scores every category; the best-scoring label wins
+        String content = claimCheckService.resolveContent(message);
+        String category;
+        Map<String, Object> metadata = message.getMetadata();
+        if (metadata == null) {
+            metadata = new HashMap<>();
         }
-
-        // Corporate keywords
-        if (lowerContent.contains("company") || lowerContent.contains("corporation") ||
-                lowerContent.contains("board") || lowerContent.contains("shareholder")) {
-            return "CORPORATE";
+        if (content == null || content.isBlank()) {
+            category = CategoryScores.UNKNOWN;
+            metadata.put("category", category);
+        } else {
+            // Runs after extraction: entities come from this document's own text, but a
+            // near-duplicate's category applies to it unchanged. Signing the text is CPU work
+            // like scoring, so it takes a slot from the same limiter
+            Map<String, Object> lookupMetadata = metadata;
+            String original = cpuWorkLimiter.call(
+                    () -> nearDuplicateDetector.findNearDuplicate(message.getDocumentId(), content, lookupMetadata));
+            Map<String, Object> results = original != null
+                    ? nearDuplicateDetector.reusableResults("categorizer", original) : null;
+            if (results != null) {
+                metadata.put("categoryReusedFrom", original);
+            } else {
+                CategoryScores scores = cpuWorkLimiter.call(() -> documentCategorizer.score(content));
+                results = new HashMap<>();
+                results.put("category", scores.getBestCategory());
+                results.put("categoryScores", scores.scoresByCategory());
+                results.put("categoryLabels", scores.getLabels());
+                Map<String, Object> hits = scores.hitsByCategory();
+                if (!hits.isEmpty()) {
+                    results.put("categoryHits", hits);
+                }
+            }
+            nearDuplicateDetector.recordResults("categorizer", message.getDocumentId(), results);
+            metadata.putAll(results);
+            category = (String) results.get("category");
         }
+        message.setMetadata(metadata);
+        message.setCurrentStage("CATEGORIZER");
+        return category;
+    }
 
-        // Default category
-        return "GENERAL";
+    void failStage(DocumentProcessingMessage message, Exception e) throws Exception {
+        message.setErrorMessage("Categorization failed: " + e.getMessage());
+        stageRetryRouter.routeFailure("document-categorizer", message, e);
+        System.err.println("Categorization failed for document " + message.getDocumentId() + ": " + e.getMessage());
     }
 }
@@ -0,0 +1,460 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary wire format for pipeline messages.
+ * A message is a two-byte header (magic, version) followed by tagged fields. Each tag
+ * carries the field number and a wire type (varint or length-delimited), so a reader
+ * skips fields it does not know and a writer omits null fields; new fields can be added
+ * under new numbers without breaking readers on either side of a rolling upgrade.
+ * Field numbers must never be reused, and status values are encoded by ordinal, so new
+ * statuses may only be appended. Content above the compression threshold is written
+ * LZ4-compressed under its own field number. Metadata values are written with a one-byte
+ * type tag instead of being inferred from JSON on the way back in.
+ */
+public final class DocumentProcessingMessageCodec {
+
+    static final byte MAGIC = (byte) 0xD7;
+    static final byte VERSION = 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 2;
+
+    private static final int FIELD_DOCUMENT_ID = 1;
+    private static final int FIELD_FILE_PATH = 2;
+    private static final int FIELD_DOCUMENT_TYPE = 3;
+    private static final int FIELD_CONTENT = 4;
+    private static final int FIELD_CONTENT_LZ4 = 5;
+    private static final int FIELD_CONTENT_REF = 6;
+    private static final int FIELD_CONTENT_HASH = 7;
+    private static final int FIELD_METADATA_ENTRY = 8;
+    private static final int FIELD_STATUS = 9;
+    private static final int FIELD_ERROR_MESSAGE = 10;
+    private static final int FIELD_TIMESTAMP_SECONDS = 11;
+    private static final int FIELD_TIMESTAMP_NANOS = 12;
+    private static final int FIELD_CURRENT_STAGE = 13;
+    private static final int FIELD_RETRY_ATTEMPT = 14;
+    private static final int FIELD_FAILED_TOPIC = 15;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_BOOLEAN = 5;
+    private static final byte VALUE_LIST = 6;
+    private static final byte VALUE_MAP = 7;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    // Wire data is untrusted: the safe decompressor never reads or writes outside the given bounds
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+    // An LZ4 block cannot expand by more than this, so a larger declared length is corrupt
+    private static final int MAX_COMPRESSION_RATIO = 255;
+
+    private DocumentProcessingMessageCodec() {
+    }
+
+    /**
+     * @param message                   the message to encode
+     * @param compressionThresholdBytes content of at least this many UTF-8 bytes is compressed
+     * @return the encoded message
+     */
+    public static byte[] encode(DocumentProcessingMessage message, int compressionThresholdBytes) {
+        Writer writer = new Writer(256);
+        writer.buffer[0] = MAGIC;
+        writer.buffer[1] = VERSION;
+        writer.position = 2;
+
+        writer.stringField(FIELD_DOCUMENT_ID, message.getDocumentId());
+        writer.stringField(FIELD_FILE_PATH, message.getFilePath());
+        writer.stringField(FIELD_DOCUMENT_TYPE, message.getDocumentType());
+        if (message.getContent() != null) {
+            byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+            if (content.length >= compressionThresholdBytes) {
+                byte[] compressed = COMPRESSOR.compress(content);
+                writer.tag(FIELD_CONTENT_LZ4, WIRE_BYTES);
+                writer.varint(varintSize(content.length) + compressed.length);
+                writer.varint(content.length);
+                writer.bytes(compressed, compressed.length);
+            } else {
+                writer.tag(FIELD_CONTENT, WIRE_BYTES);
+                writer.varint(content.length);
+                writer.bytes(content, content.length);
+            }
+        }
+        writer.stringField(FIELD_CONTENT_REF, message.getContentRef());
+        writer.stringField(FIELD_CONTENT_HASH, message.getContentHash());
+        if (message.getMetadata() != null) {
+            Writer entry = new Writer(64);
+            for (Map.Entry<String, Object> metadata : message.getMetadata().entrySet()) {
+                entry.position = 0;
+                entry.string(metadata.getKey());
+                entry.value(metadata.getValue());
+                writer.tag(FIELD_METADATA_ENTRY, WIRE_BYTES);
+                writer.varint(entry.position);
+                writer.bytes(entry.buffer, entry.position);
+            }
+        }
+        if (message.getStatus() != null) {
+            writer.tag(FIELD_STATUS, WIRE_VARINT);
+            writer.varint(message.getStatus().ordinal());
+        }
+        writer.stringField(FIELD_ERROR_MESSAGE, message.getErrorMessage());
+        if (message.getTimestamp() != null) {
+            writer.tag(FIELD_TIMESTAMP_SECONDS, WIRE_VARINT);
+            writer.varint(zigzag(message.getTimestamp().toEpochSecond(ZoneOffset.UTC)));
+            writer.tag(FIELD_TIMESTAMP_NANOS, WIRE_VARINT);
+            writer.varint(message.getTimestamp().getNano());
+        }
+        writer.stringField(FIELD_CURRENT_STAGE, message.getCurrentStage());
+        if (message.getRetryAttempt() != 0) {
+            writer.tag(FIELD_RETRY_ATTEMPT, WIRE_VARINT);
+            writer.varint(message.getRetryAttempt());
+        }
+        writer.stringField(FIELD_FAILED_TOPIC, message.getFailedTopic());
+
+        return Arrays.copyOf(writer.buffer, writer.position);
+    }
+
+    /**
+     * @param data an encoded message
+     * @return true if the data starts with this format's header
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data.length >= 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * @param data the encoded message
+     * @return the decoded message
+     * @throws IllegalArgumentException if the data is not a message in a supported version, or is truncated or corrupt
+     */
+    public static DocumentProcessingMessage decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not an encoded pipeline message");
+        }
+        if (data[1] > VERSION) {
+            throw new IllegalArgumentException("Unsupported pipeline message version " + data[1]);
+        }
+
+        DocumentProcessingMessage message = new DocumentProcessingMessage();
+        // Absent fields stay absent rather than picking up the no-arg constructor's defaults
+        message.setStatus(null);
+        message.setTimestamp(null);
+        long timestampSeconds = 0;
+        int timestampNanos = 0;
+        boolean hasTimestamp = false;
+        Map<String, Object> metadata = null;
+
+        Reader reader = new Reader(data, 2, data.length);
+        while (reader.position < reader.limit) {
+            long tag = reader.varint();
+            int field = (int) (tag >>> 3);
+            int wireType = (int) (tag & 0x7);
+            switch (field) {
+                case FIELD_DOCUMENT_ID -> message.setDocumentId(reader.string());
+                case FIELD_FILE_PATH -> message.setFilePath(reader.string());
+                case FIELD_DOCUMENT_TYPE -> message.setDocumentType(reader.string());
+                case FIELD_CONTENT -> message.setContent(reader.string());
+                case FIELD_CONTENT_LZ4 -> message.setContent(reader.compressedString());
+                case FIELD_CONTENT_REF -> message.setContentRef(reader.string());
+                case FIELD_CONTENT_HASH -> message.setContentHash(reader.string());
+                case FIELD_METADATA_ENTRY -> {
+                    if (metadata == null) {
+                        metadata = new LinkedHashMap<>();
+                    }
+                    reader.metadataEntry(metadata);
+                }
+                case FIELD_STATUS -> message.setStatus(status(reader.varint()));
+                case FIELD_ERROR_MESSAGE -> message.setErrorMessage(reader.string());
+                case FIELD_TIMESTAMP_SECONDS -> {
+                    timestampSeconds = unzigzag(reader.varint());
+                    hasTimestamp = true;
+                }
+                case FIELD_TIMESTAMP_NANOS -> timestampNanos = (int) reader.varint();
+                case FIELD_CURRENT_STAGE -> message.setCurrentStage(reader.string());
+                case FIELD_RETRY_ATTEMPT -> message.setRetryAttempt((int) reader.varint());
+                case FIELD_FAILED_TOPIC -> message.setFailedTopic(reader.string());
+                default -> reader.skip(wireType);
+            }
+        }
+
+        message.setMetadata(metadata);
+        if (hasTimestamp) {
+            message.setTimestamp(LocalDateTime.ofEpochSecond(timestampSeconds, timestampNanos, ZoneOffset.UTC));
+        }
+        return message;
+    }
+
+    private static DocumentProcessingMessage.ProcessingStatus status(long ordinal) {
+        DocumentProcessingMessage.ProcessingStatus[] statuses = DocumentProcessingMessage.ProcessingStatus.values();
+        // A status added by a newer writer is unknown here; leave it unset rather than guess
+        return ordinal < statuses.length ? statuses[(int) ordinal] : null;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void tag(int field, int wireType) {
+            varint(((long) field << 3) | wireType);
+        }
+
+        void stringField(int field, String value) {
+            if (value != null) {
+                tag(field, WIRE_BYTES);
+                string(value);
+            }
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            bytes(bytes, bytes.length);
+        }
+
+        void value(Object value) {
+            if (value == null) {
+                put(VALUE_NULL);
+            } else if (value instanceof String string) {
+                put(VALUE_STRING);
+                string(string);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                put(VALUE_INT);
+                varint(zigzag(((Number) value).intValue()));
+            } else if (value instanceof Long longValue) {
+                put(VALUE_LONG);
+                varint(zigzag(longValue));
+            } else if (value instanceof Double || value instanceof Float) {
+                put(VALUE_DOUBLE);
+                long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    put((byte) (bits >>> shift));
+                }
+            } else if (value instanceof Boolean bool) {
+                put(VALUE_BOOLEAN);
+                put((byte) (bool ? 1 : 0));
+            } else if (value instanceof List<?> list) {
+                put(VALUE_LIST);
+                varint(list.size());
+                for (Object element : list) {
+                    value(element);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                put(VALUE_MAP);
+                varint(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    string(String.valueOf(entry.getKey()));
+                    value(entry.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported metadata value type: " + value.getClass().getName());
+            }
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        private void put(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        private void ensure(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+        private final int limit;
+
+        Reader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in pipeline message");
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String compressedString() {
+            // Read the length first: it moves the position past itself
+            int length = length();
+            int end = position + length;
+            long originalLength = varint();
+            int compressedLength = end - position;
+            // Checked before allocating, so a corrupt length cannot ask for gigabytes
+            if (compressedLength < 0 || originalLength < 0
+                    || originalLength > (long) compressedLength * MAX_COMPRESSION_RATIO) {
+                throw new IllegalArgumentException("Corrupt compressed content in pipeline message");
+            }
+            byte[] content = new byte[(int) originalLength];
+            int decompressed;
+            try {
+                decompressed = DECOMPRESSOR.decompress(data, position, compressedLength, content, 0);
+            } catch (LZ4Exception e) {
+                throw new IllegalArgumentException("Corrupt compressed content in pipeline message", e);
+            }
+            if (decompressed != originalLength) {
+                throw new IllegalArgumentException("Corrupt compressed content in pipeline message");
+            }
+            position = end;
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        void metadataEntry(Map<String, Object> metadata) {
+            int length = length();
+            int end = position + length;
+            Reader entry = new Reader(data, position, end);
+            position = end;
+            String key = entry.string();
+            try {
+                metadata.put(key, entry.value());
+            } catch (UnknownValueTypeException e) {
+                // Written by a newer version; the entry is length-delimited, so only it is lost
+            }
+        }
+
+        Object value() {
+            byte type = next();
+            switch (type) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_STRING:
+                    return string();
+                case VALUE_INT:
+                    return (int) unzigzag(varint());
+                case VALUE_LONG:
+                    return unzigzag(varint());
+                case VALUE_DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | (next() & 0xFF);
+                    }
+                    return Double.longBitsToDouble(bits);
+                case VALUE_BOOLEAN:
+                    return next() != 0;
+                case VALUE_LIST: {
+                    int size = length();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(value());
+                    }
+                    return list;
+                }
+                case VALUE_MAP: {
+                    int size = length();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(string(), value());
+                    }
+                    return map;
+                }
+                default:
+                    throw new UnknownValueTypeException();
+            }
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case WIRE_VARINT -> varint();
+                case WIRE_BYTES -> {
+                    int length = length();
+                    position += length;
+                }
+                default -> throw new IllegalArgumentException("Unknown wire type " + wireType + " in pipeline message");
+            }
+        }
+
+        private int length() {
+            long length = varint();
+            if (length < 0 || length > limit - position) {
+                throw new IllegalArgumentException("Truncated pipeline message");
+            }
+            return (int) length;
+        }
+
+        private byte next() {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Truncated pipeline message");
+            }
+            return data[position++];
+        }
+    }
+
+    private static final class UnknownValueTypeException extends RuntimeException {
+
+        UnknownValueTypeException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import net.jpountz.lz4.LZ4Exception;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka deserializer for pipeline messages in the binary wire format.
+ * Records written as JSON by producers from before the binary format are still read,
+ * so topics can be drained across the upgrade.
+ */
+public class DocumentProcessingMessageDeserializer implements Deserializer<DocumentProcessingMessage> {
+
+    private final JsonDeserializer<DocumentProcessingMessage> legacyDeserializer =
+            new JsonDeserializer<>(DocumentProcessingMessage.class, false);
+
+    @Override
+    public DocumentProcessingMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!DocumentProcessingMessageCodec.isEncoded(data)) {
+            return legacyDeserializer.deserialize(topic, data);
+        }
+        try {
+            return DocumentProcessingMessageCodec.decode(data);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | LZ4Exception e) {
+            throw new SerializationException("Cannot deserialize pipeline message from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        legacyDeserializer.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer writing pipeline messages in the binary wire format.
+ * The content compression threshold is read from the producer property
+ * {@value #COMPRESSION_THRESHOLD_CONFIG}.
+ */
+public class DocumentProcessingMessageSerializer implements Serializer<DocumentProcessingMessage> {
+
+    public static final String COMPRESSION_THRESHOLD_CONFIG = "idp.codec.compression-threshold-bytes";
+
+    private static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private int compressionThresholdBytes = DEFAULT_COMPRESSION_THRESHOLD_BYTES;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object threshold = configs.get(COMPRESSION_THRESHOLD_CONFIG);
+        if (threshold != null) {
+            compressionThresholdBytes = Integer.parseInt(threshold.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, DocumentProcessingMessage message) {
+        if (message == null) {
+            return null;
+        }
+        try {
+            return DocumentProcessingMessageCodec.encode(message, compressionThresholdBytes);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot serialize message for document " + message.getDocumentId(), e);
+        }
+    }
+}
@@ -2,31 +2,64 @@ package com.legal.pipeline.infrastructure.kafka;
 
 import com.legal.pipeline.domain.DocumentProcessingMessage;
 import com.legal.pipeline.domain.observer.DocumentProcessingSubject;
+import com.legal.pipeline.service.DeadLetterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Kafka consumer for handling processing errors in the document processing pipeline.
- * Processes failed messages and notifies observers of errors.
+ * Stores failed messages in the dead-letter store and notifies observers of errors.
  */
 @Service
 public class ErrorConsumer {
 
     private final DocumentProcessingSubject processingSubject;
+    private final DeadLetterService deadLetterService;
+    private final BatchRecordProcessor batchProcessor;
 
-    public ErrorConsumer(DocumentProcessingSubject processingSubject) {
+    public ErrorConsumer(DocumentProcessingSubject processingSubject, DeadLetterService deadLetterService,
+            MeterRegistry meterRegistry,
+            @Value("${pipeline.stage.error.parallelism:0}") int parallelism,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads) {
         this.processingSubject = processingSubject;
+        this.deadLetterService = deadLetterService;
+        this.batchProcessor = new BatchRecordProcessor("error", parallelism, virtualThreads, meterRegistry);
+    }
+
+    @KafkaListener(id = "error", idIsGroup = false,
+            topics = "document-error", groupId = "legal-document-processor-error",
+            containerFactory = KafkaListenerConfig.BATCH_FACTORY,
+            concurrency = "${pipeline.stage.error.concurrency:1}",
+            properties = {
+                    "max.poll.records:${pipeline.stage.error.batch-size:100}",
+                    "max.poll.interval.ms:${pipeline.stage.error.max-poll-interval-ms:300000}" })
+    public void consumeError(List<ConsumerRecord<String, DocumentProcessingMessage>> records) {
+        batchProcessor.process(records, this::handleError);
     }
 
-    @KafkaListener(topics = "document-error", groupId = "legal-document-processor")
-    public void consumeError(DocumentProcessingMessage message) {
+    @PreDestroy
+    public void shutdown() {
+        batchProcessor.close();
+    }
+
+    void handleError(DocumentProcessingMessage message) {
         System.err.println("Processing error for document: " + message.getDocumentId());
         System.err.println("Error message: " + message.getErrorMessage());
         System.err.println("Failed at stage: " + message.getCurrentStage());
 
+        // Mark as failed
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+
+        // Keep it for inspection and replay; if this fails the record is redelivered
+        deadLetterService.record(message);
+
         try {
-            // Mark as failed
-            message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
 
             // Notify observers of error
             processingSubject.notifyProcessingCompleted(message.getDocumentId(), false);
@@ -37,6 +70,8 @@ public class ErrorConsumer {
             System.err.println("  ID: " + message.getDocumentId());
             System.err.println("  Type: " + message.getDocumentType());
             System.err.println("  Stage: " + message.getCurrentStage());
+            System.err.println("  Failed topic: " + message.getFailedTopic());
+            System.err.println("  Retry attempts: " + message.getRetryAttempt());
             System.err.println("  Error: " + message.getErrorMessage());
 
         } catch (Exception e) {
@@ -0,0 +1,118 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.extraction.LegalEntities;
+import com.legal.pipeline.domain.extraction.LegalEntityScanner;
+import com.legal.pipeline.infrastructure.concurrency.CpuWorkLimiter;
+import com.legal.pipeline.infrastructure.dedupe.StageDeduplicator;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kafka consumer for the extractor stage of the document processing pipeline.
+ * Pulls structured legal metadata out of the tokenized text in a single scan.
+ */
+@Service
+public class ExtractorConsumer {
+
+    private final StageOutputPublisher stageOutputPublisher;
+    private final StageRetryRouter stageRetryRouter;
+    private final LegalEntityScanner legalEntityScanner;
+    private final ClaimCheckService claimCheckService;
+    private final CpuWorkLimiter cpuWorkLimiter;
+    private final StageDeduplicator stageDeduplicator;
+    private final BatchRecordProcessor batchProcessor;
+
+    public ExtractorConsumer(StageOutputPublisher stageOutputPublisher, StageRetryRouter stageRetryRouter,
+            LegalEntityScanner legalEntityScanner, ClaimCheckService claimCheckService,
+            CpuWorkLimiter cpuWorkLimiter, StageDeduplicator stageDeduplicator, MeterRegistry meterRegistry,
+            @Value("${pipeline.stage.extractor.parallelism:0}") int parallelism,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.stageRetryRouter = stageRetryRouter;
+        this.legalEntityScanner = legalEntityScanner;
+        this.claimCheckService = claimCheckService;
+        this.cpuWorkLimiter = cpuWorkLimiter;
+        this.stageDeduplicator = stageDeduplicator;
+        this.batchProcessor = new BatchRecordProcessor("extractor", parallelism, virtualThreads, meterRegistry);
+    }
+
+    @KafkaListener(id = "extractor", idIsGroup = false,
+            topics = "document-extractor", groupId = "legal-document-processor-extractor",
+            containerFactory = KafkaListenerConfig.BATCH_FACTORY,
+            concurrency = "${pipeline.stage.extractor.concurrency:2}",
+            properties = {
+                    "max.poll.records:${pipeline.stage.extractor.batch-size:50}",
+                    "max.poll.interval.ms:${pipeline.stage.extractor.max-poll-interval-ms:300000}" })
+    public void consumeExtractor(List<ConsumerRecord<String, DocumentProcessingMessage>> records) {
+        batchProcessor.process(records, this::extract);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchProcessor.close();
+    }
+
+    void extract(DocumentProcessingMessage message) throws Exception {
+        String documentId = message.getDocumentId();
+        if (documentId == null) {
+            System.err.println("Received message with null document ID in ExtractorConsumer");
+            return;
+        }
+
+        System.out.println("Extracting metadata from document: " + documentId);
+
+        String contentHash = stageDeduplicator.contentHash(message);
+        if (stageDeduplicator.resendIfCompleted("extractor", documentId, contentHash)) {
+            return;
+        }
+
+        LegalEntities entities;
+        try {
+            entities = runStage(message);
+        } catch (Exception e) {
+            failStage(message, e);
+            return;
+        }
+
+        // Send to categorizer stage
+        stageOutputPublisher.sendAndAwait("document-categorizer", documentId, message);
+        stageDeduplicator.recordCompleted("extractor", contentHash, "document-categorizer", message);
+        System.out.println("Document " + documentId + " metadata extracted (" +
+                entities.getParties().size() + " parties, " + entities.getDates().size() + " dates, " +
+                entities.getMonetaryAmounts().size() + " amounts) and sent to categorizer stage");
+    }
+
+    /**
+     * The extractor's work on one message, without forwarding it anywhere.
+     * Shared by the Kafka listener and {@link FusedPipeline}.
+     */
+    LegalEntities runStage(DocumentProcessingMessage message) throws Exception {
+        String content = claimCheckService.resolveContent(message);
+        LegalEntities entities = cpuWorkLimiter.call(() -> legalEntityScanner.scan(content));
+        Map<String, Object> metadata = message.getMetadata();
+        if (metadata == null) {
+            metadata = new HashMap<>();
+        }
+        entities.writeTo(metadata);
+        message.setMetadata(metadata);
+        message.setCurrentStage("EXTRACTOR");
+        return entities;
+    }
+
+    void failStage(DocumentProcessingMessage message, Exception e) throws Exception {
+        message.setErrorMessage("Metadata extraction failed: " + e.getMessage());
+        stageRetryRouter.routeFailure("document-extractor", message, e);
+        System.err.println("Metadata extraction failed for document " + message.getDocumentId() + ": " +
+                e.getMessage());
+    }
+}
@@ -0,0 +1,225 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the extractor and categorizer stages in memory, inside the tokenizer's JVM.
+ * A fused document goes from the tokenizer straight onto the extractor's bounded queue,
+ * then the categorizer's, and only its final result is published to the output topic, so
+ * it skips two Kafka round trips and two serialize/deserialize cycles. The stage logic is
+ * the same code the stage listeners run. A full queue blocks the tokenizer thread handing
+ * the document over, which pushes back all the way to its poll loop. Both stages together
+ * get the extraction deadline; a document that overruns it has its stage task cancelled.
+ * <p>
+ * Fusing is chosen per deployment ({@code all}) or per document by file size
+ * ({@code small}); the default ({@code off}) keeps every stage on its own topic. A stage
+ * failure leaves the fused path through the normal retry router, so the retry comes back
+ * on that stage's topic and finishes on the distributed path.
+ */
+@Component
+public class FusedPipeline {
+
+    enum Mode {
+        OFF, ALL, SMALL
+    }
+
+    /**
+     * One stage's failure handling: records the error and routes the message onward.
+     */
+    @FunctionalInterface
+    interface FailureRoute {
+        void route(DocumentProcessingMessage message, Exception failure) throws Exception;
+    }
+
+    private final ExtractorConsumer extractorConsumer;
+    private final CategorizerConsumer categorizerConsumer;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final ClaimCheckService claimCheckService;
+    private final Mode mode;
+    private final long smallDocumentMaxBytes;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor extractorStage;
+    private final ThreadPoolExecutor categorizerStage;
+
+    private final Counter fusedDocuments;
+    private final Counter fusedFailures;
+
+    public FusedPipeline(ExtractorConsumer extractorConsumer, CategorizerConsumer categorizerConsumer,
+            StageOutputPublisher stageOutputPublisher, ClaimCheckService claimCheckService,
+            MeterRegistry meterRegistry,
+            @Value("${pipeline.fused.mode:off}") String mode,
+            @Value("${pipeline.fused.small-document-max-bytes:1048576}") long smallDocumentMaxBytes,
+            @Value("${pipeline.fused.stage-threads:0}") int stageThreads,
+            @Value("${pipeline.fused.queue-capacity:64}") int queueCapacity,
+            @Value("${extraction.deadline-ms:120000}") long timeoutMs) {
+        this.extractorConsumer = extractorConsumer;
+        this.categorizerConsumer = categorizerConsumer;
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.claimCheckService = claimCheckService;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.smallDocumentMaxBytes = smallDocumentMaxBytes;
+        this.timeoutMs = timeoutMs;
+
+        int threads = stageThreads > 0 ? stageThreads : Runtime.getRuntime().availableProcessors();
+        this.extractorStage = stagePool("extractor", threads, queueCapacity, timeoutMs);
+        this.categorizerStage = stagePool("categorizer", threads, queueCapacity, timeoutMs);
+
+        this.fusedDocuments = Counter.builder("pipeline.fused.documents").register(meterRegistry);
+        this.fusedFailures = Counter.builder("pipeline.fused.failures").register(meterRegistry);
+        Gauge.builder("pipeline.fused.queue.depth", extractorStage, pool -> pool.getQueue().size())
+                .tag("stage", "extractor").register(meterRegistry);
+        Gauge.builder("pipeline.fused.queue.depth", categorizerStage, pool -> pool.getQueue().size())
+                .tag("stage", "categorizer").register(meterRegistry);
+    }
+
+    /**
+     * @param message a message about to be tokenized
+     * @return true if the message should run the rest of the pipeline in memory
+     */
+    public boolean accepts(DocumentProcessingMessage message) {
+        switch (mode) {
+            case ALL:
+                return true;
+            case SMALL:
+                if (message.getFilePath() == null) {
+                    return false;
+                }
+                try {
+                    return Files.size(Paths.get(message.getFilePath())) <= smallDocumentMaxBytes;
+                } catch (IOException e) {
+                    // Let the distributed path find and report the problem
+                    return false;
+                }
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Runs a tokenized message through the extractor and categorizer, then publishes it to
+     * the output topic. Returns once the result, or the failure of a stage, is on Kafka.
+     *
+     * @param message a tokenized message whose content is still inline
+     * @return true if the result went to the output topic, false if a stage failure was routed instead
+     * @throws TimeoutException if the stages do not finish within the extraction deadline
+     * @throws Exception        if the result could not be delivered anywhere
+     */
+    public boolean process(DocumentProcessingMessage message) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        boolean completed = await(extractorStage, deadline,
+                () -> runStage(message, extractorConsumer::runStage, extractorConsumer::failStage));
+        if (completed) {
+            completed = await(categorizerStage, deadline,
+                    () -> runStage(message, categorizerConsumer::runStage, categorizerConsumer::failStage));
+        }
+        if (!completed) {
+            fusedFailures.increment();
+            return false;
+        }
+
+        // Egress: the output topic gets the same slim envelope as on the distributed path
+        claimCheckService.checkIn(message);
+        stageOutputPublisher.sendAndAwait("document-output", message.getDocumentId(), message);
+        fusedDocuments.increment();
+        System.out.println("Document " + message.getDocumentId() + " processed in-process and sent to output stage");
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractorStage.shutdownNow();
+        categorizerStage.shutdownNow();
+    }
+
+    /**
+     * Runs a stage task and waits for it until the deadline; if the wait ends first, the
+     * task is cancelled, which interrupts its worker or keeps it from starting.
+     */
+    private boolean await(ThreadPoolExecutor stagePool, long deadline, Callable<Boolean> task) throws Exception {
+        Future<Boolean> stage = stagePool.submit(task);
+        try {
+            return stage.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            stage.cancel(true);
+            throw new TimeoutException("Fused stages did not finish within " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            stage.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private boolean runStage(DocumentProcessingMessage message,
+            BatchRecordProcessor.RecordHandler<DocumentProcessingMessage> work, FailureRoute failureRoute)
+            throws Exception {
+        try {
+            work.handle(message);
+            return true;
+        } catch (Exception failure) {
+            // The failure leaves through Kafka, so the text must not ride along inline
+            claimCheckService.checkIn(message);
+            failureRoute.route(message, failure);
+            return false;
+        }
+    }
+
+    /**
+     * A fixed pool over a bounded queue. Submitting to a full queue waits up to the timeout
+     * for room instead of rejecting at once, so a slow stage slows the thread feeding it.
+     */
+    private static ThreadPoolExecutor stagePool(String stage, int threads, int queueCapacity, long timeoutMs) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fused-" + stage + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Fused " + stage + " stage is shut down");
+                    }
+                    try {
+                        if (!pool.getQueue().offer(runnable, timeoutMs, TimeUnit.MILLISECONDS)) {
+                            throw new RejectedExecutionException("Fused " + stage + " stage stayed full for "
+                                    + timeoutMs + " ms");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(
+                                "Interrupted waiting for the fused " + stage + " stage", e);
+                    }
+                    // A shutdown while waiting would leave the task queued with no worker to run it
+                    if (pool.isShutdown() && pool.remove(runnable)) {
+                        throw new RejectedExecutionException("Fused " + stage + " stage is shut down");
+                    }
+                });
+    }
+}
@@ -0,0 +1,99 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.service.DeadLetterService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Listener container setup for the pipeline stages.
+ * Stages consume in batches and commit once per batch; the per-stage batch size,
+ * concurrency and max poll interval are set on each stage's listener, none lower than
+ * the consumer default the batch retry timing is checked against.
+ */
+@Configuration
+public class KafkaListenerConfig {
+
+    public static final String BATCH_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String RETRY_FACTORY = "retryKafkaListenerContainerFactory";
+
+    @Bean(BATCH_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            DeadLetterService deadLetterService,
+            @Value("${pipeline.batch.retry-interval-ms:1000}") long retryIntervalMs,
+            @Value("${pipeline.batch.retry-max-interval-ms:30000}") long retryMaxIntervalMs,
+            @Value("${pipeline.batch.retry-max-elapsed-ms:600000}") long retryMaxElapsedMs,
+            @Value("${pipeline.publisher.acquire-timeout-ms:60000}") long acquireTimeoutMs,
+            @Value("${pipeline.publisher.delivery-timeout-ms:150000}") long deliveryTimeoutMs,
+            @Value("${spring.kafka.consumer.properties.max.poll.interval.ms:300000}") long maxPollIntervalMs) {
+        // A failed batch is retried on the next poll, after one back-off; its worst case is a
+        // record waiting out a send slot and the delivery timeout, and that has to fit
+        long worstAttemptMs = acquireTimeoutMs + deliveryTimeoutMs + retryMaxIntervalMs;
+        if (worstAttemptMs >= maxPollIntervalMs) {
+            throw new IllegalStateException("A failed batch attempt can take " + worstAttemptMs +
+                    " ms (send slot wait + delivery timeout + retry back-off), not within the " +
+                    maxPollIntervalMs + " ms max poll interval");
+        }
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        ExponentialBackOff backOff = new ExponentialBackOff(retryIntervalMs, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        backOff.setMaxElapsedTime(retryMaxElapsedMs);
+        factory.setCommonErrorHandler(batchErrorHandler(deadLetterService, backOff));
+        return factory;
+    }
+
+    /**
+     * Commits the records before the failed one, then retries from it with the back-off.
+     * A record that keeps failing is stored as a dead letter before its offset is committed;
+     * if even that fails it is redelivered, so no record is ever skipped unrecorded.
+     */
+    static DefaultErrorHandler batchErrorHandler(DeadLetterService deadLetterService, BackOff backOff) {
+        return new DefaultErrorHandler((record, failure) -> {
+            if (!(record.value() instanceof DocumentProcessingMessage message)) {
+                // Unreadable payloads are skipped by the stages before they can fail
+                System.err.println("Dropping unreadable record " + record.topic() + "-" + record.partition() +
+                        "@" + record.offset() + " after retries: " + failure.getMessage());
+                return;
+            }
+            // A document-error record keeps the stage it originally failed in
+            if (!StageOutputPublisher.ERROR_TOPIC.equals(record.topic())) {
+                message.setFailedTopic(record.topic());
+                message.setErrorMessage("Gave up on " + record.topic() + " after retries: " +
+                        NestedExceptionUtils.getMostSpecificCause(failure).getMessage());
+            }
+            message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+            deadLetterService.record(message);
+            System.err.println("Document " + message.getDocumentId() + " stored as a dead letter after " +
+                    record.topic() + " kept failing");
+        }, backOff);
+    }
+
+    /**
+     * Record-at-a-time containers with manual acks, so a retry record that is not yet due
+     * can be handed back with a nack that pauses its consumer instead of blocking the poll loop.
+     */
+    @Bean(RETRY_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
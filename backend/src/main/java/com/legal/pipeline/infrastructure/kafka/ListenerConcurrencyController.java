@@ -0,0 +1,351 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows and shrinks the stage listeners' concurrency while the application runs.
+ * Every interval it reads each stage's consumer lag, its processing time per record
+ * and the host's CPU load, and estimates how long the stage would take to drain its lag.
+ * A stage that would take longer than the target gains a consumer, as long as there is
+ * CPU headroom and a partition for it; a stage that would drain well within the target,
+ * or a host that is saturated, gives one back. A change needs the same verdict on several
+ * evaluations in a row and is followed by a cooldown, because every change restarts the
+ * stage's container and rebalances its group.
+ * <p>
+ * Current state and the latest decisions are served by the {@code listenerconcurrency}
+ * actuator endpoint.
+ */
+@Component
+@Endpoint(id = "listenerconcurrency")
+public class ListenerConcurrencyController {
+
+    private static final long ADMIN_TIMEOUT_MS = 10_000;
+    private static final int DECISION_HISTORY = 20;
+
+    /**
+     * Tunables shared by every stage.
+     */
+    static final class Settings {
+        final double targetDrainSeconds;
+        final double scaleDownDrainFraction;
+        final double cpuHigh;
+        final double cpuCritical;
+        final int stableEvaluations;
+        final long cooldownNanos;
+
+        Settings(double targetDrainSeconds, double scaleDownDrainFraction, double cpuHigh, double cpuCritical,
+                int stableEvaluations, long cooldownMs) {
+            this.targetDrainSeconds = targetDrainSeconds;
+            this.scaleDownDrainFraction = scaleDownDrainFraction;
+            this.cpuHigh = cpuHigh;
+            this.cpuCritical = cpuCritical;
+            this.stableEvaluations = Math.max(1, stableEvaluations);
+            this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        }
+    }
+
+    /**
+     * Scaling state of one stage. Turns observations into a concurrency, with hysteresis.
+     */
+    static final class StageScaler {
+        final String stage;
+        final String groupId;
+        final String topic;
+        final int minConcurrency;
+        final int maxConcurrency;
+
+        private int upVotes;
+        private int downVotes;
+        private long lastChangeNanos;
+        private boolean changed;
+
+        volatile long lag;
+        volatile double millisPerRecord;
+        volatile double drainSeconds;
+        volatile int concurrency;
+        private double lastBusyMillis;
+        private double lastRecords;
+
+        StageScaler(String stage, String groupId, String topic, int minConcurrency, int maxConcurrency) {
+            this.stage = stage;
+            this.groupId = groupId;
+            this.topic = topic;
+            this.minConcurrency = Math.max(1, minConcurrency);
+            this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        }
+
+        /**
+         * @param current    the container's concurrency now
+         * @param partitions partitions of the stage topic; consumers beyond this sit idle
+         * @param lag        records the stage has yet to commit
+         * @param cpuLoad    host CPU load between 0 and 1
+         * @param nowNanos   the current {@link System#nanoTime()}
+         * @return the concurrency the stage should run with
+         */
+        int decide(int current, int partitions, long lag, double cpuLoad, Settings settings, long nowNanos) {
+            this.lag = lag;
+            this.concurrency = current;
+            this.drainSeconds = millisPerRecord * lag / 1000.0 / Math.max(1, current);
+
+            // Until a record has been timed, a backlog says nothing about how long it takes to drain
+            boolean measured = millisPerRecord > 0 || lag == 0;
+            int ceiling = Math.max(minConcurrency, Math.min(maxConcurrency, partitions));
+            boolean wantUp = measured && current < ceiling && drainSeconds > settings.targetDrainSeconds
+                    && cpuLoad < settings.cpuHigh;
+            boolean wantDown = current > minConcurrency
+                    && (cpuLoad > settings.cpuCritical
+                        || measured && drainSeconds < settings.targetDrainSeconds * settings.scaleDownDrainFraction
+                        || current > ceiling);
+            upVotes = wantUp ? upVotes + 1 : 0;
+            downVotes = wantDown && !wantUp ? downVotes + 1 : 0;
+
+            if (changed && nowNanos - lastChangeNanos < settings.cooldownNanos) {
+                return current;
+            }
+            if (upVotes >= settings.stableEvaluations) {
+                return changeTo(current + 1, nowNanos);
+            }
+            if (downVotes >= settings.stableEvaluations) {
+                return changeTo(current - 1, nowNanos);
+            }
+            return current;
+        }
+
+        /**
+         * Updates the processing time per record from the stage's cumulative batch metrics.
+         */
+        void observeProcessing(double busyMillis, double records) {
+            if (records > lastRecords) {
+                millisPerRecord = (busyMillis - lastBusyMillis) / (records - lastRecords);
+            }
+            lastBusyMillis = busyMillis;
+            lastRecords = records;
+        }
+
+        private int changeTo(int target, long nowNanos) {
+            upVotes = 0;
+            downVotes = 0;
+            changed = true;
+            lastChangeNanos = nowNanos;
+            return target;
+        }
+    }
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaAdmin kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Settings settings;
+    private final List<StageScaler> scalers = new ArrayList<>();
+    private final List<Map<String, Object>> decisions = new ArrayList<>();
+
+    private Admin admin;
+    private volatile double cpuLoad;
+
+    public ListenerConcurrencyController(KafkaListenerEndpointRegistry listenerRegistry, KafkaAdmin kafkaAdmin,
+            MeterRegistry meterRegistry, Environment environment,
+            @Value("${pipeline.autoscale.enabled:false}") boolean enabled,
+            @Value("${pipeline.autoscale.target-drain-seconds:120}") double targetDrainSeconds,
+            @Value("${pipeline.autoscale.scale-down-drain-fraction:0.25}") double scaleDownDrainFraction,
+            @Value("${pipeline.autoscale.cpu-high:0.75}") double cpuHigh,
+            @Value("${pipeline.autoscale.cpu-critical:0.9}") double cpuCritical,
+            @Value("${pipeline.autoscale.stable-evaluations:3}") int stableEvaluations,
+            @Value("${pipeline.autoscale.cooldown-ms:120000}") long cooldownMs) {
+        this.listenerRegistry = listenerRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.settings = new Settings(targetDrainSeconds, scaleDownDrainFraction, cpuHigh, cpuCritical,
+                stableEvaluations, cooldownMs);
+
+        // Listener ids double as the stage names used in metric tags and stage properties
+        manage(environment, "tokenizer", "legal-document-processor-tokenizer", "document-tokenizer");
+        manage(environment, "tokenizer-large", "legal-document-processor-tokenizer-large",
+                "document-tokenizer-large");
+        manage(environment, "extractor", "legal-document-processor-extractor", "document-extractor");
+        manage(environment, "categorizer", "legal-document-processor-categorizer", "document-categorizer");
+    }
+
+    @Scheduled(fixedDelayString = "${pipeline.autoscale.interval-ms:30000}",
+            initialDelayString = "${pipeline.autoscale.interval-ms:30000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        cpuLoad = cpuLoad();
+        for (StageScaler scaler : scalers) {
+            try {
+                evaluate(scaler);
+            } catch (Exception e) {
+                System.err.println("Concurrency evaluation failed for stage " + scaler.stage + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("cpuLoad", cpuLoad);
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (StageScaler scaler : scalers) {
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("concurrency", scaler.concurrency);
+            stage.put("minConcurrency", scaler.minConcurrency);
+            stage.put("maxConcurrency", scaler.maxConcurrency);
+            stage.put("lag", scaler.lag);
+            stage.put("millisPerRecord", scaler.millisPerRecord);
+            stage.put("drainSeconds", scaler.drainSeconds);
+            stages.put(scaler.stage, stage);
+        }
+        status.put("stages", stages);
+        synchronized (decisions) {
+            status.put("decisions", new ArrayList<>(decisions));
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (admin != null) {
+            admin.close();
+        }
+    }
+
+    private void manage(Environment environment, String stage, String groupId, String topic) {
+        int configured = environment.getProperty("pipeline.stage." + stage + ".concurrency", Integer.class, 1);
+        int min = environment.getProperty("pipeline.stage." + stage + ".min-concurrency", Integer.class, 1);
+        int max = environment.getProperty("pipeline.stage." + stage + ".max-concurrency", Integer.class,
+                Math.max(configured, 2 * configured));
+        StageScaler scaler = new StageScaler(stage, groupId, topic, min, max);
+        scaler.concurrency = configured;
+        scalers.add(scaler);
+        Gauge.builder("pipeline.autoscale.concurrency", scaler, s -> s.concurrency).tag("stage", stage)
+                .register(meterRegistry);
+        Gauge.builder("pipeline.autoscale.lag", scaler, s -> s.lag).tag("stage", stage).register(meterRegistry);
+    }
+
+    private void evaluate(StageScaler scaler) throws Exception {
+        MessageListenerContainer listener = listenerRegistry.getListenerContainer(scaler.stage);
+        if (!(listener instanceof ConcurrentMessageListenerContainer) || !listener.isRunning()) {
+            return;
+        }
+        ConcurrentMessageListenerContainer<?, ?> container = (ConcurrentMessageListenerContainer<?, ?>) listener;
+
+        Timer busy = meterRegistry.find("pipeline.batch.duration").tag("stage", scaler.stage).timer();
+        DistributionSummary records = meterRegistry.find("pipeline.batch.size").tag("stage", scaler.stage).summary();
+        if (busy != null && records != null) {
+            scaler.observeProcessing(busy.totalTime(TimeUnit.MILLISECONDS), records.totalAmount());
+        }
+
+        List<TopicPartition> partitions = partitionsOf(scaler.topic);
+        int current = container.getConcurrency();
+        int target = scaler.decide(current, partitions.size(), lagOf(scaler.groupId, partitions), cpuLoad,
+                settings, System.nanoTime());
+        if (target == current) {
+            return;
+        }
+
+        // Concurrency only takes effect on start; the restart rebalances the stage's group
+        container.stop();
+        container.setConcurrency(target);
+        container.start();
+        scaler.concurrency = target;
+        recordDecision(scaler, current, target);
+    }
+
+    private void recordDecision(StageScaler scaler, int from, int to) {
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("at", Instant.now().toString());
+        decision.put("stage", scaler.stage);
+        decision.put("from", from);
+        decision.put("to", to);
+        decision.put("lag", scaler.lag);
+        decision.put("drainSeconds", scaler.drainSeconds);
+        decision.put("cpuLoad", cpuLoad);
+        synchronized (decisions) {
+            decisions.add(decision);
+            if (decisions.size() > DECISION_HISTORY) {
+                decisions.remove(0);
+            }
+        }
+        System.out.println("Stage " + scaler.stage + " concurrency changed from " + from + " to " + to +
+                " (lag " + scaler.lag + ", drain " + Math.round(scaler.drainSeconds) + " s, cpu " +
+                Math.round(cpuLoad * 100) + "%)");
+    }
+
+    private List<TopicPartition> partitionsOf(String topic) throws Exception {
+        TopicDescription description = admin().describeTopics(List.of(topic)).allTopicNames()
+                .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS).get(topic);
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (TopicPartitionInfo partition : description.partitions()) {
+            partitions.add(new TopicPartition(topic, partition.partition()));
+        }
+        return partitions;
+    }
+
+    private long lagOf(String groupId, List<TopicPartition> partitions) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin().listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            latest.put(partition, OffsetSpec.latest());
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = admin().listOffsets(latest).all()
+                .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        long lag = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            // No commit yet means the group reads from the start (auto.offset.reset=earliest)
+            lag += endOffsets.get(partition).offset() - (offset != null ? offset.offset() : 0);
+        }
+        return Math.max(0, lag);
+    }
+
+    private Admin admin() {
+        if (admin == null) {
+            admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return admin;
+    }
+
+    private static double cpuLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                    .getCpuLoad();
+            return load >= 0 ? load : 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Releases retried messages back to their stage once their backoff has passed.
+ * Each tier has its own consumer group over the retry topics of every stage, so all
+ * records a consumer sees share one delay and arrive in due order per partition. A
+ * record that is not yet due is nacked, which pauses that consumer for the remaining
+ * time and redelivers it; neither the stage topics nor the other tiers are held up.
+ */
+@Component
+public class RetryTopicConsumer implements SmartLifecycle {
+
+    // Long holds are re-checked periodically rather than trusted to one long pause
+    private static final long MAX_HOLD_MS = 30_000;
+
+    private final StageOutputPublisher stageOutputPublisher;
+    private final List<ConcurrentMessageListenerContainer<Object, Object>> containers = new ArrayList<>();
+    private volatile boolean running;
+
+    public RetryTopicConsumer(
+            @Qualifier(KafkaListenerConfig.RETRY_FACTORY) ConcurrentKafkaListenerContainerFactory<Object, Object> factory,
+            StageRetryRouter stageRetryRouter, StageOutputPublisher stageOutputPublisher) {
+        this.stageOutputPublisher = stageOutputPublisher;
+
+        List<List<String>> tiers = stageRetryRouter.retryTopicsByTier();
+        for (int tier = 0; tier < tiers.size(); tier++) {
+            long delayMs = stageRetryRouter.tierDelayMs(tier);
+            ConcurrentMessageListenerContainer<Object, Object> container =
+                    factory.createContainer(tiers.get(tier).toArray(new String[0]));
+            container.getContainerProperties().setGroupId("legal-document-processor-retry-" + tier);
+            container.getContainerProperties().setMessageListener(
+                    (AcknowledgingMessageListener<String, DocumentProcessingMessage>) (record, ack) ->
+                            release(record, ack, delayMs));
+            container.setBeanName("retry-tier-" + tier);
+            containers.add(container);
+        }
+    }
+
+    private void release(ConsumerRecord<String, DocumentProcessingMessage> record, Acknowledgment ack, long delayMs) {
+        long waitMs = record.timestamp() + delayMs - System.currentTimeMillis();
+        if (waitMs > 0) {
+            ack.nack(Duration.ofMillis(Math.min(waitMs, MAX_HOLD_MS)));
+            return;
+        }
+
+        DocumentProcessingMessage message = record.value();
+        if (message != null) {
+            try {
+                stageOutputPublisher.sendAndAwait(StageRetryRouter.stageTopicOf(record.topic()), record.key(), message);
+            } catch (Exception e) {
+                throw new KafkaException("Could not release retry of document " + record.key(), e);
+            }
+        }
+        ack.acknowledge();
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,159 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes stage output to the next pipeline topic.
+ * The number of unacknowledged sends is bounded, so a slow broker holds stages back
+ * here, where it is measured, instead of filling the producer buffer. A send that fails
+ * is re-routed to the error topic; only if that also fails does the send fail, so a
+ * stage that waits for delivery before returning never lets its offsets be committed
+ * past a document whose outcome was not recorded anywhere.
+ */
+@Component
+public class StageOutputPublisher {
+
+    public static final String ERROR_TOPIC = "document-error";
+
+    private final KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlightPermits;
+    private final long acquireTimeoutMs;
+    private final long deliveryTimeoutMs;
+
+    private final Map<String, AtomicInteger> inFlightByTopic = new ConcurrentHashMap<>();
+
+    public StageOutputPublisher(KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${pipeline.publisher.max-in-flight:256}") int maxInFlight,
+            @Value("${pipeline.publisher.acquire-timeout-ms:60000}") long acquireTimeoutMs,
+            @Value("${pipeline.publisher.delivery-timeout-ms:150000}") long deliveryTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlightPermits = new Semaphore(maxInFlight, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.deliveryTimeoutMs = deliveryTimeoutMs;
+
+        Gauge.builder("pipeline.publish.waiting", inFlightPermits, Semaphore::getQueueLength)
+                .description("Stage threads waiting for an in-flight send slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends a message without waiting for the broker.
+     * Blocks only while the in-flight limit is reached.
+     *
+     * @param topic   the destination topic
+     * @param key     the record key
+     * @param message the message to send
+     * @return completes once the message, or its failure report, is acknowledged
+     * @throws TimeoutException     if no send slot frees up within the acquire timeout
+     * @throws InterruptedException if interrupted while waiting for a send slot
+     */
+    public CompletableFuture<Void> send(String topic, String key, DocumentProcessingMessage message)
+            throws TimeoutException, InterruptedException {
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        acquirePermit(topic);
+        // Re-routing sends again, which must not run on the producer's I/O thread
+        sendTracked(topic, key, message, true).whenCompleteAsync((ignored, failure) -> {
+            if (failure == null) {
+                delivered.complete(null);
+            } else if (ERROR_TOPIC.equals(topic)) {
+                delivered.completeExceptionally(failure);
+            } else {
+                routeToErrorTopic(topic, key, message, failure, delivered);
+            }
+        });
+        return delivered;
+    }
+
+    /**
+     * Sends a message and waits until it, or its failure report, is acknowledged.
+     *
+     * @param topic   the destination topic
+     * @param key     the record key
+     * @param message the message to send
+     * @throws Exception if neither the message nor its failure report could be delivered
+     */
+    public void sendAndAwait(String topic, String key, DocumentProcessingMessage message) throws Exception {
+        try {
+            send(topic, key, message).get(deliveryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private void routeToErrorTopic(String topic, String key, DocumentProcessingMessage message,
+            Throwable failure, CompletableFuture<Void> delivered) {
+        System.err.println("Delivery of document " + key + " to " + topic + " failed: " + failure.getMessage());
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+        message.setErrorMessage("Delivery to " + topic + " failed: " + failure.getMessage());
+        // A dead-letter replay then delivers it where it was headed
+        message.setFailedTopic(topic);
+        // Takes no send slot: it stands in for the failed send, whose slot is already free,
+        // and waiting here could stall every other failure behind a saturated publisher
+        sendTracked(ERROR_TOPIC, key, message, false).whenComplete((ignored, errorFailure) -> {
+            if (errorFailure == null) {
+                delivered.complete(null);
+            } else {
+                delivered.completeExceptionally(errorFailure);
+            }
+        });
+    }
+
+    private void acquirePermit(String topic) throws TimeoutException, InterruptedException {
+        if (!inFlightPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No send slot for " + topic + " within " + acquireTimeoutMs + " ms");
+        }
+    }
+
+    private CompletableFuture<?> sendTracked(String topic, String key, DocumentProcessingMessage message,
+            boolean holdsPermit) {
+        AtomicInteger topicInFlight = inFlightFor(topic);
+        topicInFlight.incrementAndGet();
+        long start = System.nanoTime();
+
+        CompletableFuture<?> future;
+        try {
+            future = kafkaTemplate.send(topic, key, message);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, failure) -> {
+            topicInFlight.decrementAndGet();
+            if (holdsPermit) {
+                inFlightPermits.release();
+            }
+            Timer.builder("pipeline.publish.latency")
+                    .tag("topic", topic)
+                    .tag("outcome", failure == null ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private AtomicInteger inFlightFor(String topic) {
+        return inFlightByTopic.computeIfAbsent(topic, name -> {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder("pipeline.publish.inflight", inFlight, AtomicInteger::get)
+                    .tag("topic", name)
+                    .register(meterRegistry);
+            return inFlight;
+        });
+    }
+}
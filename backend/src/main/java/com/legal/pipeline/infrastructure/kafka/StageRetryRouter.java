@@ -0,0 +1,139 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides where a message goes when its stage fails.
+ * Transient failures, such as a full extraction pool or an unreachable store, are parked
+ * on the stage's retry topic for the next backoff tier (for example 10s, 1m, 10m), where
+ * {@link RetryTopicConsumer} holds them until due and then sends them back to the stage;
+ * the stage's own partitions never wait. Failures that cannot succeed on a retry, and
+ * those that used up every tier, go to the error topic and end up in the dead-letter store.
+ */
+@Component
+public class StageRetryRouter {
+
+    public static final List<String> STAGE_TOPICS =
+            List.of("document-tokenizer", "document-extractor", "document-categorizer");
+
+    private static final String RETRY_SUFFIX = "-retry-";
+
+    private final StageOutputPublisher stageOutputPublisher;
+    private final long[] tierDelaysMs;
+
+    private final Counter retried;
+    private final Counter exhausted;
+
+    public StageRetryRouter(StageOutputPublisher stageOutputPublisher, MeterRegistry meterRegistry,
+            @Value("${pipeline.retry.tier-delays-ms:10000,60000,600000}") long[] tierDelaysMs) {
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.tierDelaysMs = tierDelaysMs.clone();
+        this.retried = Counter.builder("pipeline.retry.scheduled").register(meterRegistry);
+        this.exhausted = Counter.builder("pipeline.retry.exhausted").register(meterRegistry);
+    }
+
+    /**
+     * Sends a failed message to its next retry tier, or to the error topic.
+     * The message's error message should already describe the failure.
+     *
+     * @param stageTopic the topic of the stage that failed
+     * @param message    the failed message
+     * @param failure    what the stage failed with
+     * @throws Exception if the message could not be delivered anywhere
+     */
+    public void routeFailure(String stageTopic, DocumentProcessingMessage message, Exception failure)
+            throws Exception {
+        // Attempts count per stage: a document that recovered earlier gets a fresh budget here
+        int attempt = stageTopic.equals(message.getFailedTopic()) ? message.getRetryAttempt() : 0;
+        message.setFailedTopic(stageTopic);
+
+        if (isRetryable(failure) && attempt < tierDelaysMs.length) {
+            message.setRetryAttempt(attempt + 1);
+            stageOutputPublisher.sendAndAwait(retryTopic(stageTopic, attempt), message.getDocumentId(), message);
+            retried.increment();
+            System.out.println("Document " + message.getDocumentId() + " scheduled for retry " + (attempt + 1) +
+                    " of " + stageTopic + " in " + tierDelaysMs[attempt] + " ms");
+            return;
+        }
+
+        if (attempt >= tierDelaysMs.length) {
+            exhausted.increment();
+        }
+        message.setRetryAttempt(attempt);
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+        stageOutputPublisher.sendAndAwait(StageOutputPublisher.ERROR_TOPIC, message.getDocumentId(), message);
+    }
+
+    /**
+     * @return every retry topic, grouped by tier
+     */
+    public List<List<String>> retryTopicsByTier() {
+        List<List<String>> tiers = new ArrayList<>();
+        for (int tier = 0; tier < tierDelaysMs.length; tier++) {
+            List<String> topics = new ArrayList<>();
+            for (String stageTopic : STAGE_TOPICS) {
+                topics.add(retryTopic(stageTopic, tier));
+            }
+            tiers.add(topics);
+        }
+        return tiers;
+    }
+
+    public long tierDelayMs(int tier) {
+        return tierDelaysMs[tier];
+    }
+
+    /**
+     * @param retryTopic a retry topic
+     * @return the stage topic the retry topic feeds back into
+     */
+    public static String stageTopicOf(String retryTopic) {
+        return retryTopic.substring(0, retryTopic.lastIndexOf(RETRY_SUFFIX));
+    }
+
+    static String retryTopic(String stageTopic, int tier) {
+        return stageTopic + RETRY_SUFFIX + tier;
+    }
+
+    /**
+     * Only failures known to be transient are retried: the pipeline's own back-pressure
+     * and timeouts, and unreachable brokers, stores and sockets, found anywhere in the
+     * cause chain. Everything else, including every parser error, comes from the document
+     * itself and would fail the same way every time.
+     */
+    static boolean isRetryable(Exception failure) {
+        Throwable cause = failure;
+        for (int depth = 0; cause != null && depth < 10; depth++) {
+            if (isTransient(cause)) {
+                return true;
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+        return false;
+    }
+
+    private static boolean isTransient(Throwable failure) {
+        return failure instanceof TimeoutException
+                || failure instanceof RejectedExecutionException
+                || failure instanceof InterruptedException
+                || failure instanceof SocketException
+                || failure instanceof SocketTimeoutException
+                || failure instanceof RetriableException
+                || failure instanceof TransientDataAccessException
+                || failure instanceof DataAccessResourceFailureException;
+    }
+}
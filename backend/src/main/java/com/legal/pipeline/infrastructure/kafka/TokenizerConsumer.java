@@ -1,61 +1,168 @@
 package com.legal.pipeline.infrastructure.kafka;
 
 import com.legal.pipeline.domain.DocumentProcessingMessage;
-import com.legal.pipeline.domain.strategy.ExtractionStrategyFactory;
-import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+import com.legal.pipeline.domain.chain.ValidationChain;
+import com.legal.pipeline.infrastructure.dedupe.StageDeduplicator;
+import com.legal.pipeline.infrastructure.extraction.DocumentExtractionService;
+import com.legal.pipeline.infrastructure.lanes.DocumentLane;
+import com.legal.pipeline.infrastructure.lanes.DocumentLaneRouter;
+import com.legal.pipeline.infrastructure.lanes.WeightedLaneScheduler;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Kafka consumer for the tokenizer/extraction stage of the document processing
  * pipeline.
- * Extracts text content from documents using appropriate strategies.
+ * Validates each document's file, extracts its text content using appropriate strategies,
+ * and passes it on. The text itself is only validated when content enforcement is on, so
+ * by default a document without legal wording still reaches the categorizer.
+ * Documents are read from two lanes, standard and large, each with its own listener
+ * pool; the lanes share the extraction workers by weight.
  */
 @Service
 public class TokenizerConsumer {
 
-    private final KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate;
-    private final ExtractionStrategyFactory extractionStrategyFactory;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final StageRetryRouter stageRetryRouter;
+    private final DocumentExtractionService documentExtractionService;
+    private final ValidationChain validationChain;
+    private final boolean enforceContentValidation;
+    private final ClaimCheckService claimCheckService;
+    private final FusedPipeline fusedPipeline;
+    private final StageDeduplicator stageDeduplicator;
+    private final DocumentLaneRouter documentLaneRouter;
+    private final WeightedLaneScheduler laneScheduler;
+    private final BatchRecordProcessor batchProcessor;
+    private final BatchRecordProcessor largeLaneProcessor;
+
+    public TokenizerConsumer(StageOutputPublisher stageOutputPublisher, StageRetryRouter stageRetryRouter,
+            DocumentExtractionService documentExtractionService, ValidationChain validationChain,
+            ClaimCheckService claimCheckService,
+            FusedPipeline fusedPipeline, StageDeduplicator stageDeduplicator,
+            DocumentLaneRouter documentLaneRouter, WeightedLaneScheduler laneScheduler, MeterRegistry meterRegistry,
+            @Value("${pipeline.stage.tokenizer.parallelism:4}") int parallelism,
+            @Value("${pipeline.stage.tokenizer-large.parallelism:1}") int largeLaneParallelism,
+            @Value("${pipeline.virtual-threads.enabled:false}") boolean virtualThreads,
+            @Value("${validation.content.enforce:false}") boolean enforceContentValidation) {
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.stageRetryRouter = stageRetryRouter;
+        this.documentExtractionService = documentExtractionService;
+        this.validationChain = validationChain;
+        this.enforceContentValidation = enforceContentValidation;
+        this.claimCheckService = claimCheckService;
+        this.fusedPipeline = fusedPipeline;
+        this.stageDeduplicator = stageDeduplicator;
+        this.documentLaneRouter = documentLaneRouter;
+        this.laneScheduler = laneScheduler;
+        this.batchProcessor = new BatchRecordProcessor("tokenizer", parallelism, virtualThreads, meterRegistry);
+        this.largeLaneProcessor = new BatchRecordProcessor("tokenizer-large", largeLaneParallelism, virtualThreads,
+                meterRegistry);
+    }
+
+    @KafkaListener(id = "tokenizer", idIsGroup = false,
+            topics = "document-tokenizer", groupId = "legal-document-processor-tokenizer",
+            containerFactory = KafkaListenerConfig.BATCH_FACTORY,
+            concurrency = "${pipeline.stage.tokenizer.concurrency:2}",
+            properties = {
+                    "max.poll.records:${pipeline.stage.tokenizer.batch-size:4}",
+                    "max.poll.interval.ms:${pipeline.stage.tokenizer.max-poll-interval-ms:600000}" })
+    public void consumeTokenizer(List<ConsumerRecord<String, DocumentProcessingMessage>> records) {
+        batchProcessor.process(records, this::tokenize);
+    }
+
+    @KafkaListener(id = "tokenizer-large", idIsGroup = false,
+            topics = "document-tokenizer-large", groupId = "legal-document-processor-tokenizer-large",
+            containerFactory = KafkaListenerConfig.BATCH_FACTORY,
+            concurrency = "${pipeline.stage.tokenizer-large.concurrency:1}",
+            properties = {
+                    "max.poll.records:${pipeline.stage.tokenizer-large.batch-size:1}",
+                    "max.poll.interval.ms:${pipeline.stage.tokenizer-large.max-poll-interval-ms:600000}" })
+    public void consumeTokenizerLarge(List<ConsumerRecord<String, DocumentProcessingMessage>> records) {
+        largeLaneProcessor.process(records, this::tokenizeLarge);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchProcessor.close();
+        largeLaneProcessor.close();
+    }
+
+    void tokenize(DocumentProcessingMessage message) throws Exception {
+        tokenize(message, DocumentLane.STANDARD);
+    }
 
-    public TokenizerConsumer(KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate,
-            ExtractionStrategyFactory extractionStrategyFactory) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.extractionStrategyFactory = extractionStrategyFactory;
+    void tokenizeLarge(DocumentProcessingMessage message) throws Exception {
+        tokenize(message, DocumentLane.LARGE);
     }
 
-    @KafkaListener(topics = "document-tokenizer", groupId = "legal-document-processor")
-    public void consumeTokenizer(DocumentProcessingMessage message) {
+    private void tokenize(DocumentProcessingMessage message, DocumentLane lane) throws Exception {
         String documentId = message.getDocumentId();
         if (documentId == null) {
             System.err.println("Received message with null document ID in TokenizerConsumer");
             return;
         }
 
+        // Producers and retries that write to the standard lane directly are re-laned here
+        if (lane == DocumentLane.STANDARD && documentLaneRouter.laneOf(message) == DocumentLane.LARGE) {
+            stageOutputPublisher.sendAndAwait(DocumentLane.LARGE.getTopic(), documentId, message);
+            System.out.println("Document " + documentId + " moved to the large-document lane");
+            return;
+        }
+
         System.out.println("Tokenizing document: " + documentId);
 
+        // A redelivery of a document this stage already finished skips the extraction.
+        // The hash is also the extraction cache key, so the file is hashed at most once.
+        String fileHash = stageDeduplicator.fileHash(message);
+        if (stageDeduplicator.resendIfCompleted("tokenizer", documentId, fileHash)) {
+            return;
+        }
+
+        // Fused documents keep their text in memory; it is checked in only on the way out
+        boolean fused = fusedPipeline.accepts(message);
         try {
-            // Get appropriate extraction strategy
-            IExtractionStrategy strategy = extractionStrategyFactory.getStrategy(message.getDocumentType());
-            if (strategy == null) {
-                throw new IllegalArgumentException(
-                        "No extraction strategy found for type: " + message.getDocumentType());
+            // Size and format are checked before paying for the extraction; the handlers log the reason
+            if (!validationChain.validateFile(message.getFilePath())) {
+                throw new IllegalArgumentException("Document rejected by format validation");
+            }
+            // Extract text content; cached, memory-governed and routed by document type.
+            // The lane permit is held only while the extraction runs, not for cache hits or memory waits
+            String content = documentExtractionService.extract(message.getFilePath(), message.getDocumentType(),
+                    fileHash, extraction -> laneScheduler.call(lane, extraction));
+            if (enforceContentValidation && !validationChain.validateContent(message.getFilePath(), content)) {
+                throw new IllegalArgumentException("Document rejected by content validation");
             }
-
-            // Extract text content
-            String content = strategy.extractText(message.getFilePath());
             message.setContent(content);
+            if (!fused) {
+                // Large text goes to the blob store; downstream topics carry only the reference
+                claimCheckService.checkIn(message);
+            }
             message.setCurrentStage("TOKENIZER");
 
-            // Send to extractor stage
-            kafkaTemplate.send("document-extractor", documentId, message);
-            System.out.println("Document " + documentId + " tokenized and sent to extractor stage");
-
         } catch (Exception e) {
-            message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
             message.setErrorMessage("Tokenization failed: " + e.getMessage());
-            kafkaTemplate.send("document-error", documentId, message);
+            stageRetryRouter.routeFailure("document-tokenizer", message, e);
             System.err.println("Tokenization failed for document " + documentId + ": " + e.getMessage());
+            return;
+        }
+
+        if (fused) {
+            if (fusedPipeline.process(message)) {
+                stageDeduplicator.recordCompleted("tokenizer", fileHash, "document-output", message);
+            }
+            return;
         }
+
+        // Send to extractor stage
+        stageOutputPublisher.sendAndAwait("document-extractor", documentId, message);
+        stageDeduplicator.recordCompleted("tokenizer", fileHash, "document-extractor", message);
+        System.out.println("Document " + documentId + " tokenized and sent to extractor stage");
     }
 }
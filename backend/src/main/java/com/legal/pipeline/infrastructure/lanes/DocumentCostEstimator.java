@@ -0,0 +1,70 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Estimates how expensive a document will be to extract, without opening it.
+ * The estimate is in PDF-equivalent bytes: the file size scaled by how costly its type
+ * is to parse per byte. Page counts are not used: nothing upstream knows them without
+ * opening the document, which is the cost this estimate exists to avoid. Documents at or
+ * above the threshold go to the large lane.
+ */
+@Component
+public class DocumentCostEstimator {
+
+    private final long largeCostThreshold;
+
+    public DocumentCostEstimator(
+            @Value("${pipeline.lanes.large-cost-threshold:2097152}") long largeCostThreshold) {
+        this.largeCostThreshold = largeCostThreshold;
+    }
+
+    /**
+     * @param message a message about to be tokenized
+     * @return the lane the document belongs in
+     */
+    public DocumentLane laneOf(DocumentProcessingMessage message) {
+        return estimateCost(message) >= largeCostThreshold ? DocumentLane.LARGE : DocumentLane.STANDARD;
+    }
+
+    /**
+     * @param message a message about to be tokenized
+     * @return the estimated cost; 0 if the file cannot be found, so the standard lane reports it
+     */
+    public long estimateCost(DocumentProcessingMessage message) {
+        if (message.getFilePath() == null) {
+            return 0;
+        }
+        long fileSize;
+        try {
+            fileSize = Files.size(Paths.get(message.getFilePath()));
+        } catch (IOException e) {
+            return 0;
+        }
+        return (long) (fileSize * typeFactor(message));
+    }
+
+    private static double typeFactor(DocumentProcessingMessage message) {
+        String type = message.getDocumentType();
+        if (type == null) {
+            String path = message.getFilePath();
+            type = path.substring(path.lastIndexOf('.') + 1);
+        }
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "txt":
+                return 0.1;
+            case "doc":
+            case "docx":
+                return 0.5;
+            default:
+                return 1.0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+/**
+ * Tokenizer lanes. Each lane is its own topic with its own listener pool, so documents
+ * that are expensive to extract queue behind each other rather than in front of cheap ones.
+ */
+public enum DocumentLane {
+
+    STANDARD("document-tokenizer"),
+    LARGE("document-tokenizer-large");
+
+    private final String topic;
+
+    DocumentLane(String topic) {
+        this.topic = topic;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+}
@@ -0,0 +1,62 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.kafka.StageOutputPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Entry point of the pipeline: sends each new document to the tokenizer lane that
+ * matches its estimated cost. Producers that still write straight to the standard
+ * lane's topic are re-laned by the tokenizer as it reads them.
+ */
+@Component
+public class DocumentLaneRouter {
+
+    private final DocumentCostEstimator costEstimator;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final Map<DocumentLane, Counter> routed = new EnumMap<>(DocumentLane.class);
+
+    public DocumentLaneRouter(DocumentCostEstimator costEstimator, StageOutputPublisher stageOutputPublisher,
+            MeterRegistry meterRegistry) {
+        this.costEstimator = costEstimator;
+        this.stageOutputPublisher = stageOutputPublisher;
+        for (DocumentLane lane : DocumentLane.values()) {
+            routed.put(lane, Counter.builder("pipeline.lanes.routed")
+                    .tag("lane", lane.name().toLowerCase(Locale.ROOT)).register(meterRegistry));
+        }
+    }
+
+    /**
+     * @param message a message about to be tokenized
+     * @return the lane the document belongs in
+     */
+    public DocumentLane laneOf(DocumentProcessingMessage message) {
+        return costEstimator.laneOf(message);
+    }
+
+    /**
+     * Sends a document to its lane without waiting for the broker, so callers can keep
+     * many documents in flight. Blocks only while the publisher's in-flight limit is reached.
+     *
+     * @param message a message about to be tokenized
+     * @return completes with the lane once the message, or its failure report, is acknowledged
+     * @throws TimeoutException     if no send slot frees up in time
+     * @throws InterruptedException if interrupted while waiting for a send slot
+     */
+    public CompletableFuture<DocumentLane> submitAsync(DocumentProcessingMessage message)
+            throws TimeoutException, InterruptedException {
+        DocumentLane lane = laneOf(message);
+        return stageOutputPublisher.send(lane.getTopic(), message.getDocumentId(), message).thenApply(ignored -> {
+            routed.get(lane).increment();
+            return lane;
+        });
+    }
+}
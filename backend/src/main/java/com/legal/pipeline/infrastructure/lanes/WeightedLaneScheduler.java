@@ -0,0 +1,152 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares the extraction workers between the tokenizer lanes by weight.
+ * Separate lanes stop a large document from holding up small ones on the same partition,
+ * but both lanes still extract on the same workers. Here each lane gets turns in
+ * proportion to its weight while both have work waiting (stride scheduling), an idle
+ * lane's share goes to the other, and the large lane can never hold the permits reserved
+ * for the standard lane, so a small document never waits for a large one to finish.
+ * <p>
+ * The reservation needs more permits than it reserves. The large lane always keeps at
+ * least one permit so it is never starved, so with a single extraction worker nothing is
+ * reserved and a small document can wait behind a large one; that case is logged at startup.
+ */
+@Component
+public class WeightedLaneScheduler {
+
+    private static final long STRIDE_BASE = 1L << 20;
+
+    private final int[] maxInFlight = new int[DocumentLane.values().length];
+    private final long[] stride = new long[DocumentLane.values().length];
+
+    // A lock rather than a monitor: lane work runs on virtual threads in that mode
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] turns = new Condition[DocumentLane.values().length];
+    private final int[] waiting = new int[DocumentLane.values().length];
+    private final int[] inFlight = new int[DocumentLane.values().length];
+    private final long[] pass = new long[DocumentLane.values().length];
+    private long virtualTime;
+    private int available;
+
+    public WeightedLaneScheduler(MeterRegistry meterRegistry,
+            @Value("${pipeline.lanes.extraction-permits:0}") int extractionPermits,
+            @Value("${extraction.executor.pool-size:4}") int extractionPoolSize,
+            @Value("${pipeline.lanes.standard-weight:3}") int standardWeight,
+            @Value("${pipeline.lanes.large-weight:1}") int largeWeight,
+            @Value("${pipeline.lanes.standard-reserved-permits:1}") int standardReservedPermits) {
+        int permits = extractionPermits > 0 ? extractionPermits : extractionPoolSize;
+        this.available = permits;
+        this.maxInFlight[DocumentLane.STANDARD.ordinal()] = permits;
+        this.maxInFlight[DocumentLane.LARGE.ordinal()] = Math.max(1, permits - standardReservedPermits);
+        if (standardReservedPermits > 0 && permits <= standardReservedPermits) {
+            System.err.println("Cannot reserve " + standardReservedPermits + " of " + permits +
+                    " extraction permits for the standard lane: the large lane keeps one, so only " +
+                    (permits - 1) + " are reserved and small documents may wait behind large ones");
+        }
+        this.stride[DocumentLane.STANDARD.ordinal()] = STRIDE_BASE / Math.max(1, standardWeight);
+        this.stride[DocumentLane.LARGE.ordinal()] = STRIDE_BASE / Math.max(1, largeWeight);
+        for (DocumentLane lane : DocumentLane.values()) {
+            turns[lane.ordinal()] = lock.newCondition();
+            Gauge.builder("pipeline.lanes.waiting", this, scheduler -> scheduler.waitingIn(lane))
+                    .tag("lane", lane.name().toLowerCase(Locale.ROOT)).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs lane work once the lane's turn comes up.
+     *
+     * @param lane the lane the work belongs to
+     * @param work the work
+     * @return the work's result
+     * @throws Exception if the work fails, or the wait is interrupted
+     */
+    public <T> T call(DocumentLane lane, Callable<T> work) throws Exception {
+        acquire(lane.ordinal());
+        try {
+            return work.call();
+        } finally {
+            release(lane.ordinal());
+        }
+    }
+
+    private void acquire(int lane) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiting[lane] == 0 && inFlight[lane] == 0) {
+                // A lane coming back from idle joins at the current position, with no credit saved up
+                pass[lane] = Math.max(pass[lane], virtualTime);
+            }
+            waiting[lane]++;
+            try {
+                while (nextLane() != lane) {
+                    turns[lane].await();
+                }
+            } finally {
+                waiting[lane]--;
+            }
+            available--;
+            inFlight[lane]++;
+            virtualTime = pass[lane];
+            pass[lane] += stride[lane];
+        } finally {
+            // Hand any remaining permit, or the turn this thread gave up, to whoever is next
+            signalNext();
+            lock.unlock();
+        }
+    }
+
+    private void release(int lane) {
+        lock.lock();
+        try {
+            available++;
+            inFlight[lane]--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the waiting lane with the lowest pass that may take a permit now, or -1
+     */
+    private int nextLane() {
+        if (available == 0) {
+            return -1;
+        }
+        int next = -1;
+        for (int lane = 0; lane < waiting.length; lane++) {
+            if (waiting[lane] > 0 && inFlight[lane] < maxInFlight[lane]
+                    && (next < 0 || pass[lane] < pass[next])) {
+                next = lane;
+            }
+        }
+        return next;
+    }
+
+    private void signalNext() {
+        int next = nextLane();
+        if (next >= 0) {
+            turns[next].signal();
+        }
+    }
+
+    private int waitingIn(DocumentLane lane) {
+        lock.lock();
+        try {
+            return waiting[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.legal.pipeline.infrastructure.storage;
+
+import java.io.IOException;
+
+/**
+ * Content-addressed store for payloads that are too large to travel on a Kafka topic.
+ * Blobs are written once under their content hash; writing the same hash again keeps the
+ * stored blob but restarts its retention period, since a new reader now depends on it.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores a blob unless one with the same hash is already present, in which case the
+     * existing blob's retention period starts over.
+     *
+     * @param contentHash the SHA-256 of the content, as lowercase hex
+     * @param content     the blob bytes
+     * @return a reference that {@link #get(String)} resolves back to the content
+     * @throws IOException if the blob cannot be written
+     */
+    String put(String contentHash, byte[] content) throws IOException;
+
+    /**
+     * Loads a blob.
+     *
+     * @param reference a reference previously returned by {@link #put(String, byte[])}
+     * @return the blob bytes, or null if the blob no longer exists
+     * @throws IOException if the blob cannot be read
+     */
+    byte[] get(String reference) throws IOException;
+}
@@ -0,0 +1,87 @@
+package com.legal.pipeline.infrastructure.storage;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.extraction.ContentHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Claim-check for document content on pipeline messages.
+ * Content above the size threshold is moved into the blob store and replaced on the
+ * message by a reference and its SHA-256, so topics carry only small envelopes. Stages
+ * that need the text resolve it on demand; stages that do not never pay for the fetch.
+ */
+@Service
+public class ClaimCheckService {
+
+    // UTF-8 never needs more than three bytes per UTF-16 char
+    private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final long thresholdBytes;
+
+    private final Counter checkedIn;
+    private final Counter resolved;
+
+    public ClaimCheckService(BlobStore blobStore, MeterRegistry meterRegistry,
+            @Value("${claim-check.enabled:true}") boolean enabled,
+            @Value("${claim-check.threshold-bytes:262144}") long thresholdBytes) {
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.checkedIn = Counter.builder("claimcheck.checked.in").register(meterRegistry);
+        this.resolved = Counter.builder("claimcheck.resolved").register(meterRegistry);
+    }
+
+    /**
+     * Moves the message content into the blob store if it is above the threshold.
+     * Smaller content is left inline.
+     *
+     * @param message the message whose content to check in
+     * @throws IOException if the blob cannot be stored
+     */
+    public void checkIn(DocumentProcessingMessage message) throws IOException {
+        String content = message.getContent();
+        if (!enabled || content == null || (long) content.length() * MAX_UTF8_BYTES_PER_CHAR <= thresholdBytes) {
+            return;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= thresholdBytes) {
+            return;
+        }
+        String contentHash = ContentHasher.sha256(bytes);
+        message.setContentRef(blobStore.put(contentHash, bytes));
+        message.setContentHash(contentHash);
+        message.setContent(null);
+        checkedIn.increment();
+    }
+
+    /**
+     * Returns the message content, fetching it from the blob store if it was checked in.
+     * The message itself is left unchanged, so forwarding it keeps the envelope small.
+     *
+     * @param message the message whose content to resolve
+     * @return the content, or null if the message carries none
+     * @throws IOException if the blob is missing, unreadable or does not match its hash
+     */
+    public String resolveContent(DocumentProcessingMessage message) throws IOException {
+        if (message.getContent() != null || message.getContentRef() == null) {
+            return message.getContent();
+        }
+        byte[] bytes = blobStore.get(message.getContentRef());
+        if (bytes == null) {
+            throw new IOException("Claim-checked content is no longer available: " + message.getContentRef());
+        }
+        if (message.getContentHash() != null && !message.getContentHash().equals(ContentHasher.sha256(bytes))) {
+            throw new IOException("Claim-checked content does not match its hash: " + message.getContentRef());
+        }
+        resolved.increment();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.legal.pipeline.infrastructure.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Blob store backed by a local (or shared, mounted) directory.
+ * Blobs are gzip-compressed and fanned out by hash prefix; references are the path
+ * relative to the store directory. Blobs older than the retention period are purged
+ * periodically, so a document that is still in flight after that long must be re-ingested.
+ */
+@Component
+@ConditionalOnProperty(name = "claim-check.store", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String BLOB_SUFFIX = ".blob.gz";
+
+    private final Path storeDirectory;
+    private final Duration retention;
+
+    public FileSystemBlobStore(
+            @Value("${claim-check.filesystem.dir:${java.io.tmpdir}/idp-claim-check}") String storeDirectory,
+            @Value("${claim-check.retention-hours:72}") long retentionHours) {
+        this.storeDirectory = Paths.get(storeDirectory).toAbsolutePath().normalize();
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Override
+    public String put(String contentHash, byte[] content) throws IOException {
+        String reference = contentHash.substring(0, 2) + "/" + contentHash + BLOB_SUFFIX;
+        Path blob = storeDirectory.resolve(reference);
+        if (Files.exists(blob)) {
+            try {
+                // The purge goes by modification time, so a reused blob must look freshly written
+                Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+                return reference;
+            } catch (NoSuchFileException e) {
+                // Purged since the check; write it again
+            }
+        }
+        Files.createDirectories(blob.getParent());
+        Path tempFile = Files.createTempFile(blob.getParent(), contentHash, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                out.write(content);
+            }
+            try {
+                Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, blob, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return reference;
+    }
+
+    @Override
+    public byte[] get(String reference) throws IOException {
+        Path blob = resolve(reference);
+        if (!Files.exists(blob)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(blob))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Deletes blobs that were written longer ago than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${claim-check.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!Files.isDirectory(storeDirectory)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Path> blobs;
+        try (Stream<Path> files = Files.walk(storeDirectory)) {
+            blobs = files.filter(path -> path.toString().endsWith(BLOB_SUFFIX)).collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Failed to scan claim-check directory: " + e.getMessage());
+            return;
+        }
+        int purged = 0;
+        for (Path blob : blobs) {
+            try {
+                if (Files.getLastModifiedTime(blob).toMillis() < cutoff && Files.deleteIfExists(blob)) {
+                    purged++;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to purge claim-check blob " + blob + ": " + e.getMessage());
+            }
+        }
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired claim-check blobs");
+        }
+    }
+
+    private Path resolve(String reference) throws IOException {
+        Path blob = storeDirectory.resolve(reference).normalize();
+        if (!blob.startsWith(storeDirectory)) {
+            throw new IOException("Blob reference escapes the store directory: " + reference);
+        }
+        return blob;
+    }
+}
@@ -0,0 +1,62 @@
+package com.legal.pipeline.infrastructure.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Blob store backed by Redis, for deployments where pipeline stages do not share a filesystem.
+ * Each blob is a single key that expires after the retention period.
+ */
+@Component
+@ConditionalOnProperty(name = "claim-check.store", havingValue = "redis")
+public class RedisBlobStore implements BlobStore {
+
+    private static final String KEY_PREFIX = "idp:blob:";
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration retention;
+
+    public RedisBlobStore(RedisConnectionFactory connectionFactory,
+            @Value("${claim-check.retention-hours:72}") long retentionHours) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(RedisSerializer.string());
+        this.redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        this.redisTemplate.afterPropertiesSet();
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Override
+    public String put(String contentHash, byte[] content) throws IOException {
+        String reference = KEY_PREFIX + contentHash;
+        try {
+            Boolean stored = redisTemplate.opsForValue().setIfAbsent(reference, content, retention);
+            if (!Boolean.TRUE.equals(stored)) {
+                // setIfAbsent leaves an existing key's TTL alone; restart it for the new reader
+                redisTemplate.expire(reference, retention);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to store blob " + reference + ": " + e.getMessage(), e);
+        }
+        return reference;
+    }
+
+    @Override
+    public byte[] get(String reference) throws IOException {
+        if (!reference.startsWith(KEY_PREFIX)) {
+            throw new IOException("Not a Redis blob reference: " + reference);
+        }
+        try {
+            return redisTemplate.opsForValue().get(reference);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to load blob " + reference + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.legal.pipeline.repository;
+
+import com.legal.pipeline.domain.DeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for DeadLetter entity.
+ */
+@Repository
+public interface DeadLetterRepository extends JpaRepository<DeadLetter, Long> {
+
+    /**
+     * Finds the dead letter a document left in a stage; a null topic matches failures
+     * that did not come from a stage.
+     */
+    Optional<DeadLetter> findByDocumentIdAndFailedTopic(String documentId, String failedTopic);
+
+    /**
+     * Finds dead letters that failed in a time window, optionally narrowed to one stage
+     * topic and one replay state, oldest first.
+     */
+    @Query("select d from DeadLetter d where d.failedAt >= :from and d.failedAt < :to" +
+            " and (:failedTopic is null or d.failedTopic = :failedTopic)" +
+            " and (:status is null or d.status = :status)" +
+            " order by d.failedAt, d.id")
+    Page<DeadLetter> search(@Param("failedTopic") String failedTopic,
+                            @Param("status") DeadLetter.Status status,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to,
+                            Pageable pageable);
+
+    /**
+     * Finds pending dead letters that can be replayed, in id order after the given id,
+     * so a replay can page through them while marking each one replayed.
+     */
+    @Query("select d from DeadLetter d where d.status = com.legal.pipeline.domain.DeadLetter.Status.PENDING" +
+            " and d.failedTopic is not null and d.failedAt >= :from and d.failedAt < :to" +
+            " and (:failedTopic is null or d.failedTopic = :failedTopic)" +
+            " and d.id > :afterId order by d.id")
+    List<DeadLetter> findReplayable(@Param("failedTopic") String failedTopic,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+}
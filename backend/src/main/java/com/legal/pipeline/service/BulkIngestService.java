@@ -0,0 +1,351 @@
+package com.legal.pipeline.service;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.chain.FormatValidationHandler;
+import com.legal.pipeline.domain.dto.IngestEntryResult;
+import com.legal.pipeline.domain.dto.IngestManifest;
+import com.legal.pipeline.domain.strategy.DocumentFormat;
+import com.legal.pipeline.domain.strategy.DocumentFormatSniffer;
+import com.legal.pipeline.infrastructure.extraction.ContentHasher;
+import com.legal.pipeline.infrastructure.lanes.DocumentLaneRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service class for bulk ingestion of ZIP productions.
+ * The archive is read as a stream, one entry at a time, and each entry is copied straight
+ * to its spool file, so neither the archive nor any document is ever held in memory.
+ * Entries with an unsupported extension are skipped without being written and entries
+ * over the size limit are cut off as they are copied. Each spooled entry is then
+ * validated on a worker pool while the stream moves on: its leading bytes must be a
+ * supported format, and an entry with the same bytes as an earlier one is reported as a
+ * duplicate instead of being processed twice. Accepted entries are sent to their
+ * tokenizer lane without waiting for each acknowledgement, and the producer groups the
+ * sends into batches.
+ * <p>
+ * The format rules are applied here by entry name and size, not through the
+ * {@link com.legal.pipeline.domain.chain.ValidationChain}: an entry has no file before it
+ * is spooled and no text before it is extracted, and an unsupported entry must be skipped
+ * before anything is written. The tokenizer runs the full chain on every accepted document.
+ * <p>
+ * The number of entries between spooling and acknowledgement is bounded, so a slow
+ * broker or a slow disk slows the upload instead of filling the spool. An entry that
+ * cannot be written to the spool is reported as failed and the archive is read on; only
+ * a failure to read the archive itself ends the ingest early.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final FormatValidationHandler formatValidationHandler;
+    private final DocumentLaneRouter documentLaneRouter;
+    private final Path spoolDirectory;
+    private final int maxPendingEntries;
+    private final int maxEntries;
+    private final ExecutorService validationExecutor;
+    private final Map<IngestEntryResult.Status, Counter> entryCounters = new HashMap<>();
+    private final Counter spooledBytes;
+
+    public BulkIngestService(FormatValidationHandler formatValidationHandler, DocumentLaneRouter documentLaneRouter,
+            MeterRegistry meterRegistry,
+            @Value("${ingest.spool-dir:${java.io.tmpdir}/idp-ingest}") String spoolDirectory,
+            @Value("${ingest.validation-threads:0}") int validationThreads,
+            @Value("${ingest.max-pending-entries:256}") int maxPendingEntries,
+            @Value("${ingest.max-entries:100000}") int maxEntries) {
+        this.formatValidationHandler = formatValidationHandler;
+        this.documentLaneRouter = documentLaneRouter;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        this.maxPendingEntries = Math.max(1, maxPendingEntries);
+        this.maxEntries = maxEntries;
+        int threads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.validationExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-validation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (IngestEntryResult.Status status : IngestEntryResult.Status.values()) {
+            entryCounters.put(status, Counter.builder("ingest.entries")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT)).register(meterRegistry));
+        }
+        this.spooledBytes = Counter.builder("ingest.spooled.bytes").register(meterRegistry);
+    }
+
+    /**
+     * Ingests every entry of a ZIP archive. Returns once each entry is rejected or its
+     * message, or failure report, is acknowledged.
+     *
+     * @param archive  the archive stream; read to the end but not closed
+     * @param matterId the matter the production belongs to, may be null
+     * @return the outcome of every entry, in archive order
+     * @throws IOException          if the spool directory cannot be created
+     * @throws InterruptedException if interrupted while waiting for entries in flight
+     */
+    public IngestManifest ingest(InputStream archive, String matterId) throws IOException, InterruptedException {
+        String ingestId = UUID.randomUUID().toString();
+        Path ingestDirectory = Files.createDirectories(spoolDirectory.resolve(ingestId));
+        List<CompletableFuture<IngestEntryResult>> results = new ArrayList<>();
+        ConcurrentMap<String, String> documentsByHash = new ConcurrentHashMap<>();
+        Semaphore pending = new Semaphore(maxPendingEntries);
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        String archiveError = null;
+
+        ZipInputStream zip = new ZipInputStream(archive);
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (results.size() >= maxEntries) {
+                    archiveError = "Archive has more than " + maxEntries + " entries; the rest were not read";
+                    break;
+                }
+                IngestEntryResult result = new IngestEntryResult(entry.getName());
+                // Extension first: an unsupported entry is never written
+                String reason = formatValidationHandler.rejectionReason(entry.getName(), 0);
+                if (reason != null) {
+                    results.add(CompletableFuture.completedFuture(result.reject(IngestEntryResult.Status.REJECTED,
+                            reason)));
+                    continue;
+                }
+
+                pending.acquire();
+                SpooledEntry spooled;
+                try {
+                    spooled = spool(zip, ingestDirectory, result, buffer);
+                } catch (ArchiveReadException | RuntimeException e) {
+                    pending.release();
+                    throw e;
+                } catch (IOException e) {
+                    // The archive is fine; this server could not store the entry
+                    pending.release();
+                    results.add(CompletableFuture.completedFuture(result.reject(IngestEntryResult.Status.FAILED,
+                            "Could not spool entry: " + e.getMessage())));
+                    continue;
+                }
+                results.add(CompletableFuture
+                        .supplyAsync(() -> validate(spooled, documentsByHash), validationExecutor)
+                        .thenCompose(valid -> valid ? publish(spooled, ingestId, matterId)
+                                : CompletableFuture.completedFuture(spooled.result))
+                        .exceptionally(failure -> spooled.result.reject(IngestEntryResult.Status.FAILED,
+                                "Validation failed: " + failure.getMessage()))
+                        .whenComplete((ignored, failure) -> pending.release()));
+            }
+        } catch (IOException e) {
+            // A truncated or corrupt archive: keep what was read before the damage
+            archiveError = "Archive unreadable after " + results.size() + " entries: " + e.getMessage();
+        }
+
+        List<IngestEntryResult> entries = new ArrayList<>(results.size());
+        boolean spoolKept = false;
+        for (CompletableFuture<IngestEntryResult> result : results) {
+            IngestEntryResult entry = result.join();
+            entryCounters.get(entry.getStatus()).increment();
+            // Failed entries keep their file so the error topic can replay them
+            spoolKept |= entry.getStatus() == IngestEntryResult.Status.ACCEPTED
+                    || entry.getStatus() == IngestEntryResult.Status.FAILED;
+            entries.add(entry);
+        }
+        if (!spoolKept) {
+            deleteQuietly(ingestDirectory);
+        }
+        System.out.println("Ingest " + ingestId + " read " + entries.size() + " entries" +
+                (archiveError != null ? "; " + archiveError : ""));
+        return new IngestManifest(ingestId, matterId, entries, archiveError);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdownNow();
+    }
+
+    /**
+     * An entry copied to the spool, with its leading bytes kept for sniffing.
+     */
+    private static final class SpooledEntry {
+        final IngestEntryResult result;
+        final Path path;
+        final byte[] header;
+        final int headerLength;
+        // Set once validated; read by the publishing step of the same entry
+        volatile String hash;
+
+        SpooledEntry(IngestEntryResult result, Path path, byte[] header, int headerLength) {
+            this.result = result;
+            this.path = path;
+            this.header = header;
+            this.headerLength = headerLength;
+        }
+    }
+
+    /**
+     * A failure to read the archive, as opposed to one to write the spool.
+     */
+    private static final class ArchiveReadException extends IOException {
+        ArchiveReadException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Copies the current entry to a new spool file named after a fresh document id; the
+     * entry name is never used as a path. Past the size limit the rest of the entry is
+     * read and discarded.
+     *
+     * @throws ArchiveReadException if the archive cannot be read
+     * @throws IOException          if the spool file cannot be written
+     */
+    private SpooledEntry spool(ZipInputStream zip, Path ingestDirectory, IngestEntryResult result, byte[] buffer)
+            throws IOException {
+        String documentId = UUID.randomUUID().toString();
+        String name = result.getEntryName();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        Path path = ingestDirectory.resolve(documentId + "." + extension);
+        result.setDocumentId(documentId);
+
+        long limit = formatValidationHandler.getMaxFileSize();
+        byte[] header = new byte[DocumentFormatSniffer.SNIFF_BYTES];
+        int headerLength = 0;
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(path)) {
+            int read;
+            while ((read = readEntry(zip, buffer)) != -1) {
+                if (headerLength < header.length) {
+                    int copied = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copied);
+                    headerLength += copied;
+                }
+                if (size + read <= limit) {
+                    out.write(buffer, 0, read);
+                }
+                size += read;
+            }
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        result.setSizeBytes(size);
+        spooledBytes.increment(Math.min(size, limit));
+        return new SpooledEntry(result, path, header, headerLength);
+    }
+
+    private static int readEntry(ZipInputStream zip, byte[] buffer) throws ArchiveReadException {
+        try {
+            return zip.read(buffer);
+        } catch (IOException e) {
+            throw new ArchiveReadException(e);
+        }
+    }
+
+    /**
+     * @return true if the entry may be published; otherwise its result says why not
+     */
+    private boolean validate(SpooledEntry entry, ConcurrentMap<String, String> documentsByHash) {
+        IngestEntryResult result = entry.result;
+        try {
+            String reason = formatValidationHandler.rejectionReason(result.getEntryName(), result.getSizeBytes());
+            if (reason == null && result.getSizeBytes() == 0) {
+                reason = "Empty file";
+            }
+            DocumentFormat format = DocumentFormatSniffer.sniff(ByteBuffer.wrap(entry.header, 0, entry.headerLength));
+            if (reason == null && format == DocumentFormat.UNKNOWN) {
+                reason = "Content is not a supported document format";
+            }
+            if (reason != null) {
+                Files.deleteIfExists(entry.path);
+                result.reject(IngestEntryResult.Status.REJECTED, reason);
+                return false;
+            }
+
+            String hash = ContentHasher.sha256(entry.path);
+            String original = documentsByHash.putIfAbsent(hash, result.getDocumentId());
+            if (original != null) {
+                Files.deleteIfExists(entry.path);
+                result.reject(IngestEntryResult.Status.DUPLICATE, "Same content as document " + original);
+                return false;
+            }
+            entry.hash = hash;
+            // Route by content, as the extractor would: the sniffed format outranks the extension
+            result.setDocumentType(format.getDocumentType());
+            return true;
+        } catch (IOException e) {
+            deleteQuietly(entry.path);
+            result.reject(IngestEntryResult.Status.REJECTED, "Unreadable spooled entry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private CompletableFuture<IngestEntryResult> publish(SpooledEntry entry, String ingestId, String matterId) {
+        IngestEntryResult result = entry.result;
+        DocumentProcessingMessage message = new DocumentProcessingMessage(result.getDocumentId(),
+                entry.path.toString(), result.getDocumentType());
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("ingestId", ingestId);
+        metadata.put("archiveEntry", result.getEntryName());
+        metadata.put("sizeBytes", result.getSizeBytes());
+        metadata.put("fileHash", entry.hash);
+        if (matterId != null) {
+            metadata.put("matterId", matterId);
+        }
+        message.setMetadata(metadata);
+
+        try {
+            return documentLaneRouter.submitAsync(message).handle((lane, failure) -> {
+                if (failure != null) {
+                    return result.reject(IngestEntryResult.Status.FAILED, "Publish failed: " + failure.getMessage());
+                }
+                result.setLane(lane.name());
+                // The publisher reports an undeliverable message to the error topic and marks it failed
+                if (message.getStatus() == DocumentProcessingMessage.ProcessingStatus.FAILED) {
+                    return result.reject(IngestEntryResult.Status.FAILED, message.getErrorMessage());
+                }
+                result.setStatus(IngestEntryResult.Status.ACCEPTED);
+                return result;
+            });
+        } catch (TimeoutException e) {
+            return CompletableFuture.completedFuture(result.reject(IngestEntryResult.Status.FAILED,
+                    "Publish timed out waiting for a send slot"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(result.reject(IngestEntryResult.Status.FAILED,
+                    "Interrupted before publishing"));
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete spooled entry " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.legal.pipeline.service;
+
+import com.legal.pipeline.domain.DeadLetter;
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.kafka.DocumentProcessingMessageCodec;
+import com.legal.pipeline.infrastructure.kafka.StageOutputPublisher;
+import com.legal.pipeline.repository.DeadLetterRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service class for the dead-letter store.
+ * Keeps every message the pipeline gave up on, and replays them in bulk back into the
+ * stage they failed in. Replays run one at a time in the background at a fixed maximum
+ * rate, so recovering a bad hour does not flood the stages it feeds.
+ */
+@Service
+public class DeadLetterService {
+
+    private static final int REPLAY_PAGE_SIZE = 200;
+    private static final int PAYLOAD_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private final DeadLetterRepository deadLetterRepository;
+    private final StageOutputPublisher stageOutputPublisher;
+    private final long replayIntervalNanos;
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dead-letter-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeadLetterService(DeadLetterRepository deadLetterRepository, StageOutputPublisher stageOutputPublisher,
+            @Value("${pipeline.dead-letter.replay-rate-per-second:50}") int replayRatePerSecond) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.stageOutputPublisher = stageOutputPublisher;
+        this.replayIntervalNanos = 1_000_000_000L / Math.max(1, replayRatePerSecond);
+    }
+
+    /**
+     * Stores a failed message. If the document already has a dead letter for the same
+     * stage, as after a redelivery or a failed replay, that one is updated and pending again.
+     *
+     * @param message the message the pipeline gave up on
+     * @return the stored dead letter
+     */
+    public DeadLetter record(DocumentProcessingMessage message) {
+        try {
+            return deadLetterRepository.save(merge(message));
+        } catch (DataIntegrityViolationException e) {
+            // Another consumer stored the same document and stage first; update its row instead
+            return deadLetterRepository.save(merge(message));
+        }
+    }
+
+    /**
+     * Finds dead letters that failed in a time window, oldest first.
+     *
+     * @param failedTopic the stage topic to narrow to, or null for all
+     * @param status      the replay state to narrow to, or null for all
+     * @param from        start of the window, inclusive
+     * @param to          end of the window, exclusive
+     * @param page        the page number
+     * @param size        the page size
+     * @return one page of matching dead letters
+     */
+    public Page<DeadLetter> search(String failedTopic, DeadLetter.Status status, LocalDateTime from,
+            LocalDateTime to, int page, int size) {
+        return deadLetterRepository.search(failedTopic, status, from, to, PageRequest.of(page, size));
+    }
+
+    /**
+     * Schedules a replay of pending dead letters back into the stages they failed in.
+     * Each replayed message starts with a fresh retry budget.
+     *
+     * @param failedTopic the stage topic to narrow to, or null for all
+     * @param from        start of the failure window, inclusive
+     * @param to          end of the failure window, exclusive
+     * @param limit       the most dead letters to replay
+     */
+    public void replay(String failedTopic, LocalDateTime from, LocalDateTime to, int limit) {
+        replayExecutor.execute(() -> runReplay(failedTopic, from, to, limit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    private void runReplay(String failedTopic, LocalDateTime from, LocalDateTime to, int limit) {
+        long afterId = 0;
+        int replayed = 0;
+        int failed = 0;
+        long nextSendNanos = System.nanoTime();
+
+        while (replayed + failed < limit && !Thread.currentThread().isInterrupted()) {
+            List<DeadLetter> page = deadLetterRepository.findReplayable(failedTopic, from, to, afterId,
+                    PageRequest.of(0, Math.min(REPLAY_PAGE_SIZE, limit - replayed - failed)));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (DeadLetter deadLetter : page) {
+                afterId = deadLetter.getId();
+                LockSupport.parkNanos(nextSendNanos - System.nanoTime());
+                nextSendNanos = Math.max(nextSendNanos, System.nanoTime()) + replayIntervalNanos;
+                try {
+                    replayOne(deadLetter);
+                    replayed++;
+                } catch (Exception e) {
+                    failed++;
+                    System.err.println("Replay of dead letter " + deadLetter.getId() + " failed: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.println("Dead-letter replay finished: " + replayed + " replayed, " + failed + " failed");
+    }
+
+    private void replayOne(DeadLetter deadLetter) throws Exception {
+        DocumentProcessingMessage message = DocumentProcessingMessageCodec.decode(deadLetter.getPayload());
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.PENDING);
+        message.setErrorMessage(null);
+        message.setRetryAttempt(0);
+        message.setFailedTopic(null);
+        stageOutputPublisher.sendAndAwait(deadLetter.getFailedTopic(), message.getDocumentId(), message);
+
+        deadLetter.setStatus(DeadLetter.Status.REPLAYED);
+        deadLetter.setReplayedAt(LocalDateTime.now());
+        deadLetterRepository.save(deadLetter);
+    }
+
+    private DeadLetter merge(DocumentProcessingMessage message) {
+        DeadLetter deadLetter = deadLetterRepository
+                .findByDocumentIdAndFailedTopic(message.getDocumentId(), message.getFailedTopic())
+                .orElseGet(DeadLetter::new);
+        deadLetter.setDocumentId(message.getDocumentId());
+        deadLetter.setDocumentType(message.getDocumentType());
+        deadLetter.setFailedTopic(message.getFailedTopic());
+        deadLetter.setErrorMessage(truncate(message.getErrorMessage()));
+        deadLetter.setRetryAttempts(message.getRetryAttempt());
+        deadLetter.setFailedAt(LocalDateTime.now());
+        deadLetter.setStatus(DeadLetter.Status.PENDING);
+        deadLetter.setReplayedAt(null);
+        deadLetter.setPayload(DocumentProcessingMessageCodec.encode(message, PAYLOAD_COMPRESSION_THRESHOLD_BYTES));
+        return deadLetter;
+    }
+
+    private static String truncate(String errorMessage) {
+        return errorMessage != null && errorMessage.length() > 4000 ? errorMessage.substring(0, 4000) : errorMessage;
+    }
+}
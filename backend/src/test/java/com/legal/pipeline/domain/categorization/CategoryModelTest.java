@@ -0,0 +1,123 @@
+package com.legal.pipeline.domain.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryModelTest {
+
+    private static final String[] CONTRACTS = {
+            "This lease agreement is made between the landlord and the tenant. The tenant shall pay rent monthly.",
+            "The supplier agrees to deliver the goods. Payment terms are net thirty days from invoice.",
+            "This services agreement sets out the obligations of each party and the fees payable.",
+            "The licensee shall pay royalties to the licensor under this license agreement.",
+            "Either party may terminate this agreement on thirty days written notice to the other party.",
+            "The buyer shall pay the purchase price to the seller at closing under this agreement."
+    };
+    private static final String[] FILINGS = {
+            "The plaintiff filed a motion to dismiss in the district court. The defendant opposed the motion.",
+            "The court granted summary judgment for the defendant and dismissed the complaint with prejudice.",
+            "Plaintiff alleges negligence and seeks damages. Defendant denies liability. Jury trial demanded.",
+            "The appellate court reversed the judgment of the trial court and remanded the case.",
+            "The defendant was served with the summons and complaint and must answer within twenty days.",
+            "The judge ordered discovery to close before the hearing on the motion for sanctions."
+    };
+    private static final String[] MINUTES = {
+            "Minutes of the meeting of the board of directors. The board approved the annual budget.",
+            "The shareholders elected three directors at the annual general meeting of the company.",
+            "The board declared a quarterly dividend payable to shareholders of record.",
+            "Resolution of the board of directors authorising the issue of new shares of the company.",
+            "The directors approved the merger and recommended it to the shareholders for a vote.",
+            "The company secretary recorded the resolutions passed at the board meeting."
+    };
+
+    private final CategoryModel model = new CategoryModelTrainer(16, 30, 0.5, 1e-6, 7).train(examples());
+
+    @Test
+    void testUnseenDocumentsGetTheirCategory() {
+        assertEquals("CONTRACT", model.score("The tenant shall pay the landlord rent under the lease agreement.", 0.5)
+                .getBestCategory());
+        assertEquals("LEGAL_DOCUMENT", model.score("The defendant moved to dismiss the complaint; the court denied " +
+                "the motion.", 0.5).getBestCategory());
+        assertEquals("CORPORATE", model.score("The board of directors approved a dividend for shareholders.", 0.5)
+                .getBestCategory());
+    }
+
+    @Test
+    void testScoresAreProbabilities() {
+        CategoryScores scores = model.score("The court entered judgment for the plaintiff.", 0.5);
+
+        for (String category : model.getCategories()) {
+            assertTrue(scores.getScore(category) > 0 && scores.getScore(category) < 1);
+        }
+        assertTrue(scores.getScore("LEGAL_DOCUMENT") > 0.5);
+        assertTrue(scores.getScore("CONTRACT") < 0.5);
+        assertEquals(List.of("LEGAL_DOCUMENT"), scores.getLabels());
+    }
+
+    @Test
+    void testDocumentMayCarrySeveralLabels() {
+        List<CategoryModelTrainer.Example> examples = examples();
+        examples.add(new CategoryModelTrainer.Example("The court approved the settlement agreement between the " +
+                "parties and the plaintiff dismissed the complaint.", List.of("CONTRACT", "LEGAL_DOCUMENT")));
+        examples.add(new CategoryModelTrainer.Example("The parties signed a settlement agreement and the court " +
+                "entered a consent judgment.", List.of("CONTRACT", "LEGAL_DOCUMENT")));
+        CategoryModel multiLabel = new CategoryModelTrainer(16, 30, 0.5, 1e-6, 7).train(examples);
+
+        CategoryScores scores = multiLabel.score("The court approved the settlement agreement between the parties.",
+                0.3);
+
+        assertTrue(scores.getLabels().containsAll(List.of("CONTRACT", "LEGAL_DOCUMENT")));
+    }
+
+    @Test
+    void testNoLabelAboveThresholdIsGeneral() {
+        assertEquals(CategoryScores.GENERAL, model.score("Shopping list: eggs, milk.", 0.99).getBestCategory());
+    }
+
+    @Test
+    void testModelSurvivesWriteAndRead() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        model.writeTo(bytes);
+        CategoryModel read = CategoryModel.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        String text = "The board of directors approved the lease agreement after the court hearing.";
+        assertEquals(model.getCategories(), read.getCategories());
+        for (String category : model.getCategories()) {
+            assertEquals(model.score(text, 0.5).getScore(category), read.score(text, 0.5).getScore(category));
+        }
+    }
+
+    @Test
+    void testReadRejectsOtherData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        }
+
+        assertThrows(IOException.class, () -> CategoryModel.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static List<CategoryModelTrainer.Example> examples() {
+        List<CategoryModelTrainer.Example> examples = new ArrayList<>();
+        for (String text : CONTRACTS) {
+            examples.add(new CategoryModelTrainer.Example(text, List.of("CONTRACT")));
+        }
+        for (String text : FILINGS) {
+            examples.add(new CategoryModelTrainer.Example(text, List.of("LEGAL_DOCUMENT")));
+        }
+        for (String text : MINUTES) {
+            examples.add(new CategoryModelTrainer.Example(text, List.of("CORPORATE")));
+        }
+        return examples;
+    }
+}
@@ -0,0 +1,66 @@
+package com.legal.pipeline.domain.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KeywordAutomaton.
+ */
+class KeywordAutomatonTest {
+
+    @Test
+    void testMatchesAreCaseInsensitiveAndWholeWord() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("court", "board"));
+
+        assertEquals(List.of(0, 1, 0), matches(automaton, "The COURT asked the Board; the court agreed."));
+        assertEquals(List.of(), matches(automaton, "A courtesy copy in cardboard packaging."));
+    }
+
+    @Test
+    void testPrefixKeywordsMatchAnyEnding() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("contract*"));
+
+        assertEquals(List.of(0, 0, 0), matches(automaton, "Contracts and contractual terms of the contract."));
+        assertEquals(List.of(), matches(automaton, "The subcontractor."));
+    }
+
+    @Test
+    void testPhrasesMatchAcrossWhitespaceAndPunctuation() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("governing law", "non-disclosure"));
+
+        assertEquals(List.of(0, 1), matches(automaton, "GOVERNING\n   LAW. This Non Disclosure agreement"));
+    }
+
+    @Test
+    void testOverlappingKeywordsAreAllReported() {
+        KeywordAutomaton automaton = new KeywordAutomaton(
+                List.of("terms", "terms and conditions", "conditions", "board of directors", "directors"));
+
+        assertEquals(List.of(0, 1, 2, 3, 4),
+                matches(automaton, "terms and conditions set by the board of directors"));
+    }
+
+    @Test
+    void testNonAsciiKeywords() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("société anonyme", "gmbh"));
+
+        assertEquals(List.of(0, 1), matches(automaton, "Acme SOCIÉTÉ ANONYME and Beta GmbH"));
+    }
+
+    @Test
+    void testMatchAtStartAndEndOfText() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("whereas", "thereof"));
+
+        assertEquals(List.of(0, 1), matches(automaton, "Whereas ... in witness thereof"));
+    }
+
+    private static List<Integer> matches(KeywordAutomaton automaton, String text) {
+        List<Integer> matches = new ArrayList<>();
+        automaton.scan(text, matches::add);
+        return matches;
+    }
+}
@@ -0,0 +1,63 @@
+package com.legal.pipeline.domain.categorization;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KeywordCategorizer.
+ */
+class KeywordCategorizerTest {
+
+    private final KeywordCategorizer categorizer =
+            new KeywordCategorizer(new ClassPathResource("categorization/keywords.txt"));
+
+    @Test
+    void testContractScoresHighestForAnAgreement() {
+        CategoryScores scores = categorizer.score("This Non-Disclosure Agreement is entered into by the parties. " +
+                "In witness whereof, the parties have executed this Agreement.");
+
+        assertEquals("CONTRACT", scores.getBestCategory());
+        assertTrue(scores.getHits("CONTRACT") >= 4);
+    }
+
+    @Test
+    void testEvidenceOutweighsDeclarationOrder() {
+        // One contract term against several litigation terms: the old first-match rule said CONTRACT
+        CategoryScores scores = categorizer.score("Plaintiff filed a complaint in the District Court. " +
+                "Defendant moved to dismiss under the terms of the summons.");
+
+        assertEquals("LEGAL_DOCUMENT", scores.getBestCategory());
+        assertTrue(scores.getScore("LEGAL_DOCUMENT") > scores.getScore("CONTRACT"));
+        assertEquals(1, scores.getHits("CONTRACT"));
+    }
+
+    @Test
+    void testNoKeywordsIsGeneral() {
+        assertEquals(CategoryScores.GENERAL, categorizer.score("Shopping list: eggs, milk.").getBestCategory());
+    }
+
+    @Test
+    void testKeywordMayCountTowardsSeveralCategories() {
+        KeywordCategorizer shared = new KeywordCategorizer(List.of(
+                new String[] { "CONTRACT", "Settlement", "1" },
+                new String[] { "LEGAL_DOCUMENT", "settlement", "2" }));
+
+        CategoryScores scores = shared.score("The settlement.");
+
+        assertEquals(1.0, scores.getScore("CONTRACT"));
+        assertEquals(2.0, scores.getScore("LEGAL_DOCUMENT"));
+        assertEquals("LEGAL_DOCUMENT", scores.getBestCategory());
+    }
+
+    @Test
+    void testScoresAndHitsAreReportedPerCategory() {
+        CategoryScores scores = categorizer.score("The board of directors declared a dividend.");
+
+        assertEquals(List.of("CORPORATE"), List.copyOf(scores.scoresByCategory().keySet()));
+        assertEquals(4, scores.hitsByCategory().get("CORPORATE"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.legal.pipeline.domain.chain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ContentScannerTest {
+
+    @Test
+    void testMeasuresEveryDeclaredFeatureInOnePass() {
+        ContentScanner scanner = new ContentScanner(
+                EnumSet.of(ContentFeature.SENTENCES, ContentFeature.CHARACTER_CLASSES),
+                List.of("court*", "terms and conditions"));
+
+        ContentProfile profile = scanner.scan("The Court ruled! Courts apply the Terms and\nConditions, at 9am?");
+
+        assertEquals(63, profile.getLength());
+        assertEquals(2, profile.getSentenceCount());
+        assertEquals(2, profile.getTermHits("court*"));
+        assertEquals(1, profile.getTermHits("terms and conditions"));
+        assertEquals(49, profile.getCount(CharacterClass.LETTER));
+        assertEquals(1, profile.getCount(CharacterClass.DIGIT));
+        assertEquals(10, profile.getCount(CharacterClass.WHITESPACE));
+        assertEquals(3, profile.getCount(CharacterClass.PUNCTUATION));
+    }
+
+    @Test
+    void testNullContentIsEmpty() {
+        ContentProfile profile = new ContentScanner(EnumSet.of(ContentFeature.SENTENCES), List.of("court")).scan(null);
+
+        assertEquals(0, profile.getLength());
+        assertEquals(0, profile.getSentenceCount());
+        assertEquals(0, profile.getTermHits("court"));
+    }
+
+    @Test
+    void testUndeclaredMeasurementsAreRejected() {
+        ContentProfile profile = new ContentScanner(EnumSet.noneOf(ContentFeature.class), List.of("court"))
+                .scan("The court.");
+
+        assertThrows(IllegalStateException.class, profile::getSentenceCount);
+        assertThrows(IllegalStateException.class, () -> profile.getCount(CharacterClass.LETTER));
+        assertThrows(IllegalArgumentException.class, () -> profile.getTermHits("judge"));
+    }
+}
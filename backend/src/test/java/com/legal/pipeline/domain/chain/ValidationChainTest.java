@@ -0,0 +1,167 @@
+package com.legal.pipeline.domain.chain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationChainTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testCheapSelectiveHandlerMovesFirst() {
+        ExpensiveCheck expensive = new ExpensiveCheck(List.of());
+        CheapCheck cheap = new CheapCheck(List.of());
+        ValidationChain chain = new ValidationChain(List.of(expensive, cheap), 1.0, 10, clock::get);
+        assertEquals(List.of("ExpensiveCheck", "CheapCheck"), chain.getOrder());
+
+        validateMixedBatch(chain);
+        chain.reorder();
+
+        assertEquals(List.of("CheapCheck", "ExpensiveCheck"), chain.getOrder());
+        // Bad documents no longer reach the expensive check
+        int before = expensive.calls;
+        assertFalse(chain.validate("bad-1", "content"));
+        assertEquals(before, expensive.calls);
+    }
+
+    @Test
+    void testOrderingConstraintIsRespected() {
+        CheapCheck cheap = new CheapCheck(List.of(ExpensiveCheck.class));
+        ValidationChain chain = new ValidationChain(List.of(cheap, new ExpensiveCheck(List.of())), 1.0, 10,
+                clock::get);
+        assertEquals(List.of("ExpensiveCheck", "CheapCheck"), chain.getOrder());
+
+        validateMixedBatch(chain);
+        chain.reorder();
+
+        assertEquals(List.of("ExpensiveCheck", "CheapCheck"), chain.getOrder());
+    }
+
+    @Test
+    void testTooFewSamplesKeepTheOrder() {
+        ValidationChain chain = new ValidationChain(List.of(new ExpensiveCheck(List.of()), new CheapCheck(List.of())),
+                1.0, 1000, clock::get);
+
+        validateMixedBatch(chain);
+        chain.reorder();
+
+        assertEquals(List.of("ExpensiveCheck", "CheapCheck"), chain.getOrder());
+    }
+
+    @Test
+    void testCircularConstraintsAreRejected() {
+        List<IValidationHandler> handlers = List.of(new CheapCheck(List.of(ExpensiveCheck.class)),
+                new ExpensiveCheck(List.of(CheapCheck.class)));
+
+        assertThrows(IllegalStateException.class, () -> new ValidationChain(handlers, 1.0, 10, clock::get));
+    }
+
+    @Test
+    void testContentIsScannedOnlyWhenAHandlerReadsIt() {
+        CheapCheck cheap = new CheapCheck(List.of());
+        TermCheck terms = new TermCheck();
+        ValidationChain chain = new ValidationChain(List.of(cheap, terms), 1.0, 10, clock::get);
+
+        assertFalse(chain.validate("bad-1", "The lease."));
+        assertEquals(0, terms.calls);
+        assertTrue(chain.validate("good-1", "The lease."));
+        assertEquals(1, terms.hits);
+        // The cheap check ran before anything needed the scan, so it saw only the length
+        assertThrows(IllegalStateException.class, () -> cheap.lastProfile.getSentenceCount());
+    }
+
+    @Test
+    void testStatusReportsOrderAndStatistics() {
+        ValidationChain chain = new ValidationChain(List.of(new ExpensiveCheck(List.of()), new CheapCheck(List.of())),
+                1.0, 10, clock::get);
+        validateMixedBatch(chain);
+        chain.reorder();
+
+        Map<String, Object> status = chain.status();
+
+        assertEquals(List.of("CheapCheck", "ExpensiveCheck"), status.get("order"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cheap = (Map<String, Object>) ((Map<String, Object>) status.get("handlers"))
+                .get("CheapCheck");
+        assertEquals(100L, cheap.get("evaluations"));
+        assertEquals(50L, cheap.get("rejections"));
+        assertEquals(0.5, cheap.get("rejectionRate"));
+        assertEquals(0.01, cheap.get("meanCostMicros"));
+    }
+
+    private void validateMixedBatch(ValidationChain chain) {
+        for (int i = 0; i < 100; i++) {
+            chain.validate((i % 2 == 0 ? "bad-" : "good-") + i, "content");
+        }
+    }
+
+    /**
+     * Charges a fixed cost to the clock and rejects documents whose id starts with "bad".
+     */
+    private abstract class CostedCheck extends AbstractValidationHandler {
+        private final long costNanos;
+        private final boolean rejectsBad;
+        private final Collection<Class<? extends IValidationHandler>> runsAfter;
+        int calls;
+        ContentProfile lastProfile;
+
+        CostedCheck(long costNanos, boolean rejectsBad, Collection<Class<? extends IValidationHandler>> runsAfter) {
+            this.costNanos = costNanos;
+            this.rejectsBad = rejectsBad;
+            this.runsAfter = runsAfter;
+        }
+
+        @Override
+        public Collection<Class<? extends IValidationHandler>> runsAfter() {
+            return runsAfter;
+        }
+
+        @Override
+        protected boolean performValidation(String documentId, String content, ContentProfile profile) {
+            calls++;
+            lastProfile = profile;
+            clock.addAndGet(costNanos);
+            return !(rejectsBad && documentId.startsWith("bad"));
+        }
+    }
+
+    private class CheapCheck extends CostedCheck {
+        CheapCheck(Collection<Class<? extends IValidationHandler>> runsAfter) {
+            super(10, true, runsAfter);
+        }
+    }
+
+    private class ExpensiveCheck extends CostedCheck {
+        ExpensiveCheck(Collection<Class<? extends IValidationHandler>> runsAfter) {
+            super(1000, false, runsAfter);
+        }
+    }
+
+    private class TermCheck extends CostedCheck {
+        int hits;
+
+        TermCheck() {
+            super(100, false, List.of());
+        }
+
+        @Override
+        public Collection<String> requiredTerms() {
+            return List.of("lease");
+        }
+
+        @Override
+        protected boolean performValidation(String documentId, String content, ContentProfile profile) {
+            hits += profile.getTermHits("lease");
+            return super.performValidation(documentId, content, profile);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.legal.pipeline.domain.chain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testContentWithLegalTermsAndSentencesPasses() {
+        ContentValidationHandler handler = new ContentValidationHandler();
+
+        assertTrue(handler.validate("doc-1", "This Agreement binds both parties. Each party signs below."));
+    }
+
+    @Test
+    void testContentWithoutLegalTermsFails() {
+        ContentValidationHandler handler = new ContentValidationHandler();
+
+        assertFalse(handler.validate("doc-1", "The weather was fine. We went for a walk."));
+    }
+
+    @Test
+    void testContentWithOneSentenceFails() {
+        ContentValidationHandler handler = new ContentValidationHandler();
+
+        assertFalse(handler.validate("doc-1", "The contracting parties agree"));
+    }
+
+    @Test
+    void testFormatHandlerChecksFile() throws IOException {
+        FormatValidationHandler handler = new FormatValidationHandler();
+        Path text = Files.writeString(tempDir.resolve("lease.txt"), "lease");
+        Path image = Files.writeString(tempDir.resolve("scan.png"), "png");
+
+        assertTrue(handler.validate(text.toString(), null));
+        assertFalse(handler.validate(image.toString(), null));
+        assertFalse(handler.validate(tempDir.resolve("missing.pdf").toString(), null));
+    }
+
+    @Test
+    void testChainSharesOneProfile() {
+        RecordingHandler first = new RecordingHandler(EnumSet.of(ContentFeature.CHARACTER_CLASSES), List.of(), true);
+        RecordingHandler second = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of("lease"), true);
+        ValidationChain chain = new ValidationChain(List.of(first, second), 0.3, 50, System::nanoTime);
+
+        assertTrue(chain.validate("doc-1", "Lease 42. The lease ends."));
+
+        assertEquals(1, first.profiles.size());
+        assertSame(first.profiles.get(0), second.profiles.get(0));
+        // Features declared by either handler are measured for both
+        assertEquals(2, second.profiles.get(0).getTermHits("lease"));
+        assertEquals(2, second.profiles.get(0).getCount(CharacterClass.DIGIT));
+    }
+
+    @Test
+    void testChainStopsAtFirstFailure() {
+        RecordingHandler first = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of(), false);
+        RecordingHandler second = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of(), true);
+        ValidationChain chain = new ValidationChain(List.of(first, second), 0.3, 50, System::nanoTime);
+
+        assertFalse(chain.validate("doc-1", "content"));
+        assertTrue(second.profiles.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testLinkedHandlersStillValidateInOrder() {
+        RecordingHandler first = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of(), true);
+        RecordingHandler rejecting = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of(), false);
+        RecordingHandler last = new RecordingHandler(EnumSet.noneOf(ContentFeature.class), List.of(), true);
+        first.setNextHandler(rejecting);
+        rejecting.setNextHandler(last);
+
+        assertFalse(first.validate("doc-1", "content"));
+        assertEquals(1, rejecting.profiles.size());
+        assertTrue(last.profiles.isEmpty());
+
+        // Relinking takes effect on the next validation
+        first.setNextHandler(last);
+        assertTrue(first.validate("doc-1", "content"));
+        assertEquals(1, last.profiles.size());
+    }
+
+    private static class RecordingHandler extends AbstractValidationHandler {
+        private final Set<ContentFeature> features;
+        private final List<String> terms;
+        private final boolean result;
+        private final List<ContentProfile> profiles = new ArrayList<>();
+
+        RecordingHandler(Set<ContentFeature> features, List<String> terms, boolean result) {
+            this.features = features;
+            this.terms = terms;
+            this.result = result;
+        }
+
+        @Override
+        public Set<ContentFeature> requiredFeatures() {
+            return features;
+        }
+
+        @Override
+        public Collection<String> requiredTerms() {
+            return terms;
+        }
+
+        @Override
+        protected boolean performValidation(String documentId, String content, ContentProfile profile) {
+            profiles.add(profile);
+            return result;
+        }
+    }
+}
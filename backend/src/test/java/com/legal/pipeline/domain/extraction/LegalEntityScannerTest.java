@@ -0,0 +1,71 @@
+package com.legal.pipeline.domain.extraction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LegalEntityScanner.
+ */
+class LegalEntityScannerTest {
+
+    private static final String AGREEMENT = String.join("\n",
+            "MASTER SERVICES AGREEMENT",
+            "This Agreement is entered into by and between Acme Holdings, Inc., a Delaware corporation,",
+            "and Beta Logistics LLC (the \"Provider\"), effective as of January 15, 2024.",
+            "1. Definitions",
+            "1.1 The Provider shall deliver the services described in Exhibit A.",
+            "2. Fees and Payment",
+            "The Client shall pay $1,250,000.00 per year, plus 5,000 dollars in expenses, by 03/31/2025.",
+            "ARTICLE IV. GOVERNING LAW",
+            "This Agreement shall be governed by and construed in accordance with the laws of the State of New York, "
+                    + "without regard to conflict of laws principles.",
+            "Signed on the 2nd day of February, 2024.");
+
+    private LegalEntityScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        scanner = new LegalEntityScanner();
+    }
+
+    @Test
+    void testExtractsParties() {
+        LegalEntities entities = scanner.scan(AGREEMENT);
+        assertEquals(List.of("Acme Holdings, Inc.", "Beta Logistics LLC"), entities.getParties());
+    }
+
+    @Test
+    void testExtractsDatesAndEffectiveDate() {
+        LegalEntities entities = scanner.scan(AGREEMENT);
+        assertEquals("January 15, 2024", entities.getEffectiveDate());
+        assertEquals(List.of("January 15, 2024", "03/31/2025", "2nd day of February, 2024"), entities.getDates());
+    }
+
+    @Test
+    void testExtractsMonetaryAmounts() {
+        LegalEntities entities = scanner.scan(AGREEMENT);
+        assertEquals(List.of("$1,250,000.00", "5,000 dollars"), entities.getMonetaryAmounts());
+    }
+
+    @Test
+    void testExtractsGoverningLawAndHeadings() {
+        LegalEntities entities = scanner.scan(AGREEMENT);
+        assertEquals("State of New York", entities.getGoverningLaw());
+        assertEquals(List.of("MASTER SERVICES AGREEMENT", "1. Definitions", "2. Fees and Payment",
+                "ARTICLE IV. GOVERNING LAW"), entities.getClauseHeadings());
+    }
+
+    @Test
+    void testWritesOnlyFoundEntitiesToMetadata() {
+        Map<String, Object> metadata = new HashMap<>();
+        scanner.scan("No entities here.").writeTo(metadata);
+        assertTrue(metadata.isEmpty());
+        assertTrue(scanner.scan(null).getParties().isEmpty());
+    }
+}
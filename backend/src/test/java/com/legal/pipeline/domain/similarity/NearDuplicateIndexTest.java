@@ -0,0 +1,137 @@
+package com.legal.pipeline.domain.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearDuplicateIndexTest {
+
+    private final NearDuplicateIndex index = new NearDuplicateIndex(5, 8, 6, 1_000_000);
+
+    @Test
+    void testSameAgreementWithOtherPartiesIsNearDuplicate() {
+        findOrAdd("nda-acme", agreement(1, "Acme Holdings", "Jane Roe"));
+
+        NearDuplicateIndex.Match match = findOrAdd("nda-globex", agreement(1, "Globex Corporation", "John Doe"));
+
+        assertNotNull(match);
+        assertEquals("nda-acme", match.getDocumentId());
+        assertTrue(match.getSimilarity() > 0.8, "similarity " + match.getSimilarity());
+    }
+
+    @Test
+    void testUnrelatedAndPartlySimilarDocumentsAreNotMatched() {
+        String original = agreement(1, "Acme Holdings", "Jane Roe");
+        findOrAdd("nda-acme", original);
+
+        assertNull(findOrAdd("lease", agreement(2, "Acme Holdings", "Jane Roe")));
+        // Shares its first half with the original: a Jaccard similarity of about a third
+        String half = original.substring(0, original.length() / 2) + " " + agreement(3, "Initech", "Bob Slydell");
+        assertNull(findOrAdd("amended", half));
+    }
+
+    @Test
+    void testRedeliveredDocumentIsNotItsOwnDuplicate() {
+        String text = agreement(1, "Acme Holdings", "Jane Roe");
+        assertNull(findOrAdd("nda-acme", text));
+
+        assertNull(findOrAdd("nda-acme", text));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testMatchesSurviveTheTablesGrowing() {
+        findOrAdd("nda-acme", agreement(1, "Acme Holdings", "Jane Roe"));
+        for (int i = 0; i < 3000; i++) {
+            findOrAdd("filler-" + i, randomWords(new Random(1000 + i), 60));
+        }
+
+        NearDuplicateIndex.Match match = findOrAdd("nda-globex", agreement(1, "Globex Corporation", "John Doe"));
+
+        assertEquals(3002, index.size());
+        assertEquals("nda-acme", match.getDocumentId());
+    }
+
+    @Test
+    void testFullIndexStillAnswersLookups() {
+        NearDuplicateIndex small = new NearDuplicateIndex(5, 8, 6, 1);
+        small.findOrAdd("nda-acme", small.signature(agreement(1, "Acme Holdings", "Jane Roe")), 0.8);
+
+        NearDuplicateIndex.Match match = small.findOrAdd("nda-globex",
+                small.signature(agreement(1, "Globex Corporation", "John Doe")), 0.8);
+
+        assertTrue(small.isFull());
+        assertEquals(1, small.size());
+        assertEquals("nda-acme", match.getDocumentId());
+    }
+
+    @Test
+    void testShortTextsAreSignedAndEmptyOnesAreNot() {
+        assertNull(findOrAdd("note-1", "Signed."));
+        assertEquals("note-1", findOrAdd("note-2", "SIGNED").getDocumentId());
+        assertNull(index.signature(" -- ; "));
+    }
+
+    @Test
+    void testIndexSurvivesWriteAndRead() throws IOException {
+        findOrAdd("nda-acme", agreement(1, "Acme Holdings", "Jane Roe"));
+        findOrAdd("lease", agreement(2, "Acme Holdings", "Jane Roe"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(bytes);
+
+        NearDuplicateIndex read = NearDuplicateIndex.read(new ByteArrayInputStream(bytes.toByteArray()), 1_000_000);
+
+        assertEquals(2, read.size());
+        assertTrue(read.isCompatibleWith(5, 8, 6));
+        NearDuplicateIndex.Match match = read.findOrAdd("lease-2",
+                read.signature(agreement(2, "Globex Corporation", "John Doe")), 0.8);
+        assertEquals("lease", match.getDocumentId());
+    }
+
+    @Test
+    void testReadRejectsOtherData() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        }
+
+        assertThrows(IOException.class,
+                () -> NearDuplicateIndex.read(new ByteArrayInputStream(bytes.toByteArray()), 10));
+    }
+
+    private NearDuplicateIndex.Match findOrAdd(String documentId, String text) {
+        return index.findOrAdd(documentId, index.signature(text), 0.8);
+    }
+
+    /**
+     * A long agreement whose body depends only on the seed, naming its two parties throughout.
+     */
+    static String agreement(long seed, String disclosingParty, String receivingParty) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder("This agreement is made between " + disclosingParty + " and " +
+                receivingParty + ".");
+        for (int clause = 0; clause < 8; clause++) {
+            text.append(' ').append(randomWords(random, 180)).append(". ")
+                    .append(clause % 2 == 0 ? disclosingParty : receivingParty).append(" shall comply.");
+        }
+        return text.toString();
+    }
+
+    static String randomWords(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            words.append(i > 0 ? " " : "").append("w").append(random.nextInt(2000));
+        }
+        return words.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.legal.pipeline.domain.strategy;
+
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DocxExtractionStrategy.
+ */
+class DocxExtractionStrategyTest {
+
+    private DocxExtractionStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new DocxExtractionStrategy();
+    }
+
+    @Test
+    void testSupports() {
+        assertTrue(strategy.supports("docx"));
+        assertTrue(strategy.supports("DOC"));
+        assertFalse(strategy.supports("pdf"));
+    }
+
+    @Test
+    void testExtractsHeadersParagraphsTablesAndFooters(@TempDir Path tempDir) throws Exception {
+        Path docx = tempDir.resolve("contract.docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(docx)) {
+            XWPFHeaderFooterPolicy policy = document.createHeaderFooterPolicy();
+            policy.createHeader(XWPFHeaderFooterPolicy.DEFAULT).createParagraph().createRun().setText("CONFIDENTIAL");
+            document.createParagraph().createRun().setText("This Agreement is made between the parties.");
+            XWPFTable table = document.createTable(1, 2);
+            table.getRow(0).getCell(0).setText("Term");
+            table.getRow(0).getCell(1).setText("Five years");
+            policy.createFooter(XWPFHeaderFooterPolicy.DEFAULT).createParagraph().createRun().setText("Page footer");
+            document.write(out);
+        }
+
+        String text = strategy.extractText(docx.toString());
+
+        assertTrue(text.startsWith("CONFIDENTIAL"));
+        assertTrue(text.contains("This Agreement is made between the parties.\n"));
+        assertTrue(text.contains("Term \tFive years \t\n"));
+        assertTrue(text.trim().endsWith("Page footer"));
+    }
+
+    @Test
+    void testExtractsLegacyWordDocument(@TempDir Path tempDir) throws Exception {
+        // A Word 97 file with an odd-page header, two paragraphs and an odd-page footer
+        Path doc = tempDir.resolve("lease.doc");
+        try (InputStream in = getClass().getResourceAsStream("/documents/legacy-lease.doc")) {
+            Files.copy(in, doc);
+        }
+
+        String text = strategy.extractText(doc.toString());
+
+        assertTrue(text.startsWith("CONFIDENTIAL"));
+        assertTrue(text.contains("This Lease Agreement is made between the Landlord and the Tenant."));
+        assertTrue(text.contains("The Tenant shall pay rent on the first day of each month."));
+        assertTrue(text.trim().endsWith("Page footer"));
+        assertTrue(text.indexOf("CONFIDENTIAL") < text.indexOf("Lease Agreement"));
+    }
+
+    @Test
+    void testExtractTextWithInvalidFile() {
+        assertThrows(Exception.class, () -> strategy.extractText("nonexistent.docx"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.legal.pipeline.domain.strategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExtractionStrategyFactory routing.
+ */
+class ExtractionStrategyFactoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PDFExtractionStrategy pdfStrategy;
+    private DocxExtractionStrategy docxStrategy;
+    private TextExtractionStrategy textStrategy;
+    private ExtractionStrategyFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pdfStrategy = new PDFExtractionStrategy();
+        docxStrategy = new DocxExtractionStrategy();
+        textStrategy = new TextExtractionStrategy();
+        factory = new ExtractionStrategyFactory(List.of(pdfStrategy, docxStrategy, textStrategy), meterRegistry);
+    }
+
+    @Test
+    void testRoutesByDeclaredType() {
+        assertSame(pdfStrategy, factory.getStrategy("PDF"));
+        assertSame(docxStrategy, factory.getStrategy("doc"));
+        assertSame(textStrategy, factory.getStrategy("txt"));
+        assertThrows(IllegalArgumentException.class, () -> factory.getStrategy("xls"));
+    }
+
+    @Test
+    void testRoutesMislabelledFileByContent() throws Exception {
+        Path file = Files.write(tempDir.resolve("exhibit.docx"), "%PDF-1.7\n%âã".getBytes());
+
+        ExtractionRoute route = factory.route(file.toString(), "docx");
+
+        assertSame(pdfStrategy, route.getStrategy());
+        assertEquals("pdf", route.getDocumentType());
+        assertTrue(route.isMislabelled());
+        assertEquals(1.0, meterRegistry.counter("extraction.router.type.mismatch").count());
+    }
+
+    @Test
+    void testSniffsWordDocumentsButNotOtherZipArchives() throws Exception {
+        Path word = Files.write(tempDir.resolve("brief.bin"), zipEntryHeader("[Content_Types].xml"));
+        Path archive = Files.write(tempDir.resolve("exhibits.docx"), zipEntryHeader("exhibit-a.pdf"));
+        Path saved = tempDir.resolve("saved.docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(saved)) {
+            document.createParagraph().createRun().setText("Motion to dismiss.");
+            document.write(out);
+        }
+
+        assertEquals(DocumentFormat.OOXML, DocumentFormatSniffer.sniff(word));
+        assertEquals(DocumentFormat.OOXML, DocumentFormatSniffer.sniff(saved));
+        assertEquals(DocumentFormat.OOXML, DocumentFormatSniffer.sniff(streamedZip(tempDir.resolve("streamed.docx"))));
+        assertEquals(DocumentFormat.UNKNOWN, DocumentFormatSniffer.sniff(archive));
+        // An unrecognised archive falls back to its declared type rather than being counted as a mismatch
+        assertSame(docxStrategy, factory.route(archive.toString(), "docx").getStrategy());
+        assertEquals(0.0, meterRegistry.counter("extraction.router.type.mismatch").count());
+    }
+
+    @Test
+    void testSniffsOle2AndText() throws Exception {
+        byte[] ole2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1, 0, 0};
+        Path legacy = Files.write(tempDir.resolve("memo.doc"), ole2);
+        Path transcript = Files.writeString(tempDir.resolve("transcript.txt"), "THE COURT: Be seated.\n");
+
+        assertSame(docxStrategy, factory.route(legacy.toString(), "doc").getStrategy());
+        assertSame(textStrategy, factory.route(transcript.toString(), "txt").getStrategy());
+        assertEquals(0.0, meterRegistry.counter("extraction.router.type.mismatch").count());
+    }
+
+    /**
+     * A Word-like ZIP written as a stream: entries carry trailing data descriptors, and the
+     * content types part is not the first entry.
+     */
+    private static Path streamedZip(Path path) throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            zip.putNextEntry(new ZipEntry("customXml/item1.xml"));
+            zip.write("<b:Sources xmlns:b=\"urn:sources\"/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            zip.write("<w:document/>".getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    /**
+     * A ZIP local file header for a stored, empty entry with the given name.
+     */
+    private static byte[] zipEntryHeader(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer header = ByteBuffer.allocate(30 + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x04034B50).putShort((short) 20).putShort((short) 0).putShort((short) 0)
+                .putInt(0).putInt(0).putInt(0).putInt(0)
+                .putShort((short) nameBytes.length).putShort((short) 0).put(nameBytes);
+        return header.array();
+    }
+}
@@ -1,9 +1,18 @@
 package com.legal.pipeline.domain.strategy;
 
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -35,6 +44,64 @@ class PDFExtractionStrategyTest {
         assertNotNull(exception);
     }
 
-    // Note: Integration test with actual PDF file would require test resources
-    // For now, we test the interface contract
+    @Test
+    void testStreamingExtractionEmitsOneChunkPerPageRange(@TempDir Path tempDir) throws Exception {
+        Path pdf = createPdf(tempDir.resolve("exhibit.pdf"), 5);
+        PDFExtractionStrategy streamingStrategy = new PDFExtractionStrategy(1024 * 1024, 2, tempDir.toString(), 0,
+                null);
+
+        List<String> chunks = new ArrayList<>();
+        streamingStrategy.extractText(pdf.toString(), chunks::add);
+
+        assertEquals(3, chunks.size());
+        assertTrue(chunks.get(0).contains("Page 1") && chunks.get(0).contains("Page 2"));
+        assertTrue(chunks.get(2).contains("Page 5"));
+        assertEquals(String.join("", chunks), streamingStrategy.extractText(pdf.toString()));
+    }
+
+    @Test
+    void testParallelExtractionPreservesPageOrder(@TempDir Path tempDir) throws Exception {
+        Path pdf = createPdf(tempDir.resolve("filing.pdf"), 12);
+        PDFExtractionStrategy sequential = new PDFExtractionStrategy(1024 * 1024, 2, "", 0, null);
+
+        try (PDFExtractionPool pool = new PDFExtractionPool(4)) {
+            PDFExtractionStrategy parallel = new PDFExtractionStrategy(1024 * 1024, 2, "", 4, pool);
+            String text = parallel.extractText(pdf.toString());
+            assertEquals(sequential.extractText(pdf.toString()), text);
+            assertTrue(text.indexOf("Page 3 ") < text.indexOf("Page 11 "));
+        }
+    }
+
+    @Test
+    void testInterruptedParallelExtractionStops(@TempDir Path tempDir) throws Exception {
+        Path pdf = createPdf(tempDir.resolve("filing.pdf"), 12);
+
+        try (PDFExtractionPool pool = new PDFExtractionPool(4)) {
+            PDFExtractionStrategy parallel = new PDFExtractionStrategy(1024 * 1024, 2, "", 4, pool);
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(InterruptedException.class, () -> parallel.extractText(pdf.toString()));
+            } finally {
+                assertTrue(Thread.interrupted());
+            }
+        }
+    }
+
+    private Path createPdf(Path path, int pageCount) throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 1; i <= pageCount; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 12);
+                    contents.newLineAtOffset(72, 700);
+                    contents.showText("Page " + i + " of the agreement.");
+                    contents.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+        return path;
+    }
 }
@@ -0,0 +1,76 @@
+package com.legal.pipeline.domain.strategy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TextExtractionStrategy.
+ */
+class TextExtractionStrategyTest {
+
+    private static final String TRANSCRIPT = "THE COURT: Counsel, proceed. Señor García's exhibit costs €250.";
+
+    @TempDir
+    Path tempDir;
+
+    private TextExtractionStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new TextExtractionStrategy();
+    }
+
+    @Test
+    void testSupports() {
+        assertTrue(strategy.supports("txt"));
+        assertFalse(strategy.supports("pdf"));
+    }
+
+    @Test
+    void testDecodesUtf8WithoutBom() throws Exception {
+        Path file = Files.write(tempDir.resolve("utf8.txt"), TRANSCRIPT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(TRANSCRIPT, strategy.extractText(file.toString()));
+    }
+
+    @Test
+    void testDecodesUtf16LittleEndianWithBom() throws Exception {
+        byte[] body = TRANSCRIPT.getBytes(StandardCharsets.UTF_16LE);
+        byte[] withBom = new byte[body.length + 2];
+        withBom[0] = (byte) 0xFF;
+        withBom[1] = (byte) 0xFE;
+        System.arraycopy(body, 0, withBom, 2, body.length);
+        Path file = Files.write(tempDir.resolve("utf16.txt"), withBom);
+
+        assertEquals(TRANSCRIPT, strategy.extractText(file.toString()));
+    }
+
+    @Test
+    void testFallsBackToWindows1252ForInvalidUtf8() throws Exception {
+        Path file = Files.write(tempDir.resolve("legacy.txt"), TRANSCRIPT.getBytes(Charset.forName("windows-1252")));
+        assertEquals(TRANSCRIPT, strategy.extractText(file.toString()));
+    }
+
+    @Test
+    void testEmitsLargeFilesInChunks() throws Exception {
+        String line = "Q. Please state your name for the record.\n";
+        Path file = Files.writeString(tempDir.resolve("deposition.txt"), line.repeat(5000));
+
+        StringBuilder text = new StringBuilder();
+        int[] chunks = {0};
+        strategy.extractText(file.toString(), chunk -> {
+            chunks[0]++;
+            text.append(chunk);
+        });
+
+        assertTrue(chunks[0] > 1);
+        assertEquals(line.repeat(5000), text.toString());
+    }
+}
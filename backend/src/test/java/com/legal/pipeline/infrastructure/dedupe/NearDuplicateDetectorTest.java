@@ -0,0 +1,102 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NearDuplicateDetector.
+ */
+class NearDuplicateDetectorTest {
+
+    private LocalStageCompletionStore store;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalStageCompletionStore(1024 * 1024, 24);
+    }
+
+    @Test
+    void testNearDuplicateIsTaggedInMetadata() {
+        NearDuplicateDetector detector = detector(false, 8);
+        Map<String, Object> first = new HashMap<>();
+        assertNull(detector.findNearDuplicate("nda-acme", agreement("Acme Holdings"), first));
+        assertTrue(first.isEmpty());
+
+        Map<String, Object> second = new HashMap<>();
+        String original = detector.findNearDuplicate("nda-globex", agreement("Globex Corporation"), second);
+
+        assertEquals("nda-acme", original);
+        assertEquals("nda-acme", second.get("nearDuplicateOf"));
+        assertTrue((Double) second.get("nearDuplicateSimilarity") > 0.8);
+    }
+
+    @Test
+    void testRecordedResultsAreReusedOnlyWhenEnabled() {
+        Map<String, Object> results = new HashMap<>();
+        results.put("category", "CONTRACT");
+        results.put("categoryLabels", List.of("CONTRACT"));
+
+        NearDuplicateDetector reusing = detector(true, 8);
+        reusing.recordResults("categorizer", "nda-acme", results);
+        assertEquals(results, reusing.reusableResults("categorizer", "nda-acme"));
+        assertNull(reusing.reusableResults("categorizer", "unknown"));
+
+        NearDuplicateDetector tagging = detector(false, 8);
+        assertNull(tagging.reusableResults("categorizer", "nda-acme"));
+    }
+
+    @Test
+    void testIndexIsReloadedFromItsSnapshot() {
+        NearDuplicateDetector detector = detector(false, 8);
+        detector.findNearDuplicate("nda-acme", agreement("Acme Holdings"), new HashMap<>());
+        detector.shutdown();
+        assertTrue(Files.exists(tempDir.resolve("index.bin")));
+
+        NearDuplicateDetector restarted = detector(false, 8);
+
+        assertEquals("nda-acme", restarted.findNearDuplicate("nda-globex", agreement("Globex Corporation"),
+                new HashMap<>()));
+    }
+
+    @Test
+    void testSnapshotWithOtherSettingsIsDiscarded() {
+        NearDuplicateDetector detector = detector(false, 8);
+        detector.findNearDuplicate("nda-acme", agreement("Acme Holdings"), new HashMap<>());
+        detector.snapshot();
+
+        NearDuplicateDetector rebanded = detector(false, 12);
+
+        assertNull(rebanded.findNearDuplicate("nda-globex", agreement("Globex Corporation"), new HashMap<>()));
+    }
+
+    private NearDuplicateDetector detector(boolean reuseResults, int bands) {
+        return new NearDuplicateDetector(store, new SimpleMeterRegistry(), true, 0.8, reuseResults, 5, bands, 6,
+                1000, tempDir.resolve("index.bin").toString());
+    }
+
+    private static String agreement(String party) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder("This agreement is made with " + party + ".");
+        for (int clause = 0; clause < 6; clause++) {
+            for (int i = 0; i < 200; i++) {
+                text.append(" w").append(random.nextInt(2000));
+            }
+            text.append(". ").append(party).append(" shall comply.");
+        }
+        return text.toString();
+    }
+}
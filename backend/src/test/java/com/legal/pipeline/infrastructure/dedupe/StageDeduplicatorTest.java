@@ -0,0 +1,130 @@
+package com.legal.pipeline.infrastructure.dedupe;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.kafka.StageOutputPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StageDeduplicator.
+ */
+class StageDeduplicatorTest {
+
+    private StageOutputPublisher publisher;
+    private LocalStageCompletionStore store;
+    private StageDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        publisher = mock(StageOutputPublisher.class);
+        store = new LocalStageCompletionStore(1024 * 1024, 24);
+        deduplicator = new StageDeduplicator(store, publisher, new SimpleMeterRegistry(), true);
+    }
+
+    @Test
+    void testUnknownInputIsProcessed() throws Exception {
+        assertFalse(deduplicator.resendIfCompleted("tokenizer", "doc-1", "hash-1"));
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void testCompletedInputResendsRecordedOutput() throws Exception {
+        DocumentProcessingMessage output = message("Extracted agreement text");
+        deduplicator.recordCompleted("tokenizer", "hash-1", "document-extractor", output);
+
+        assertTrue(deduplicator.resendIfCompleted("tokenizer", "doc-1", "hash-1"));
+
+        ArgumentCaptor<DocumentProcessingMessage> resent = ArgumentCaptor.forClass(DocumentProcessingMessage.class);
+        verify(publisher).sendAndAwait(eq("document-extractor"), eq("doc-1"), resent.capture());
+        assertEquals("Extracted agreement text", resent.getValue().getContent());
+        assertEquals("TOKENIZER", resent.getValue().getCurrentStage());
+    }
+
+    @Test
+    void testRecordedTokenizerOutputRoundTrips() throws Exception {
+        // As the tokenizer sends it: compressed text plus ingest and extraction metadata
+        DocumentProcessingMessage output = message(
+                "This Lease Agreement is entered into by Landlord and Tenant for the premises. ".repeat(40));
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("ingestId", "ingest-1");
+        metadata.put("archiveEntry", "leases/lease-2024.pdf");
+        metadata.put("sizeBytes", 48_213L);
+        metadata.put("fileHash", "a".repeat(64));
+        metadata.put("pages", 12);
+        metadata.put("parties", List.of("Acme Corp", "Beta LLC"));
+        output.setMetadata(metadata);
+        output.setStatus(DocumentProcessingMessage.ProcessingStatus.PROCESSING);
+        output.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15));
+        deduplicator.recordCompleted("tokenizer", "hash-1", "document-extractor", output);
+
+        assertTrue(deduplicator.resendIfCompleted("tokenizer", "doc-1", "hash-1"));
+
+        ArgumentCaptor<DocumentProcessingMessage> resent = ArgumentCaptor.forClass(DocumentProcessingMessage.class);
+        verify(publisher).sendAndAwait(eq("document-extractor"), eq("doc-1"), resent.capture());
+        assertEquals(output.getContent(), resent.getValue().getContent());
+        assertEquals(metadata, resent.getValue().getMetadata());
+        assertEquals(output.getFilePath(), resent.getValue().getFilePath());
+        assertEquals(output.getStatus(), resent.getValue().getStatus());
+        assertEquals(output.getTimestamp(), resent.getValue().getTimestamp());
+    }
+
+    @Test
+    void testFileHashReusesTheIngestHash() {
+        DocumentProcessingMessage ingested = message(null);
+        ingested.setMetadata(new HashMap<>(Map.of("fileHash", "c".repeat(64))));
+
+        assertEquals("c".repeat(64), deduplicator.fileHash(ingested));
+    }
+
+    @Test
+    void testChangedInputOrOtherStageIsProcessed() throws Exception {
+        deduplicator.recordCompleted("tokenizer", "hash-1", "document-extractor", message("text"));
+
+        assertFalse(deduplicator.resendIfCompleted("tokenizer", "doc-1", "hash-2"));
+        assertFalse(deduplicator.resendIfCompleted("extractor", "doc-1", "hash-1"));
+        verify(publisher, never()).sendAndAwait(any(), any(), any());
+    }
+
+    @Test
+    void testContentHashPrefersTheClaimCheckHash() {
+        DocumentProcessingMessage inline = message("text");
+        DocumentProcessingMessage checkedIn = message(null);
+        checkedIn.setContentHash("f".repeat(64));
+
+        assertEquals(64, deduplicator.contentHash(inline).length());
+        assertEquals("f".repeat(64), deduplicator.contentHash(checkedIn));
+    }
+
+    @Test
+    void testLocalStoreEvictsLeastRecentlyUsed() {
+        LocalStageCompletionStore small = new LocalStageCompletionStore(10, 24);
+        small.put("a", new byte[4]);
+        small.put("b", new byte[4]);
+        small.get("a");
+        small.put("c", new byte[4]);
+
+        assertNotNull(small.get("a"));
+        assertNull(small.get("b"));
+        assertNotNull(small.get("c"));
+    }
+
+    private DocumentProcessingMessage message(String content) {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", "/tmp/doc-1.pdf", "pdf");
+        message.setContent(content);
+        message.setCurrentStage("TOKENIZER");
+        return message;
+    }
+}
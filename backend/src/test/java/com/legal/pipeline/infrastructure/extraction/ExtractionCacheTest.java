@@ -0,0 +1,98 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import com.legal.pipeline.domain.strategy.ExtractionStrategyRegistry;
+import com.legal.pipeline.domain.strategy.IExtractionStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExtractionCache.
+ */
+class ExtractionCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger extractions;
+    private IExtractionStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        extractions = new AtomicInteger();
+        strategy = new IExtractionStrategy() {
+            @Override
+            public String extractText(String documentPath) throws Exception {
+                extractions.incrementAndGet();
+                return "text of " + Files.readString(Path.of(documentPath));
+            }
+
+            @Override
+            public boolean supports(String documentType) {
+                return true;
+            }
+
+            @Override
+            public void registerWith(ExtractionStrategyRegistry registry) {
+            }
+        };
+    }
+
+    @Test
+    void testDuplicateContentSkipsExtraction() throws Exception {
+        ExtractionCache cache = newCache(1024 * 1024);
+        Path first = Files.writeString(tempDir.resolve("exhibit-a.txt"), "same bytes");
+        Path copy = Files.writeString(tempDir.resolve("exhibit-a-copy.txt"), "same bytes");
+
+        assertEquals("text of same bytes", cache.getOrExtract(first.toString(), strategy));
+        assertEquals("text of same bytes", cache.getOrExtract(copy.toString(), strategy));
+
+        assertEquals(1, extractions.get());
+        assertEquals(1.0, meterRegistry.counter("extraction.cache.misses").count());
+        assertEquals(1.0, meterRegistry.counter("extraction.cache.hits", "tier", "memory").count());
+    }
+
+    @Test
+    void testKnownHashIsUsedAsTheKey() throws Exception {
+        ExtractionCache cache = newCache(1024 * 1024);
+        Path document = Files.writeString(tempDir.resolve("exhibit-b.txt"), "hashed at ingest");
+        String hash = ContentHasher.sha256(document);
+
+        cache.getOrExtract(document.toString(), hash, () -> strategy.extractText(document.toString()));
+        // Deleted after extraction: a lookup by the known hash never reads the file again
+        Files.delete(document);
+
+        assertEquals("text of hashed at ingest",
+                cache.getOrExtract(document.toString(), hash, () -> strategy.extractText(document.toString())));
+        assertEquals(1, extractions.get());
+    }
+
+    @Test
+    void testEvictedMemoryEntriesAreServedFromDisk() throws Exception {
+        ExtractionCache cache = newCache(60);
+        Path first = Files.writeString(tempDir.resolve("first.txt"), "first document");
+        Path second = Files.writeString(tempDir.resolve("second.txt"), "second document");
+
+        cache.getOrExtract(first.toString(), strategy);
+        cache.getOrExtract(second.toString(), strategy);
+        assertEquals("text of first document", cache.getOrExtract(first.toString(), strategy));
+
+        assertEquals(2, extractions.get());
+        assertEquals(1.0, meterRegistry.counter("extraction.cache.hits", "tier", "disk").count());
+        assertTrue(meterRegistry.counter("extraction.cache.evictions", "tier", "memory").count() >= 1.0);
+    }
+
+    private ExtractionCache newCache(long memoryMaxBytes) {
+        return new ExtractionCache(meterRegistry, true, memoryMaxBytes, 1024 * 1024,
+                tempDir.resolve("cache").toString());
+    }
+}
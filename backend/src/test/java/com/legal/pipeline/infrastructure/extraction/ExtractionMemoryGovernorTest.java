@@ -0,0 +1,81 @@
+package com.legal.pipeline.infrastructure.extraction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExtractionMemoryGovernor admission order.
+ */
+class ExtractionMemoryGovernorTest {
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void testSmallDocumentDoesNotOvertakeALongWaitingLargeOne() throws Exception {
+        ExtractionMemoryGovernor governor = governor(0);
+        long budget = governor.getBudgetBytes();
+        ExtractionMemoryGovernor.Permit running = governor.admit(textFileOf(budget * 6 / 10), "txt");
+
+        Future<ExtractionMemoryGovernor.Permit> large = threads.submit(
+                () -> governor.admit(textFileOf(budget / 2), "txt"));
+        awaitWaiting(governor, 1);
+        Future<ExtractionMemoryGovernor.Permit> small = threads.submit(
+                () -> governor.admit(textFileOf(budget / 10), "txt"));
+
+        // The small document fits, but the large one has been waiting longer than the bypass bound
+        assertThrows(TimeoutException.class, () -> small.get(200, TimeUnit.MILLISECONDS));
+        running.close();
+        large.get(5, TimeUnit.SECONDS).close();
+        small.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, governor.getInFlightBytes());
+    }
+
+    @Test
+    void testSmallDocumentMayGoAheadWithinTheBypassBound() throws Exception {
+        ExtractionMemoryGovernor governor = governor(60_000);
+        long budget = governor.getBudgetBytes();
+        ExtractionMemoryGovernor.Permit running = governor.admit(textFileOf(budget * 6 / 10), "txt");
+
+        Future<ExtractionMemoryGovernor.Permit> large = threads.submit(
+                () -> governor.admit(textFileOf(budget / 2), "txt"));
+        awaitWaiting(governor, 1);
+
+        governor.admit(textFileOf(budget / 10), "txt").close();
+        assertFalse(large.isDone());
+        running.close();
+        large.get(5, TimeUnit.SECONDS).close();
+    }
+
+    private static ExtractionMemoryGovernor governor(long maxBypassMs) {
+        return new ExtractionMemoryGovernor(new SimpleMeterRegistry(), 0.5, 64L * 1024 * 1024, 30_000, maxBypassMs);
+    }
+
+    /**
+     * The size of a text file whose estimated working set is the given number of bytes.
+     */
+    private static long textFileOf(long workingSet) {
+        return workingSet / 2;
+    }
+
+    private static void awaitWaiting(ExtractionMemoryGovernor governor, int documents) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (governor.getWaitingDocuments() < documents && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(documents, governor.getWaitingDocuments());
+    }
+}
@@ -0,0 +1,184 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.service.DeadLetterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchRecordProcessor.
+ */
+class BatchRecordProcessorTest {
+
+    private final BatchRecordProcessor processor = new BatchRecordProcessor("test", 4, false, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        processor.close();
+    }
+
+    @Test
+    void testEveryRecordIsHandled() {
+        Set<String> handled = ConcurrentHashMap.newKeySet();
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(record(i % 3, i, "doc-" + i, "value-" + i));
+        }
+
+        processor.process(records, handled::add);
+
+        assertEquals(20, handled.size());
+    }
+
+    @Test
+    void testVirtualThreadModeRunsRecordsOnVirtualThreads() {
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(record(i % 3, i, "doc-" + i, "value-" + i));
+        }
+
+        try (BatchRecordProcessor virtualProcessor =
+                new BatchRecordProcessor("test-virtual", 0, true, new SimpleMeterRegistry())) {
+            virtualProcessor.process(records, value -> virtual.add(Thread.currentThread().isVirtual()));
+        }
+
+        assertEquals(Set.of(true), virtual);
+    }
+
+    @Test
+    void testRecordsWithTheSameKeyKeepTheirOrder() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            records.add(record(0, i, "doc-1", String.valueOf(i)));
+        }
+
+        processor.process(records, handled::add);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(String.valueOf(i), handled.get(i));
+        }
+    }
+
+    @Test
+    void testFailureIsReportedAtTheEarliestFailingRecord() {
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(0, 0, "doc-1", "ok"),
+                record(1, 0, "doc-2", "fail"),
+                record(0, 1, "doc-3", "ok"),
+                record(1, 1, "doc-4", "fail"));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> processor.process(records, value -> {
+                    if ("fail".equals(value)) {
+                        throw new IllegalStateException("boom");
+                    }
+                }));
+        assertEquals(1, e.getIndex());
+    }
+
+    @Test
+    void testRecordsAfterAFailureAreNotStarted() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(0, 0, "doc-1", "fail"),
+                record(0, 1, "doc-2", "later"),
+                record(1, 0, "doc-3", "later"));
+
+        try (BatchRecordProcessor serial =
+                new BatchRecordProcessor("test-serial", 1, false, new SimpleMeterRegistry())) {
+            assertThrows(BatchListenerFailedException.class, () -> serial.process(records, value -> {
+                handled.add(value);
+                if ("fail".equals(value)) {
+                    throw new IllegalStateException("boom");
+                }
+            }));
+        }
+
+        assertEquals(List.of("fail"), handled);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUndeliverableRecordIsRedeliveredNotCommitted() {
+        // The output send and its re-route to the error topic both fail for doc-2
+        KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocation ->
+                "doc-2".equals(invocation.getArgument(1))
+                        ? CompletableFuture.failedFuture(new TimeoutException("broker unreachable"))
+                        : CompletableFuture.completedFuture(null));
+        StageOutputPublisher publisher = new StageOutputPublisher(kafkaTemplate, new SimpleMeterRegistry(), 16,
+                1000, 1000);
+        TopicPartition partition = new TopicPartition("document-extractor", 0);
+        List<ConsumerRecord<String, DocumentProcessingMessage>> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String documentId = "doc-" + (i + 1);
+            records.add(new ConsumerRecord<>(partition.topic(), 0, i, documentId,
+                    new DocumentProcessingMessage(documentId, "/tmp/" + documentId + ".pdf", "pdf")));
+        }
+
+        BatchListenerFailedException failed = assertThrows(BatchListenerFailedException.class,
+                () -> processor.process(records, message ->
+                        publisher.sendAndAwait("document-categorizer", message.getDocumentId(), message)));
+        verify(kafkaTemplate).send(eq(StageOutputPublisher.ERROR_TOPIC), eq("doc-2"), any());
+
+        Consumer<String, DocumentProcessingMessage> consumer = mock(Consumer.class);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(partition.topic()));
+        when(container.isRunning()).thenReturn(true);
+        DeadLetterService deadLetterService = mock(DeadLetterService.class);
+        assertThrows(RuntimeException.class, () -> KafkaListenerConfig
+                .batchErrorHandler(deadLetterService, new FixedBackOff(0, 1))
+                .handleBatch(failed, new ConsumerRecords<>(Map.of(partition, records)), consumer, container, () -> {
+                }));
+
+        // Only doc-1 is committed; doc-2 is polled again rather than skipped
+        verify(consumer).commitSync(eq(Map.of(partition, new OffsetAndMetadata(1))), any());
+        verify(consumer).seek(partition, 1);
+        verify(consumer, never()).commitSync(eq(Map.of(partition, new OffsetAndMetadata(2))), any());
+        verify(deadLetterService, never()).record(any());
+    }
+
+    @Test
+    void testUnreadableRecordsAreSkipped() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(0, 0, "doc-1", null),
+                record(0, 1, "doc-2", "readable"));
+
+        processor.process(records, handled::add);
+
+        assertEquals(List.of("readable"), handled);
+    }
+
+    private ConsumerRecord<String, String> record(int partition, long offset, String key, String value) {
+        return new ConsumerRecord<>("document-test", partition, offset, key, value);
+    }
+}
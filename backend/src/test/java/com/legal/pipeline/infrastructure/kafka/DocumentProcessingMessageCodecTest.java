@@ -0,0 +1,158 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary pipeline message format.
+ */
+class DocumentProcessingMessageCodecTest {
+
+    @Test
+    void testRoundTripPreservesEveryField() {
+        DocumentProcessingMessage message = sampleMessage("This Agreement is made between Acme Corp and Beta LLC.");
+        message.setContentRef("blob-ref");
+        message.setContentHash("0".repeat(64));
+        message.setErrorMessage("none");
+        message.setRetryAttempt(2);
+        message.setFailedTopic("document-extractor");
+
+        DocumentProcessingMessage decoded = DocumentProcessingMessageCodec.decode(
+                DocumentProcessingMessageCodec.encode(message, 1024));
+
+        assertEquals(message.getDocumentId(), decoded.getDocumentId());
+        assertEquals(message.getFilePath(), decoded.getFilePath());
+        assertEquals(message.getDocumentType(), decoded.getDocumentType());
+        assertEquals(message.getContent(), decoded.getContent());
+        assertEquals(message.getContentRef(), decoded.getContentRef());
+        assertEquals(message.getContentHash(), decoded.getContentHash());
+        assertEquals(message.getMetadata(), decoded.getMetadata());
+        assertEquals(message.getStatus(), decoded.getStatus());
+        assertEquals(message.getErrorMessage(), decoded.getErrorMessage());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+        assertEquals(message.getCurrentStage(), decoded.getCurrentStage());
+        assertEquals(message.getRetryAttempt(), decoded.getRetryAttempt());
+        assertEquals(message.getFailedTopic(), decoded.getFailedTopic());
+    }
+
+    @Test
+    void testMetadataValuesKeepTheirTypes() {
+        DocumentProcessingMessage message = sampleMessage(null);
+        message.getMetadata().put("pages", 12);
+        message.getMetadata().put("bytes", 5_000_000_000L);
+        message.getMetadata().put("confidence", 0.75);
+        message.getMetadata().put("scanned", true);
+
+        Map<String, Object> decoded = DocumentProcessingMessageCodec.decode(
+                DocumentProcessingMessageCodec.encode(message, 1024)).getMetadata();
+
+        assertEquals(Integer.valueOf(12), decoded.get("pages"));
+        assertEquals(Long.valueOf(5_000_000_000L), decoded.get("bytes"));
+        assertEquals(Double.valueOf(0.75), decoded.get("confidence"));
+        assertEquals(Boolean.TRUE, decoded.get("scanned"));
+    }
+
+    @Test
+    void testLargeContentIsCompressed() {
+        String content = "The Tenant shall pay the Landlord the sum of $1,500.00 per month. ".repeat(200);
+        DocumentProcessingMessage message = sampleMessage(content);
+
+        byte[] compressed = DocumentProcessingMessageCodec.encode(message, 1024);
+        byte[] uncompressed = DocumentProcessingMessageCodec.encode(message, Integer.MAX_VALUE);
+
+        assertTrue(compressed.length < uncompressed.length / 4);
+        assertEquals(content, DocumentProcessingMessageCodec.decode(compressed).getContent());
+    }
+
+    @Test
+    void testBinaryFormatIsSmallerThanJson() {
+        DocumentProcessingMessage message = sampleMessage("Governed by the laws of the State of New York.");
+        try (JsonSerializer<DocumentProcessingMessage> json = new JsonSerializer<>()) {
+            assertTrue(DocumentProcessingMessageCodec.encode(message, 1024).length <
+                    json.serialize("document-output", message).length / 2);
+        }
+    }
+
+    @Test
+    void testUnknownFieldsAreSkipped() {
+        byte[] encoded = DocumentProcessingMessageCodec.encode(sampleMessage("text"), 1024);
+        // Field 99, length-delimited, three bytes of payload: as a newer writer might add
+        byte[] extended = Arrays.copyOf(encoded, encoded.length + 6);
+        extended[encoded.length] = (byte) 0x9A;
+        extended[encoded.length + 1] = 0x06;
+        extended[encoded.length + 2] = 3;
+
+        DocumentProcessingMessage decoded = DocumentProcessingMessageCodec.decode(extended);
+
+        assertEquals("doc-1", decoded.getDocumentId());
+        assertEquals("text", decoded.getContent());
+    }
+
+    @Test
+    void testTruncatedCompressedContentIsRejected() {
+        String content = "The Tenant shall pay the Landlord the sum of $1,500.00 per month. ".repeat(200);
+        byte[] encoded = DocumentProcessingMessageCodec.encode(sampleMessage(content), 1024);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DocumentProcessingMessageCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+    }
+
+    @Test
+    void testCorruptCompressedContentIsRejected() {
+        // Four bytes that claim to inflate to 2 GiB, and one byte that claims a negative length
+        byte[] oversized = { DocumentProcessingMessageCodec.MAGIC, DocumentProcessingMessageCodec.VERSION,
+                42, 9, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 2, 3, 4 };
+        byte[] negative = { DocumentProcessingMessageCodec.MAGIC, DocumentProcessingMessageCodec.VERSION,
+                42, 11, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01, 0 };
+        // A plausible length over a block that is not valid LZ4
+        byte[] garbage = { DocumentProcessingMessageCodec.MAGIC, DocumentProcessingMessageCodec.VERSION,
+                42, 5, 100, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF };
+
+        assertThrows(IllegalArgumentException.class, () -> DocumentProcessingMessageCodec.decode(oversized));
+        assertThrows(IllegalArgumentException.class, () -> DocumentProcessingMessageCodec.decode(negative));
+        assertThrows(IllegalArgumentException.class, () -> DocumentProcessingMessageCodec.decode(garbage));
+        // On the consumer side the failure surfaces as a SerializationException for the error handler
+        try (DocumentProcessingMessageDeserializer deserializer = new DocumentProcessingMessageDeserializer()) {
+            assertThrows(SerializationException.class, () -> deserializer.deserialize("document-output", garbage));
+        }
+    }
+
+    @Test
+    void testLegacyJsonRecordsAreStillRead() {
+        DocumentProcessingMessage message = sampleMessage("legacy");
+        byte[] data;
+        try (JsonSerializer<DocumentProcessingMessage> json = new JsonSerializer<>()) {
+            data = json.serialize("document-extractor", message);
+        }
+
+        try (DocumentProcessingMessageDeserializer deserializer = new DocumentProcessingMessageDeserializer()) {
+            DocumentProcessingMessage decoded = deserializer.deserialize("document-extractor", data);
+            assertEquals("doc-1", decoded.getDocumentId());
+            assertEquals("legacy", decoded.getContent());
+        }
+    }
+
+    private DocumentProcessingMessage sampleMessage(String content) {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", "/tmp/doc-1.pdf", "pdf");
+        message.setContent(content);
+        message.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789));
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.PROCESSING);
+        message.setCurrentStage("EXTRACTOR");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("parties", List.of("Acme Corp", "Beta LLC"));
+        metadata.put("governingLaw", "New York");
+        message.setMetadata(metadata);
+        return message;
+    }
+}
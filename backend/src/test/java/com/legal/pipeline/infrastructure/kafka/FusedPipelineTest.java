@@ -0,0 +1,142 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FusedPipeline.
+ */
+class FusedPipelineTest {
+
+    private ExtractorConsumer extractorConsumer;
+    private CategorizerConsumer categorizerConsumer;
+    private StageOutputPublisher publisher;
+    private ClaimCheckService claimCheckService;
+    private FusedPipeline pipeline;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        extractorConsumer = mock(ExtractorConsumer.class);
+        categorizerConsumer = mock(CategorizerConsumer.class);
+        publisher = mock(StageOutputPublisher.class);
+        claimCheckService = mock(ClaimCheckService.class);
+        pipeline = fusedPipeline("small");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void testStagesRunInMemoryAndOnlyTheResultIsPublished() throws Exception {
+        DocumentProcessingMessage message = message();
+
+        pipeline.process(message);
+
+        verify(extractorConsumer).runStage(message);
+        verify(categorizerConsumer).runStage(message);
+        verify(publisher).sendAndAwait("document-output", "doc-1", message);
+        verify(publisher, never()).sendAndAwait(eq("document-extractor"), any(), any());
+        verify(publisher, never()).sendAndAwait(eq("document-categorizer"), any(), any());
+    }
+
+    @Test
+    void testStageFailureLeavesThroughTheRetryRoute() throws Exception {
+        DocumentProcessingMessage message = message();
+        IOException failure = new IOException("blob store down");
+        when(extractorConsumer.runStage(message)).thenThrow(failure);
+
+        pipeline.process(message);
+
+        verify(claimCheckService).checkIn(message);
+        verify(extractorConsumer).failStage(message, failure);
+        verify(categorizerConsumer, never()).runStage(any());
+        verify(publisher, never()).sendAndAwait(eq("document-output"), any(), any());
+    }
+
+    @Test
+    void testOverrunningStageIsCancelledAtTheDeadline() throws Exception {
+        pipeline.shutdown();
+        pipeline = fusedPipeline("all", 200);
+        DocumentProcessingMessage message = message();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(extractorConsumer.runStage(message)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+
+        assertThrows(TimeoutException.class, () -> pipeline.process(message));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        verify(categorizerConsumer, never()).runStage(any());
+        verify(publisher, never()).sendAndAwait(eq("document-output"), any(), any());
+    }
+
+    @Test
+    void testProcessIsRejectedOnceShutDown() {
+        pipeline.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.process(message()));
+    }
+
+    @Test
+    void testSmallModeAcceptsOnlyFilesUnderTheThreshold() throws IOException {
+        Path small = Files.write(tempDir.resolve("small.txt"), new byte[100]);
+        Path large = Files.write(tempDir.resolve("large.txt"), new byte[2000]);
+
+        assertTrue(pipeline.accepts(new DocumentProcessingMessage("doc-1", small.toString(), "txt")));
+        assertFalse(pipeline.accepts(new DocumentProcessingMessage("doc-2", large.toString(), "txt")));
+        assertFalse(pipeline.accepts(
+                new DocumentProcessingMessage("doc-3", tempDir.resolve("gone.txt").toString(), "txt")));
+    }
+
+    @Test
+    void testOffModeAcceptsNothing() throws IOException {
+        pipeline.shutdown();
+        pipeline = fusedPipeline("off");
+        Path small = Files.write(tempDir.resolve("small.txt"), new byte[100]);
+
+        assertFalse(pipeline.accepts(new DocumentProcessingMessage("doc-1", small.toString(), "txt")));
+    }
+
+    private FusedPipeline fusedPipeline(String mode) {
+        return fusedPipeline(mode, 5000);
+    }
+
+    private FusedPipeline fusedPipeline(String mode, long timeoutMs) {
+        return new FusedPipeline(extractorConsumer, categorizerConsumer, publisher, claimCheckService,
+                new SimpleMeterRegistry(), mode, 1000, 2, 4, timeoutMs);
+    }
+
+    private DocumentProcessingMessage message() {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", "/tmp/doc-1.txt", "txt");
+        message.setContent("This Agreement is made between Acme Corp and Beta LLC.");
+        return message;
+    }
+}
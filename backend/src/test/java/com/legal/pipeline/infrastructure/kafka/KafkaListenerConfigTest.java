@@ -0,0 +1,93 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.service.DeadLetterService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the batch error handling set up by KafkaListenerConfig.
+ */
+class KafkaListenerConfigTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("document-extractor", 0);
+
+    private DeadLetterService deadLetterService;
+    private Consumer<String, DocumentProcessingMessage> consumer;
+    private MessageListenerContainer container;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        deadLetterService = mock(DeadLetterService.class);
+        consumer = mock(Consumer.class);
+        container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties("document-extractor"));
+        when(container.isRunning()).thenReturn(true);
+    }
+
+    @Test
+    void testRecordThatKeepsFailingIsStoredAsDeadLetterBeforeItIsCommitted() {
+        DefaultErrorHandler handler = KafkaListenerConfig.batchErrorHandler(deadLetterService, new FixedBackOff(0, 0));
+        ConsumerRecords<String, DocumentProcessingMessage> batch = batch();
+
+        assertThrows(RuntimeException.class, () -> handleBatch(handler, batch));
+
+        DocumentProcessingMessage failed = batch.records(PARTITION).get(1).value();
+        verify(deadLetterService).record(failed);
+        assertEquals("document-extractor", failed.getFailedTopic());
+        assertEquals(DocumentProcessingMessage.ProcessingStatus.FAILED, failed.getStatus());
+        // The stored record is committed; the one after it is polled again
+        verify(consumer).commitSync(eq(Map.of(PARTITION, new OffsetAndMetadata(2))), any());
+        verify(consumer).seek(PARTITION, 2);
+    }
+
+    @Test
+    void testRecordIsRedeliveredWhenTheDeadLetterStoreFails() {
+        when(deadLetterService.record(any())).thenThrow(new IllegalStateException("database down"));
+        DefaultErrorHandler handler = KafkaListenerConfig.batchErrorHandler(deadLetterService, new FixedBackOff(0, 0));
+
+        assertThrows(RuntimeException.class, () -> handleBatch(handler, batch()));
+
+        verify(consumer).seek(PARTITION, 1);
+        verify(consumer, never()).commitSync(eq(Map.of(PARTITION, new OffsetAndMetadata(2))), any());
+    }
+
+    /**
+     * Hands the error handler a batch whose listener failed at its second record.
+     */
+    private void handleBatch(DefaultErrorHandler handler, ConsumerRecords<String, DocumentProcessingMessage> batch) {
+        handler.handleBatch(new BatchListenerFailedException("extractor batch failed at record 1",
+                new IOException("broker unreachable"), 1), batch, consumer, container, () -> {
+        });
+    }
+
+    private ConsumerRecords<String, DocumentProcessingMessage> batch() {
+        List<ConsumerRecord<String, DocumentProcessingMessage>> records = List.of(
+                record(0, "doc-1"), record(1, "doc-2"), record(2, "doc-3"));
+        return new ConsumerRecords<>(Map.of(PARTITION, records));
+    }
+
+    private static ConsumerRecord<String, DocumentProcessingMessage> record(long offset, String documentId) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, documentId,
+                new DocumentProcessingMessage(documentId, "/tmp/" + documentId + ".pdf", "pdf"));
+    }
+}
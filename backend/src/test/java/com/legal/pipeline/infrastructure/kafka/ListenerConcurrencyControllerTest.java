@@ -0,0 +1,85 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the scaling decisions of ListenerConcurrencyController.
+ */
+class ListenerConcurrencyControllerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private ListenerConcurrencyController.Settings settings;
+    private ListenerConcurrencyController.StageScaler scaler;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ListenerConcurrencyController.Settings(120, 0.25, 0.75, 0.9, 3, 120_000);
+        scaler = new ListenerConcurrencyController.StageScaler("extractor", "group", "document-extractor", 1, 4);
+        // 100 ms per record
+        scaler.observeProcessing(0, 0);
+        scaler.observeProcessing(10_000, 100);
+    }
+
+    @Test
+    void testSustainedBacklogAddsOneConsumer() {
+        // 5000 records at 100 ms on 2 consumers: 250 s to drain against a 120 s target
+        assertEquals(2, scaler.decide(2, 8, 5000, 0.3, settings, 0));
+        assertEquals(2, scaler.decide(2, 8, 5000, 0.3, settings, MINUTE));
+        assertEquals(3, scaler.decide(2, 8, 5000, 0.3, settings, 2 * MINUTE));
+    }
+
+    @Test
+    void testShortBurstDoesNotScale() {
+        assertEquals(2, scaler.decide(2, 8, 5000, 0.3, settings, 0));
+        assertEquals(2, scaler.decide(2, 8, 5000, 0.3, settings, MINUTE));
+        assertEquals(2, scaler.decide(2, 8, 100, 0.3, settings, 2 * MINUTE));
+        assertEquals(2, scaler.decide(2, 8, 5000, 0.3, settings, 3 * MINUTE));
+    }
+
+    @Test
+    void testNoScaleUpWithoutCpuHeadroomOrPartitions() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(2, scaler.decide(2, 8, 5000, 0.8, settings, i * MINUTE));
+        }
+        for (int i = 5; i < 10; i++) {
+            assertEquals(2, scaler.decide(2, 2, 5000, 0.3, settings, i * MINUTE));
+        }
+    }
+
+    @Test
+    void testCooldownFollowsAChange() {
+        scaler.decide(2, 8, 10_000, 0.3, settings, 0);
+        scaler.decide(2, 8, 10_000, 0.3, settings, 0);
+        assertEquals(3, scaler.decide(2, 8, 10_000, 0.3, settings, 0));
+
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(3, scaler.decide(3, 8, 10_000, 0.3, settings, i * MINUTE / 2));
+        }
+        assertEquals(4, scaler.decide(3, 8, 10_000, 0.3, settings, 3 * MINUTE));
+    }
+
+    @Test
+    void testIdleStageShrinksToItsMinimum() {
+        scaler.decide(2, 8, 0, 0.1, settings, 0);
+        scaler.decide(2, 8, 0, 0.1, settings, MINUTE);
+        assertEquals(1, scaler.decide(2, 8, 0, 0.1, settings, 2 * MINUTE));
+        for (int i = 3; i < 10; i++) {
+            assertEquals(1, scaler.decide(1, 8, 0, 0.1, settings, i * MINUTE));
+        }
+    }
+
+    @Test
+    void testUntimedBacklogIsNotMistakenForAnIdleStage() {
+        ListenerConcurrencyController.StageScaler fresh =
+                new ListenerConcurrencyController.StageScaler("extractor", "group", "document-extractor", 1, 4);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(2, fresh.decide(2, 8, 5000, 0.3, settings, i * MINUTE));
+        }
+    }
+}
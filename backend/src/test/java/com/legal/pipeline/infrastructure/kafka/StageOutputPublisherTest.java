@@ -0,0 +1,82 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StageOutputPublisher.
+ */
+class StageOutputPublisherTest {
+
+    private KafkaTemplate<String, DocumentProcessingMessage> kafkaTemplate;
+    private StageOutputPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        publisher = new StageOutputPublisher(kafkaTemplate, new SimpleMeterRegistry(), 1, 100, 5000);
+    }
+
+    @Test
+    void testAcknowledgedSendCompletes() throws Exception {
+        when(kafkaTemplate.send(eq("document-output"), eq("doc-1"), any())).thenReturn(acknowledged());
+
+        publisher.sendAndAwait("document-output", "doc-1", message());
+
+        verify(kafkaTemplate, never()).send(eq(StageOutputPublisher.ERROR_TOPIC), any(), any());
+    }
+
+    @Test
+    void testFailedSendIsRoutedToErrorTopic() throws Exception {
+        when(kafkaTemplate.send(eq("document-output"), eq("doc-1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send(eq(StageOutputPublisher.ERROR_TOPIC), eq("doc-1"), any())).thenReturn(acknowledged());
+        DocumentProcessingMessage message = message();
+
+        publisher.sendAndAwait("document-output", "doc-1", message);
+
+        assertEquals(DocumentProcessingMessage.ProcessingStatus.FAILED, message.getStatus());
+        assertTrue(message.getErrorMessage().contains("document-output"));
+    }
+
+    @Test
+    void testSendFailsWhenErrorTopicIsAlsoUnreachable() {
+        when(kafkaTemplate.send(any(String.class), any(String.class), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> publisher.sendAndAwait("document-output", "doc-1", message()));
+    }
+
+    @Test
+    void testInFlightLimitHoldsBackFurtherSends() throws Exception {
+        CompletableFuture<SendResult<String, DocumentProcessingMessage>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("document-output"), any(), any())).thenReturn(pending);
+
+        publisher.send("document-output", "doc-1", message());
+        assertThrows(TimeoutException.class, () -> publisher.send("document-output", "doc-2", message()));
+
+        pending.complete(null);
+        publisher.send("document-output", "doc-3", message());
+    }
+
+    private CompletableFuture<SendResult<String, DocumentProcessingMessage>> acknowledged() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private DocumentProcessingMessage message() {
+        return new DocumentProcessingMessage("doc-1", "/tmp/doc-1.pdf", "pdf");
+    }
+}
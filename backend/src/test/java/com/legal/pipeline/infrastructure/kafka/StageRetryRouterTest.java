@@ -0,0 +1,116 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.extraction.ExtractionTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StageRetryRouter.
+ */
+class StageRetryRouterTest {
+
+    private StageOutputPublisher publisher;
+    private StageRetryRouter router;
+
+    @BeforeEach
+    void setUp() {
+        publisher = mock(StageOutputPublisher.class);
+        router = new StageRetryRouter(publisher, new SimpleMeterRegistry(), new long[] { 10_000, 60_000 });
+    }
+
+    @Test
+    void testTransientFailureGoesToFirstRetryTier() throws Exception {
+        DocumentProcessingMessage message = message();
+
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+
+        verify(publisher).sendAndAwait(eq("document-tokenizer-retry-0"), eq("doc-1"), any());
+        assertEquals(1, message.getRetryAttempt());
+        assertEquals("document-tokenizer", message.getFailedTopic());
+    }
+
+    @Test
+    void testFailureAfterLastTierGoesToErrorTopic() throws Exception {
+        DocumentProcessingMessage message = message();
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+
+        verify(publisher).sendAndAwait(eq("document-tokenizer-retry-1"), eq("doc-1"), any());
+        verify(publisher).sendAndAwait(eq(StageOutputPublisher.ERROR_TOPIC), eq("doc-1"), any());
+        assertEquals(DocumentProcessingMessage.ProcessingStatus.FAILED, message.getStatus());
+        assertEquals(2, message.getRetryAttempt());
+    }
+
+    @Test
+    void testPermanentFailureSkipsRetries() throws Exception {
+        router.routeFailure("document-tokenizer", message(), new ExtractionTimeoutException("too slow"));
+
+        verify(publisher).sendAndAwait(eq(StageOutputPublisher.ERROR_TOPIC), eq("doc-1"), any());
+        verify(publisher, never()).sendAndAwait(eq("document-tokenizer-retry-0"), any(), any());
+    }
+
+    @Test
+    void testParserFailuresAreNotRetried() {
+        assertFalse(StageRetryRouter.isRetryable(new IOException("Error: End-of-File, expected line")));
+        assertFalse(StageRetryRouter.isRetryable(new Exception("Failed to extract text from PDF",
+                mock(InvalidPasswordException.class))));
+        assertFalse(StageRetryRouter.isRetryable(new Exception("Failed to extract text from Word document",
+                new NotOfficeXmlFileException("No valid entries or contents found"))));
+        assertFalse(StageRetryRouter.isRetryable(new IllegalStateException("Corrupt stream")));
+    }
+
+    @Test
+    void testTransientCausesAreRetried() {
+        assertTrue(StageRetryRouter.isRetryable(new Exception("Extraction pool is saturated; document rejected",
+                new RejectedExecutionException())));
+        assertTrue(StageRetryRouter.isRetryable(new ExecutionException(new SocketTimeoutException("Read timed out"))));
+    }
+
+    @Test
+    void testEachStageHasItsOwnRetryBudget() throws Exception {
+        DocumentProcessingMessage message = message();
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+        router.routeFailure("document-tokenizer", message, memoryTimeout());
+
+        router.routeFailure("document-extractor", message, new IOException("Failed to load blob",
+                new RedisConnectionFailureException("Connection refused")));
+
+        verify(publisher).sendAndAwait(eq("document-extractor-retry-0"), eq("doc-1"), any());
+        assertEquals(1, message.getRetryAttempt());
+    }
+
+    @Test
+    void testRetryTopicsMapBackToTheirStage() {
+        List<List<String>> tiers = router.retryTopicsByTier();
+
+        assertEquals(2, tiers.size());
+        assertTrue(tiers.get(1).contains("document-categorizer-retry-1"));
+        assertEquals("document-categorizer", StageRetryRouter.stageTopicOf("document-categorizer-retry-1"));
+    }
+
+    private static TimeoutException memoryTimeout() {
+        return new TimeoutException("Timed out waiting for extraction memory");
+    }
+
+    private DocumentProcessingMessage message() {
+        return new DocumentProcessingMessage("doc-1", "/tmp/doc-1.pdf", "pdf");
+    }
+}
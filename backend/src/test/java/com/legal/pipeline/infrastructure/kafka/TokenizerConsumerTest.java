@@ -0,0 +1,114 @@
+package com.legal.pipeline.infrastructure.kafka;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.chain.ContentValidationHandler;
+import com.legal.pipeline.domain.chain.FormatValidationHandler;
+import com.legal.pipeline.domain.chain.ValidationChain;
+import com.legal.pipeline.infrastructure.dedupe.StageDeduplicator;
+import com.legal.pipeline.infrastructure.extraction.DocumentExtractionService;
+import com.legal.pipeline.infrastructure.lanes.DocumentLaneRouter;
+import com.legal.pipeline.infrastructure.lanes.WeightedLaneScheduler;
+import com.legal.pipeline.infrastructure.storage.ClaimCheckService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenizerConsumer.
+ */
+class TokenizerConsumerTest {
+
+    private static final String NON_LEGAL_TEXT = "The weather was fine. We went for a walk.";
+
+    private StageOutputPublisher publisher;
+    private StageRetryRouter retryRouter;
+    private DocumentExtractionService extractionService;
+    private ExtractorConsumer extractorConsumer;
+    private CategorizerConsumer categorizerConsumer;
+    private StageDeduplicator deduplicator;
+    private FusedPipeline fusedPipeline;
+    private TokenizerConsumer consumer;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        publisher = mock(StageOutputPublisher.class);
+        retryRouter = mock(StageRetryRouter.class);
+        extractionService = mock(DocumentExtractionService.class);
+        extractorConsumer = mock(ExtractorConsumer.class);
+        categorizerConsumer = mock(CategorizerConsumer.class);
+        deduplicator = mock(StageDeduplicator.class);
+        when(deduplicator.fileHash(any())).thenReturn("hash-1");
+        when(extractionService.extract(anyString(), anyString(), anyString(), any())).thenReturn(NON_LEGAL_TEXT);
+        // Fused, so the extractor and categorizer stages run in this test
+        fusedPipeline = new FusedPipeline(extractorConsumer, categorizerConsumer, publisher,
+                mock(ClaimCheckService.class), new SimpleMeterRegistry(), "all", 0, 1, 4, 5000);
+        consumer = tokenizer(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+        fusedPipeline.shutdown();
+    }
+
+    @Test
+    void testOrdinaryDocumentReachesTheCategorizer() throws Exception {
+        DocumentProcessingMessage message = message(Files.writeString(tempDir.resolve("minutes.txt"), "minutes"));
+
+        consumer.tokenize(message);
+
+        verify(categorizerConsumer).runStage(message);
+        verify(publisher).sendAndAwait("document-output", "doc-1", message);
+        verify(retryRouter, never()).routeFailure(any(), any(), any());
+    }
+
+    @Test
+    void testUnsupportedFileIsRejectedBeforeExtraction() throws Exception {
+        DocumentProcessingMessage message = message(Files.writeString(tempDir.resolve("scan.png"), "png"));
+
+        consumer.tokenize(message);
+
+        verify(extractionService, never()).extract(anyString(), anyString(), anyString(), any());
+        verify(retryRouter).routeFailure(eq("document-tokenizer"), eq(message), any(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testEnforcedContentValidationRejectsNonLegalText() throws Exception {
+        consumer.shutdown();
+        consumer = tokenizer(true);
+        DocumentProcessingMessage message = message(Files.writeString(tempDir.resolve("minutes.txt"), "minutes"));
+
+        consumer.tokenize(message);
+
+        verify(retryRouter).routeFailure(eq("document-tokenizer"), eq(message), any(IllegalArgumentException.class));
+        verify(categorizerConsumer, never()).runStage(any());
+    }
+
+    private TokenizerConsumer tokenizer(boolean enforceContentValidation) {
+        ValidationChain validationChain = new ValidationChain(
+                List.of(new FormatValidationHandler(), new ContentValidationHandler()), 0.3, 50);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new TokenizerConsumer(publisher, retryRouter, extractionService, validationChain,
+                mock(ClaimCheckService.class), fusedPipeline, deduplicator, mock(DocumentLaneRouter.class),
+                new WeightedLaneScheduler(meterRegistry, 2, 4, 3, 1, 1), meterRegistry, 1, 1, false,
+                enforceContentValidation);
+    }
+
+    private DocumentProcessingMessage message(Path file) {
+        return new DocumentProcessingMessage("doc-1", file.toString(), "txt");
+    }
+}
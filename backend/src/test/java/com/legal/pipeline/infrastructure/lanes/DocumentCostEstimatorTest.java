@@ -0,0 +1,49 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DocumentCostEstimator.
+ */
+class DocumentCostEstimatorTest {
+
+    private final DocumentCostEstimator estimator = new DocumentCostEstimator(1_000_000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLargePdfGoesToLargeLane() throws IOException {
+        assertEquals(DocumentLane.LARGE, estimator.laneOf(message(file("filing.pdf", 2_000_000), "pdf")));
+        assertEquals(DocumentLane.STANDARD, estimator.laneOf(message(file("nda.pdf", 100_000), "pdf")));
+    }
+
+    @Test
+    void testPlainTextIsCheaperPerByte() throws IOException {
+        assertEquals(DocumentLane.STANDARD, estimator.laneOf(message(file("transcript.txt", 2_000_000), "txt")));
+    }
+
+    @Test
+    void testMissingFileStaysInStandardLane() {
+        assertEquals(DocumentLane.STANDARD, estimator.laneOf(message(tempDir.resolve("gone.pdf"), "pdf")));
+    }
+
+    private Path file(String name, int size) throws IOException {
+        return Files.write(tempDir.resolve(name), new byte[size]);
+    }
+
+    private DocumentProcessingMessage message(Path file, String type) {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", file.toString(), type);
+        message.setMetadata(new HashMap<>());
+        return message;
+    }
+}
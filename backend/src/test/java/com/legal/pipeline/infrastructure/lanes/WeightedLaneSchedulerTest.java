@@ -0,0 +1,107 @@
+package com.legal.pipeline.infrastructure.lanes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeightedLaneScheduler.
+ */
+class WeightedLaneSchedulerTest {
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void testLargeLaneCannotTakeReservedPermits() throws Exception {
+        WeightedLaneScheduler scheduler = new WeightedLaneScheduler(meterRegistry, 2, 4, 3, 1, 1);
+        CountDownLatch firstLargeStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstLarge = new CountDownLatch(1);
+
+        Future<?> firstLarge = threads.submit(() -> scheduler.call(DocumentLane.LARGE, () -> {
+            firstLargeStarted.countDown();
+            releaseFirstLarge.await();
+            return null;
+        }));
+        assertTrue(firstLargeStarted.await(5, TimeUnit.SECONDS));
+        Future<String> secondLarge = threads.submit(() -> scheduler.call(DocumentLane.LARGE, () -> "large"));
+        awaitWaiting(DocumentLane.LARGE, 1);
+
+        // The remaining permit is reserved: a small document runs at once, the second large one waits
+        assertEquals("small", scheduler.call(DocumentLane.STANDARD, () -> "small"));
+        assertThrows(TimeoutException.class, () -> secondLarge.get(200, TimeUnit.MILLISECONDS));
+
+        releaseFirstLarge.countDown();
+        firstLarge.get(5, TimeUnit.SECONDS);
+        assertEquals("large", secondLarge.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testWaitingLanesAreServedByWeight() throws Exception {
+        WeightedLaneScheduler scheduler = new WeightedLaneScheduler(meterRegistry, 1, 4, 3, 1, 0);
+        CountDownLatch holderStarted = new CountDownLatch(1);
+        CountDownLatch releaseHolder = new CountDownLatch(1);
+        StringBuffer order = new StringBuffer();
+
+        Future<?> holder = threads.submit(() -> scheduler.call(DocumentLane.STANDARD, () -> {
+            holderStarted.countDown();
+            releaseHolder.await();
+            return null;
+        }));
+        assertTrue(holderStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<?>> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiters.add(threads.submit(() -> scheduler.call(DocumentLane.STANDARD, () -> order.append('S'))));
+            waiters.add(threads.submit(() -> scheduler.call(DocumentLane.LARGE, () -> order.append('L'))));
+        }
+        awaitWaiting(DocumentLane.STANDARD, 4);
+        awaitWaiting(DocumentLane.LARGE, 4);
+
+        releaseHolder.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        for (Future<?> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+
+        // With weights 3:1 the large lane gets one turn in the first four, not two
+        assertEquals(1, order.substring(0, 4).chars().filter(ch -> ch == 'L').count(), order.toString());
+    }
+
+    @Test
+    void testLargeLaneKeepsTheOnlyPermit() throws Exception {
+        // More reserved permits than there are: the large lane still gets one rather than none
+        WeightedLaneScheduler scheduler = new WeightedLaneScheduler(meterRegistry, 1, 4, 3, 1, 1);
+
+        Future<String> large = threads.submit(() -> scheduler.call(DocumentLane.LARGE, () -> "large"));
+
+        assertEquals("large", large.get(5, TimeUnit.SECONDS));
+        assertEquals("small", scheduler.call(DocumentLane.STANDARD, () -> "small"));
+    }
+
+    private void awaitWaiting(DocumentLane lane, int expected) throws InterruptedException {
+        String tag = lane.name().toLowerCase();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("pipeline.lanes.waiting").tag("lane", tag).gauge().value() != expected) {
+            assertTrue(System.nanoTime() < deadline, "lane " + tag + " never reached " + expected + " waiting");
+            Thread.sleep(10);
+        }
+    }
+}
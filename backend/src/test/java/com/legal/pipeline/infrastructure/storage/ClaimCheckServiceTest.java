@@ -0,0 +1,95 @@
+package com.legal.pipeline.infrastructure.storage;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClaimCheckService with the filesystem blob store.
+ */
+class ClaimCheckServiceTest {
+
+    @TempDir
+    Path storeDirectory;
+
+    private ClaimCheckService claimCheckService;
+
+    @BeforeEach
+    void setUp() {
+        BlobStore blobStore = new FileSystemBlobStore(storeDirectory.toString(), 72);
+        claimCheckService = new ClaimCheckService(blobStore, new SimpleMeterRegistry(), true, 64);
+    }
+
+    @Test
+    void testSmallContentStaysInline() throws IOException {
+        DocumentProcessingMessage message = messageWith("short text");
+        claimCheckService.checkIn(message);
+
+        assertEquals("short text", message.getContent());
+        assertNull(message.getContentRef());
+        assertEquals("short text", claimCheckService.resolveContent(message));
+    }
+
+    @Test
+    void testLargeContentIsCheckedInAndResolved() throws IOException {
+        String content = "This Agreement is governed by the laws of the State of New York. ".repeat(10);
+        DocumentProcessingMessage message = messageWith(content);
+        claimCheckService.checkIn(message);
+
+        assertNull(message.getContent());
+        assertNotNull(message.getContentRef());
+        assertEquals(64, message.getContentHash().length());
+        assertEquals(content, claimCheckService.resolveContent(message));
+        assertNull(message.getContent(), "Resolving must not re-inflate the forwarded message");
+    }
+
+    @Test
+    void testTamperedHashIsRejected() throws IOException {
+        DocumentProcessingMessage message = messageWith("x".repeat(200));
+        claimCheckService.checkIn(message);
+        message.setContentHash("0".repeat(64));
+
+        assertThrows(IOException.class, () -> claimCheckService.resolveContent(message));
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() throws IOException {
+        claimCheckService.checkIn(messageWith("y".repeat(200)));
+        claimCheckService.checkIn(messageWith("y".repeat(200)));
+
+        try (Stream<Path> files = Files.walk(storeDirectory)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testReusedBlobSurvivesThePurge() throws IOException {
+        FileSystemBlobStore blobStore = new FileSystemBlobStore(storeDirectory.toString(), 72);
+        String reference = blobStore.put("ab".repeat(32), new byte[] { 1, 2, 3 });
+        Path blob = storeDirectory.resolve(reference);
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now().minus(Duration.ofHours(73))));
+
+        blobStore.put("ab".repeat(32), new byte[] { 1, 2, 3 });
+        blobStore.purgeExpired();
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, blobStore.get(reference));
+    }
+
+    private DocumentProcessingMessage messageWith(String content) {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", "/tmp/doc.txt", "txt");
+        message.setContent(content);
+        return message;
+    }
+}
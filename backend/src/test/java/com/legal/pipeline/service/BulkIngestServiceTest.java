@@ -0,0 +1,256 @@
+package com.legal.pipeline.service;
+
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.domain.chain.FormatValidationHandler;
+import com.legal.pipeline.domain.dto.IngestEntryResult;
+import com.legal.pipeline.domain.dto.IngestManifest;
+import com.legal.pipeline.infrastructure.lanes.DocumentLane;
+import com.legal.pipeline.infrastructure.lanes.DocumentLaneRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BulkIngestService.
+ */
+class BulkIngestServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.7\n1 0 obj\n<< >>\nendobj\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEXT = "This agreement is made between the parties.".getBytes(StandardCharsets.UTF_8);
+
+    private DocumentLaneRouter laneRouter;
+    private SimpleMeterRegistry meterRegistry;
+    private BulkIngestService service;
+    private final List<DocumentProcessingMessage> published = Collections.synchronizedList(new ArrayList<>());
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        laneRouter = mock(DocumentLaneRouter.class);
+        when(laneRouter.submitAsync(any())).thenAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(DocumentLane.STANDARD);
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(4, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testEntriesAreSpooledValidatedAndPublishedInArchiveOrder() throws Exception {
+        byte[] archive = zip("a/lease.pdf", PDF, "notes.txt", TEXT, "image.png", PDF, "b/", null);
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(archive), "matter-7");
+
+        assertEquals(List.of("a/lease.pdf", "notes.txt", "image.png"), names(manifest));
+        assertEquals(2, manifest.getAccepted());
+        assertEquals(1, manifest.getRejected());
+        assertNull(manifest.getArchiveError());
+
+        IngestEntryResult lease = manifest.getEntries().get(0);
+        assertEquals(IngestEntryResult.Status.ACCEPTED, lease.getStatus());
+        assertEquals("pdf", lease.getDocumentType());
+        assertEquals("STANDARD", lease.getLane());
+        assertEquals(PDF.length, lease.getSizeBytes());
+
+        DocumentProcessingMessage message = published.stream()
+                .filter(m -> m.getDocumentId().equals(lease.getDocumentId())).findFirst().orElseThrow();
+        Path spooled = Path.of(message.getFilePath());
+        assertTrue(spooled.startsWith(spoolDir));
+        assertArrayEquals(PDF, Files.readAllBytes(spooled));
+        assertEquals("matter-7", message.getMetadata().get("matterId"));
+        assertEquals("a/lease.pdf", message.getMetadata().get("archiveEntry"));
+        assertEquals(manifest.getIngestId(), message.getMetadata().get("ingestId"));
+    }
+
+    @Test
+    void testUnsupportedEntryIsNeverWritten() throws Exception {
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip("image.png", PDF)), null);
+
+        assertEquals(IngestEntryResult.Status.REJECTED, manifest.getEntries().get(0).getStatus());
+        assertNull(manifest.getEntries().get(0).getDocumentId());
+        verify(laneRouter, never()).submitAsync(any());
+        try (var files = Files.walk(spoolDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testContentThatIsNotItsExtensionIsRejected() throws Exception {
+        byte[] binary = new byte[64];
+        Arrays.fill(binary, (byte) 0x01);
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip("fake.pdf", binary, "empty.txt",
+                new byte[0])), null);
+
+        assertEquals(2, manifest.getRejected());
+        assertEquals("Content is not a supported document format", manifest.getEntries().get(0).getReason());
+        assertEquals("Empty file", manifest.getEntries().get(1).getReason());
+        verify(laneRouter, never()).submitAsync(any());
+    }
+
+    @Test
+    void testRepeatedContentIsReportedAsDuplicate() throws Exception {
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip("one.pdf", PDF, "copy-of-one.pdf",
+                PDF)), null);
+
+        assertEquals(1, manifest.getAccepted());
+        assertEquals(1, manifest.getDuplicates());
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void testEntryOverTheSizeLimitIsRejected() throws Exception {
+        byte[] large = new byte[(int) new FormatValidationHandler().getMaxFileSize() + 1];
+        Arrays.fill(large, (byte) 'a');
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip("large.txt", large)), null);
+
+        IngestEntryResult entry = manifest.getEntries().get(0);
+        assertEquals(IngestEntryResult.Status.REJECTED, entry.getStatus());
+        assertEquals(large.length, entry.getSizeBytes());
+        verify(laneRouter, never()).submitAsync(any());
+    }
+
+    @Test
+    void testUndeliveredMessageIsReportedAsFailed() throws Exception {
+        when(laneRouter.submitAsync(any())).thenAnswer(invocation -> {
+            DocumentProcessingMessage message = invocation.getArgument(0);
+            message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+            message.setErrorMessage("broker unavailable");
+            return CompletableFuture.completedFuture(DocumentLane.STANDARD);
+        });
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip("one.pdf", PDF)), null);
+
+        assertEquals(IngestEntryResult.Status.FAILED, manifest.getEntries().get(0).getStatus());
+        assertEquals("broker unavailable", manifest.getEntries().get(0).getReason());
+    }
+
+    @Test
+    void testTruncatedArchiveKeepsEntriesReadBeforeTheDamage() throws Exception {
+        byte[] first = zip("one.pdf", PDF);
+        byte[] archive = zip("one.pdf", PDF, "two.txt", TEXT);
+        // Cut inside the second entry: the first entry's local record is intact
+        int secondEntry = indexOfCentralDirectory(first);
+        byte[] truncated = Arrays.copyOf(archive, secondEntry + 40);
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(truncated), null);
+
+        assertNotNull(manifest.getArchiveError());
+        assertEquals("one.pdf", manifest.getEntries().get(0).getEntryName());
+        assertEquals(IngestEntryResult.Status.ACCEPTED, manifest.getEntries().get(0).getStatus());
+    }
+
+    @Test
+    void testEntriesThatCannotBeSpooledAreReportedAsFailed() throws Exception {
+        byte[] archive = zip("one.pdf", PDF, "two.txt", TEXT);
+        // Once the ingest directory exists, replace it with a file: every spool write fails
+        InputStream sabotaged = new FilterInputStream(new ByteArrayInputStream(archive)) {
+            private boolean done;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (!done) {
+                    done = true;
+                    try (var directories = Files.list(spoolDir)) {
+                        Path ingestDirectory = directories.findFirst().orElseThrow();
+                        Files.delete(ingestDirectory);
+                        Files.createFile(ingestDirectory);
+                    }
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        IngestManifest manifest = service.ingest(sabotaged, null);
+
+        assertNull(manifest.getArchiveError());
+        assertEquals(List.of("one.pdf", "two.txt"), names(manifest));
+        for (IngestEntryResult entry : manifest.getEntries()) {
+            assertEquals(IngestEntryResult.Status.FAILED, entry.getStatus());
+            assertTrue(entry.getReason().startsWith("Could not spool entry"));
+        }
+        verify(laneRouter, never()).submitAsync(any());
+    }
+
+    @Test
+    void testManyEntriesWithFewPendingSlots() throws Exception {
+        service.shutdown();
+        service = service(2, 3);
+        List<Object> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add("doc-" + i + ".txt");
+            entries.add(("Document number " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        IngestManifest manifest = service.ingest(new ByteArrayInputStream(zip(entries.toArray())), null);
+
+        assertEquals(50, manifest.getAccepted());
+        assertEquals("doc-49.txt", manifest.getEntries().get(49).getEntryName());
+        assertEquals(50.0, meterRegistry.counter("ingest.entries", "status", "accepted").count());
+    }
+
+    private BulkIngestService service(int threads, int maxPendingEntries) {
+        return new BulkIngestService(new FormatValidationHandler(), laneRouter, meterRegistry,
+                spoolDir.toString(), threads, maxPendingEntries, 100000);
+    }
+
+    private static List<String> names(IngestManifest manifest) {
+        return manifest.getEntries().stream().map(IngestEntryResult::getEntryName).toList();
+    }
+
+    private static int indexOfCentralDirectory(byte[] zip) {
+        for (int i = 0; i + 3 < zip.length; i++) {
+            if (zip[i] == 'P' && zip[i + 1] == 'K' && zip[i + 2] == 1 && zip[i + 3] == 2) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No central directory");
+    }
+
+    /**
+     * @param entries alternating entry names and contents; a null content adds a directory
+     */
+    private static byte[] zip(Object... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) entries[i]));
+                if (entries[i + 1] != null) {
+                    zip.write((byte[]) entries[i + 1]);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
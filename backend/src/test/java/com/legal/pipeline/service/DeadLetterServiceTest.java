@@ -0,0 +1,92 @@
+package com.legal.pipeline.service;
+
+import com.legal.pipeline.domain.DeadLetter;
+import com.legal.pipeline.domain.DocumentProcessingMessage;
+import com.legal.pipeline.infrastructure.kafka.StageOutputPublisher;
+import com.legal.pipeline.repository.DeadLetterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeadLetterService.
+ */
+class DeadLetterServiceTest {
+
+    private DeadLetterRepository repository;
+    private DeadLetterService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DeadLetterRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findByDocumentIdAndFailedTopic(any(), any())).thenReturn(Optional.empty());
+        service = new DeadLetterService(repository, mock(StageOutputPublisher.class), 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testNewFailureIsStored() {
+        DeadLetter stored = service.record(failedMessage("Timed out"));
+
+        assertNull(stored.getId());
+        assertEquals("doc-1", stored.getDocumentId());
+        assertEquals("document-extractor", stored.getFailedTopic());
+        assertEquals(DeadLetter.Status.PENDING, stored.getStatus());
+    }
+
+    @Test
+    void testRepeatedFailureInTheSameStageUpdatesTheExistingDeadLetter() {
+        DeadLetter existing = new DeadLetter();
+        existing.setId(7L);
+        existing.setDocumentId("doc-1");
+        existing.setFailedTopic("document-extractor");
+        existing.setStatus(DeadLetter.Status.REPLAYED);
+        existing.setReplayedAt(LocalDateTime.now());
+        when(repository.findByDocumentIdAndFailedTopic("doc-1", "document-extractor"))
+                .thenReturn(Optional.of(existing));
+
+        DeadLetter stored = service.record(failedMessage("Failed again after replay"));
+
+        assertSame(existing, stored);
+        assertEquals(DeadLetter.Status.PENDING, stored.getStatus());
+        assertNull(stored.getReplayedAt());
+        assertEquals("Failed again after replay", stored.getErrorMessage());
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void testConcurrentInsertOfTheSameStageFallsBackToAnUpdate() {
+        DeadLetter winner = new DeadLetter();
+        winner.setId(9L);
+        when(repository.findByDocumentIdAndFailedTopic("doc-1", "document-extractor"))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("uk_dead_letters_document_stage"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        DeadLetter stored = service.record(failedMessage("Timed out"));
+
+        assertSame(winner, stored);
+        assertEquals("doc-1", stored.getDocumentId());
+    }
+
+    private DocumentProcessingMessage failedMessage(String error) {
+        DocumentProcessingMessage message = new DocumentProcessingMessage("doc-1", "/tmp/doc-1.pdf", "pdf");
+        message.setFailedTopic("document-extractor");
+        message.setErrorMessage(error);
+        message.setStatus(DocumentProcessingMessage.ProcessingStatus.FAILED);
+        return message;
+    }
+}